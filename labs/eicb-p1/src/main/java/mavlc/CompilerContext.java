@@ -0,0 +1,89 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc;
+
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+
+/**
+ * The compiler components of one thread, which are reused for every program compiled on it.
+ *
+ * <p>Creating a {@link Scanner}, a {@link Parser} and an {@link ASTXMLSerialization} for every
+ * program dominates the cost of compiling many small programs. A context resets the same instances
+ * for each program instead. Like the components themselves, a context must only be used by one
+ * thread, so each thread has its own, see {@link #current()}.
+ */
+public final class CompilerContext {
+
+  private static final ThreadLocal<CompilerContext> CURRENT =
+      ThreadLocal.withInitial(CompilerContext::new);
+
+  private Scanner scanner;
+
+  private Parser parser;
+
+  private ASTXMLSerialization serialization;
+
+  private CompilerContext() {}
+
+  /** @return The context of the current thread. */
+  public static CompilerContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Resets the scanner of this context to an input program. The scanner and all tokens obtained
+   * from the previous call must not be used anymore.
+   *
+   * @param source The input program to tokenize.
+   * @return The scanner.
+   */
+  public Scanner scanner(CharSequence source) {
+    if (scanner == null) scanner = new Scanner(source);
+    else scanner.reset(source);
+    return scanner;
+  }
+
+  /**
+   * Resets the parser of this context to an input program, which is tokenized by the scanner of
+   * this context.
+   *
+   * @param source The input program to parse.
+   * @return The parser.
+   */
+  public Parser parser(CharSequence source) {
+    Scanner tokens = scanner(source);
+    if (parser == null) parser = new Parser(tokens);
+    else parser.reset(tokens);
+    return parser;
+  }
+
+  /**
+   * Parses an input program.
+   *
+   * @param source The input program to parse.
+   * @return The root of the AST representing the input program.
+   * @throws SyntaxError to indicate that an unexpected token was encountered.
+   */
+  public Module parse(CharSequence source) throws SyntaxError {
+    return parser(source).parse();
+  }
+
+  /** @return The serialization of ASTs to XML of this context, which is created once. */
+  public ASTXMLSerialization getSerialization() {
+    if (serialization == null) serialization = new ASTXMLSerialization();
+    return serialization;
+  }
+}
@@ -17,15 +17,21 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.List;
 import mavlc.ast.dot.ASTVisualizerVisitor;
 import mavlc.ast.nodes.ASTNode;
 import mavlc.ast.nodes.module.Module;
 import mavlc.ast.serialization.ASTSerialization;
 import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.error_reporting.SyntaxErrors;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.ParallelParser;
+import mavlc.parser.recursive_descent.ParallelScanner;
 import mavlc.parser.recursive_descent.Parser;
 import mavlc.parser.recursive_descent.Scanner;
-import mavlc.parser.recursive_descent.Token;
+import mavlc.parser.recursive_descent.SymbolTable;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -41,6 +47,10 @@ public class Main {
     CommandLineParser cliParser = new DefaultParser();
     Options options = setupCLI();
     boolean dotAfterSyntax = false;
+    boolean printStats = false;
+    boolean parallel = false;
+    boolean recover = false;
+    int maxDepth = Parser.DEFAULT_MAX_DEPTH;
     File outputFile = null;
     File inputFile = null;
 
@@ -68,6 +78,21 @@ public class Main {
       } else {
         outputFile = new File("a.xml");
       }
+      printStats = cli.hasOption("stats");
+      parallel = cli.hasOption("parallel");
+      recover = cli.hasOption("recover");
+      if (cli.hasOption("maxdepth")) {
+        String depth = cli.getOptionValue("maxdepth");
+        try {
+          maxDepth = Integer.parseInt(depth);
+        } catch (NumberFormatException e) {
+          maxDepth = 0;
+        }
+        if (maxDepth < 1) {
+          System.err.println("Invalid option value for option \"--max-depth\": " + depth);
+          System.exit(1);
+        }
+      }
       if (cli.hasOption("dot")) {
         String step = cli.getOptionValue("dot", "syntax");
         switch (step) {
@@ -89,16 +114,39 @@ public class Main {
      */
     Module compilationUnit = null;
     System.out.println("Compiling file " + inputFile);
+    List<SyntaxError> errors = new ArrayList<>();
     try {
-      Scanner lexer = new Scanner(inputFile);
-      Deque<Token> tokens = lexer.scan();
-
-      Parser p = new Parser(tokens);
-      compilationUnit = p.parse(); // may thow SyntaxError
+      SymbolTable symbols;
+      if (parallel) {
+        PackedTokenBuffer buffer = new ParallelScanner(inputFile.toPath()).scan();
+        symbols = buffer.getSymbols();
+        if (recover) {
+          compilationUnit = new Parser(buffer.cursor(), maxDepth).parseOnDedicatedThread(errors);
+        } else {
+          ParallelParser p = new ParallelParser(buffer, maxDepth);
+          compilationUnit = p.parse(); // may thow SyntaxError
+        }
+      } else {
+        Scanner scanner = new Scanner(inputFile);
+        symbols = scanner.getSymbols();
+        Parser p = new Parser(scanner, maxDepth);
+        if (recover) {
+          compilationUnit = p.parseOnDedicatedThread(errors);
+        } else {
+          compilationUnit = p.parseOnDedicatedThread(); // may thow SyntaxError
+        }
+      }
+      if (printStats) {
+        System.out.printf(
+            "Symbols: %d distinct identifiers in %d occurrences, ~%d bytes saved by interning%n",
+            symbols.size(), symbols.occurrences(), symbols.bytesSaved());
+      }
     } catch (IOException e) {
       e.printStackTrace();
       System.exit(1);
     }
+    if (errors.size() == 1) throw errors.get(0);
+    if (errors.size() > 1) throw new SyntaxErrors(errors);
     if (dotAfterSyntax) {
       String outputPath = outputFile.getAbsolutePath();
       String path = outputPath.substring(0, outputPath.lastIndexOf('.'));
@@ -137,6 +185,26 @@ public class Main {
 
     options.addOption("syn", "syntax-only", false, "(option is ignored)");
 
+    options.addOption("stats", false, "Print statistics about the compiled program");
+
+    options.addOption(
+        "parallel", false, "Scan and parse the input file on all available processors");
+
+    options.addOption(
+        "recover", false, "Report all syntax errors instead of stopping at the first one");
+
+    Option maxDepth =
+        Option.builder("maxdepth")
+            .longOpt("max-depth")
+            .argName("depth")
+            .hasArg()
+            .desc(
+                "Maximal nesting depth of expressions and statements [default: "
+                    + Parser.DEFAULT_MAX_DEPTH
+                    + "]")
+            .build();
+    options.addOption(maxDepth);
+
     Option outputFile =
         Option.builder("o")
             .argName("output-file")
@@ -152,7 +220,8 @@ public class Main {
             .numberOfArgs(1)
             .desc(
                 "Output the (D)AST in GraphViz dot-format after the specified compilation step:"
-                    + "\n syntax [default]: Output the result of the syntactical analysis as dot-tree")
+                    + "\n syntax [default]: Output the result of the syntactical analysis as "
+                    + "dot-tree")
             .build();
     options.addOption(dotOutput);
 
@@ -0,0 +1,608 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.ast.flat;
+
+import java.util.Arrays;
+import mavlc.ast.nodes.ASTNode;
+import mavlc.ast.nodes.NodeList;
+import mavlc.ast.nodes.expression.*;
+import mavlc.ast.nodes.function.FormalParameter;
+import mavlc.ast.nodes.function.Function;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.nodes.record.RecordElementDeclaration;
+import mavlc.ast.nodes.record.RecordTypeDeclaration;
+import mavlc.ast.nodes.statement.*;
+import mavlc.ast.type.*;
+
+/**
+ * AST of a MAVL program whose nodes are stored in parallel primitive arrays instead of one object
+ * per node.
+ *
+ * <p>A node is an index into the arrays, which hold its {@link Kind}, its first child, its next
+ * sibling, its source position and a payload, e.g. the value of a literal or the index of a name
+ * in the string table. Nodes are added after their children, so the root is the last node. The
+ * children of a node are the nodes of the corresponding {@link ASTNode} in the order of the source
+ * code, as documented for each kind; types are nodes as well.
+ *
+ * <p>{@link FlatNode} is a view of a node with the getters of the {@link ASTNode}s, and {@link
+ * #toNode(int)} creates the {@link ASTNode}s of a subtree.
+ */
+public final class FlatAst {
+
+  /** The kinds of nodes and types, with their children and payload. */
+  public enum Kind {
+    /** Children: records and functions. */
+    MODULE,
+    /** Children: return type, formal parameters, statements. Payload: name. */
+    FUNCTION,
+    /** Children: type. Payload: name. */
+    FORMAL_PARAMETER,
+    /** Children: record elements. Payload: name. */
+    RECORD_TYPE_DECLARATION,
+    /** Children: type. Payload: name shifted left by one, plus one for a variable. */
+    RECORD_ELEMENT_DECLARATION,
+
+    INT_TYPE,
+    FLOAT_TYPE,
+    BOOL_TYPE,
+    VOID_TYPE,
+    STRING_TYPE,
+    /** Payload: name. */
+    RECORD_TYPE,
+    /** Children: dimension. Payload: 1 for float elements, otherwise 0. */
+    VECTOR_TYPE,
+    /** Children: x dimension, y dimension. Payload: 1 for float elements, otherwise 0. */
+    MATRIX_TYPE,
+
+    /** Children: type, value. Payload: name. */
+    VALUE_DEFINITION,
+    /** Children: type. Payload: name. */
+    VARIABLE_DECLARATION,
+    /** Children: value. */
+    RETURN_STATEMENT,
+    /** Children: left hand identifier, value. */
+    VARIABLE_ASSIGNMENT,
+    /** Payload: name. */
+    LEFT_HAND_IDENTIFIER,
+    /** Children: index. Payload: name. */
+    VECTOR_LHS_IDENTIFIER,
+    /** Children: x index, y index. Payload: name. */
+    MATRIX_LHS_IDENTIFIER,
+    /** Payload: name, followed by the element name. */
+    RECORD_LHS_IDENTIFIER,
+    /** Children: call. */
+    CALL_STATEMENT,
+    /**
+     * Children: initial value, condition, increment, loop body. Payload: initialized variable,
+     * followed by the incremented variable.
+     */
+    FOR_LOOP,
+    /** Children: type. Payload: name shifted left by one, plus one for a variable. */
+    ITERATOR_DECLARATION,
+    /** Children: iterator, iterated structure, loop body. */
+    FOR_EACH_LOOP,
+    /** Children: condition, then statement, optional else statement. */
+    IF_STATEMENT,
+    /** Children: tested value, cases and default cases. */
+    SWITCH_STATEMENT,
+    /** Children: condition, statement. */
+    CASE,
+    /** Children: statement. */
+    DEFAULT,
+    /** Children: statements. */
+    COMPOUND_STATEMENT,
+
+    /** Payload: value. */
+    INT_VALUE,
+    /** Payload: the bits of the value. */
+    FLOAT_VALUE,
+    /** Payload: 1 for true, 0 for false. */
+    BOOL_VALUE,
+    /** Payload: value. */
+    STRING_VALUE,
+    /** Payload: name. */
+    IDENTIFIER_REFERENCE,
+    /** Children: condition, true case, false case. */
+    SELECT_EXPRESSION,
+    /** Children: operand. */
+    BOOL_NOT,
+    /** Children: operand. */
+    UNARY_MINUS,
+    /** Children: operand. */
+    MATRIX_X_DIMENSION,
+    /** Children: operand. */
+    MATRIX_Y_DIMENSION,
+    /** Children: operand. */
+    VECTOR_DIMENSION,
+    /** Children: left operand, right operand. */
+    OR,
+    /** Children: left operand, right operand. */
+    AND,
+    /** Children: left operand, right operand. Payload: ordinal of the comparison. */
+    COMPARE,
+    /** Children: left operand, right operand. */
+    ADDITION,
+    /** Children: left operand, right operand. */
+    SUBTRACTION,
+    /** Children: left operand, right operand. */
+    MULTIPLICATION,
+    /** Children: left operand, right operand. */
+    DIVISION,
+    /** Children: left operand, right operand. */
+    EXPONENTIATION,
+    /** Children: left operand, right operand. */
+    DOT_PRODUCT,
+    /** Children: left operand, right operand. */
+    MATRIX_MULTIPLICATION,
+    /** Children: vector, start index, base index, end index. */
+    SUB_VECTOR,
+    /** Children: matrix, x start, base and end index, y start, base and end index. */
+    SUB_MATRIX,
+    /** Children: structure, index. */
+    ELEMENT_SELECT,
+    /** Children: record. Payload: element name. */
+    RECORD_ELEMENT_SELECT,
+    /** Children: actual parameters. Payload: callee name. */
+    CALL_EXPRESSION,
+    /** Children: elements. */
+    STRUCTURE_INIT,
+    /** Children: elements. Payload: record name. */
+    RECORD_INIT;
+
+    /** @return Whether nodes of this kind have an operand and no payload. */
+    public boolean isUnary() {
+      return compareTo(BOOL_NOT) >= 0 && compareTo(VECTOR_DIMENSION) <= 0;
+    }
+
+    /** @return Whether nodes of this kind have a left and a right operand. */
+    public boolean isBinary() {
+      return compareTo(OR) >= 0 && compareTo(MATRIX_MULTIPLICATION) <= 0;
+    }
+
+    /** @return Whether nodes of this kind are types. */
+    public boolean isType() {
+      return compareTo(INT_TYPE) >= 0 && compareTo(MATRIX_TYPE) <= 0;
+    }
+  }
+
+  private static final Kind[] KINDS = Kind.values();
+
+  private static final Compare.Comparison[] COMPARISONS = Compare.Comparison.values();
+
+  /** No node, e.g. as first child of a leaf. */
+  public static final int NONE = -1;
+
+  private byte[] kinds;
+  private int[] firstChildren;
+  private int[] nextSiblings;
+  private int[] lines;
+  private int[] columns;
+  private int[] payloads;
+  private int size;
+
+  private String[] strings;
+  private int stringCount;
+
+  /** Constructor. */
+  public FlatAst() {
+    this(256);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param capacity The number of nodes to allocate space for.
+   */
+  public FlatAst(int capacity) {
+    capacity = Math.max(capacity, 1);
+    kinds = new byte[capacity];
+    firstChildren = new int[capacity];
+    nextSiblings = new int[capacity];
+    lines = new int[capacity];
+    columns = new int[capacity];
+    payloads = new int[capacity];
+    strings = new String[Math.max(capacity / 4, 1)];
+  }
+
+  /**
+   * Adds a node whose children were added before.
+   *
+   * @param kind The kind of the node.
+   * @param line The source line in which the node was specified.
+   * @param column The source column in which the node was specified.
+   * @param payload The payload of the node, see {@link Kind}.
+   * @param children Array containing the children of the node.
+   * @param from Index of the first child in the array.
+   * @param to Index after the last child in the array.
+   * @return The new node.
+   */
+  public int addNode(
+      Kind kind, int line, int column, int payload, int[] children, int from, int to) {
+    if (size == kinds.length) grow();
+    int node = size++;
+    kinds[node] = (byte) kind.ordinal();
+    lines[node] = line;
+    columns[node] = column;
+    payloads[node] = payload;
+    nextSiblings[node] = NONE;
+    firstChildren[node] = from < to ? children[from] : NONE;
+    for (int i = from; i + 1 < to; i++) nextSiblings[children[i]] = children[i + 1];
+    return node;
+  }
+
+  /**
+   * Adds a string for the payload of a node.
+   *
+   * @param string The string to add.
+   * @return The index of the string.
+   */
+  public int addString(String string) {
+    if (stringCount == strings.length) strings = Arrays.copyOf(strings, stringCount * 2);
+    strings[stringCount] = string;
+    return stringCount++;
+  }
+
+  private void grow() {
+    int capacity = size * 2;
+    kinds = Arrays.copyOf(kinds, capacity);
+    firstChildren = Arrays.copyOf(firstChildren, capacity);
+    nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+    lines = Arrays.copyOf(lines, capacity);
+    columns = Arrays.copyOf(columns, capacity);
+    payloads = Arrays.copyOf(payloads, capacity);
+  }
+
+  /** Trims the arrays to the nodes and strings added so far. */
+  public void trim() {
+    kinds = Arrays.copyOf(kinds, size);
+    firstChildren = Arrays.copyOf(firstChildren, size);
+    nextSiblings = Arrays.copyOf(nextSiblings, size);
+    lines = Arrays.copyOf(lines, size);
+    columns = Arrays.copyOf(columns, size);
+    payloads = Arrays.copyOf(payloads, size);
+    strings = Arrays.copyOf(strings, stringCount);
+  }
+
+  /** @return The number of nodes. */
+  public int size() {
+    return size;
+  }
+
+  /** @return The root node, which is the last node added, or {@link #NONE} if there is none. */
+  public int root() {
+    return size - 1;
+  }
+
+  /** @return A view of the root node. */
+  public FlatNode getRoot() {
+    return new FlatNode(this, root());
+  }
+
+  /**
+   * @param node A node.
+   * @return A view of the node.
+   */
+  public FlatNode view(int node) {
+    return new FlatNode(this, node);
+  }
+
+  /** @return The kind of the node. */
+  public Kind kind(int node) {
+    return KINDS[kinds[node]];
+  }
+
+  /** @return The first child of the node, or {@link #NONE}. */
+  public int firstChild(int node) {
+    return firstChildren[node];
+  }
+
+  /** @return The next sibling of the node, or {@link #NONE}. */
+  public int nextSibling(int node) {
+    return nextSiblings[node];
+  }
+
+  /** @return The n-th child of the node, or {@link #NONE}. */
+  public int child(int node, int n) {
+    int child = firstChildren[node];
+    for (; n > 0 && child != NONE; n--) child = nextSiblings[child];
+    return child;
+  }
+
+  /** @return The source line in which the node was specified. */
+  public int line(int node) {
+    return lines[node];
+  }
+
+  /** @return The source column in which the node was specified. */
+  public int column(int node) {
+    return columns[node];
+  }
+
+  /** @return The payload of the node, see {@link Kind}. */
+  public int payload(int node) {
+    return payloads[node];
+  }
+
+  /** @return The string that is the payload of the node. */
+  public String string(int node) {
+    return strings[payloads[node]];
+  }
+
+  /** @return The string following the payload of the node, e.g. the element of a record LHS. */
+  String secondString(int node) {
+    return strings[payloads[node] + 1];
+  }
+
+  /** @return The name of a node whose payload is a name and a flag. */
+  String flaggedName(int node) {
+    return strings[payloads[node] >>> 1];
+  }
+
+  /** @return The flag of a node whose payload is a name and a flag. */
+  boolean flag(int node) {
+    return (payloads[node] & 1) != 0;
+  }
+
+  /**
+   * Creates the {@link ASTNode}s of a subtree.
+   *
+   * @param node The root of the subtree, which must not be a type.
+   * @return The node corresponding to the root of the subtree.
+   */
+  public ASTNode toNode(int node) {
+    int line = lines[node], column = columns[node];
+    switch (kind(node)) {
+      case MODULE:
+        Module module = new Module(line, column);
+        for (int c = firstChildren[node]; c != NONE; c = nextSiblings[c]) {
+          if (kind(c) == Kind.FUNCTION) module.addFunction((Function) toNode(c));
+          else module.addRecord((RecordTypeDeclaration) toNode(c));
+        }
+        NodeList.freeze(module.getFunctions());
+        NodeList.freeze(module.getRecords());
+        return module;
+      case FUNCTION:
+        int returnType = firstChildren[node];
+        Function function = new Function(line, column, string(node), toType(returnType));
+        for (int c = nextSiblings[returnType]; c != NONE; c = nextSiblings[c]) {
+          if (kind(c) == Kind.FORMAL_PARAMETER) function.addParameter((FormalParameter) toNode(c));
+          else function.addStatement((Statement) toNode(c));
+        }
+        NodeList.freeze(function.getParameters());
+        NodeList.freeze(function.getFunctionBody());
+        return function;
+      case FORMAL_PARAMETER:
+        return new FormalParameter(line, column, string(node), toType(firstChildren[node]));
+      case RECORD_TYPE_DECLARATION:
+        NodeList<RecordElementDeclaration> elements = new NodeList<>();
+        for (int c = firstChildren[node]; c != NONE; c = nextSiblings[c])
+          elements.add((RecordElementDeclaration) toNode(c));
+        elements.freeze();
+        return new RecordTypeDeclaration(line, column, string(node), elements);
+      case RECORD_ELEMENT_DECLARATION:
+        return new RecordElementDeclaration(
+            line, column, flag(node), toType(firstChildren[node]), flaggedName(node));
+      case VALUE_DEFINITION:
+        return new ValueDefinition(
+            line, column, toType(child(node, 0)), string(node), expression(child(node, 1)));
+      case VARIABLE_DECLARATION:
+        return new VariableDeclaration(line, column, toType(firstChildren[node]), string(node));
+      case RETURN_STATEMENT:
+        return new ReturnStatement(line, column, expression(firstChildren[node]));
+      case VARIABLE_ASSIGNMENT:
+        return new VariableAssignment(
+            line,
+            column,
+            (LeftHandIdentifier) toNode(child(node, 0)),
+            expression(child(node, 1)));
+      case LEFT_HAND_IDENTIFIER:
+        return new LeftHandIdentifier(line, column, string(node));
+      case VECTOR_LHS_IDENTIFIER:
+        return new VectorLHSIdentifier(line, column, string(node), expression(child(node, 0)));
+      case MATRIX_LHS_IDENTIFIER:
+        return new MatrixLHSIdentifier(
+            line, column, string(node), expression(child(node, 0)), expression(child(node, 1)));
+      case RECORD_LHS_IDENTIFIER:
+        return new RecordLHSIdentifier(line, column, string(node), secondString(node));
+      case CALL_STATEMENT:
+        return new CallStatement(line, column, (CallExpression) toNode(firstChildren[node]));
+      case FOR_LOOP:
+        return new ForLoop(
+            line,
+            column,
+            string(node),
+            expression(child(node, 0)),
+            expression(child(node, 1)),
+            secondString(node),
+            expression(child(node, 2)),
+            statement(child(node, 3)));
+      case ITERATOR_DECLARATION:
+        return new IteratorDeclaration(
+            line, column, flaggedName(node), toType(firstChildren[node]), flag(node));
+      case FOR_EACH_LOOP:
+        return new ForEachLoop(
+            line,
+            column,
+            (IteratorDeclaration) toNode(child(node, 0)),
+            expression(child(node, 1)),
+            statement(child(node, 2)));
+      case IF_STATEMENT:
+        Expression condition = expression(child(node, 0));
+        Statement thenStatement = statement(child(node, 1));
+        int elseStatement = child(node, 2);
+        if (elseStatement == NONE) return new IfStatement(line, column, condition, thenStatement);
+        return new IfStatement(line, column, condition, thenStatement, statement(elseStatement));
+      case SWITCH_STATEMENT:
+        SwitchStatement switchStatement = new SwitchStatement(line, column);
+        int test = firstChildren[node];
+        switchStatement.setTestExpression(expression(test));
+        for (int c = nextSiblings[test]; c != NONE; c = nextSiblings[c]) {
+          if (kind(c) == Kind.CASE) switchStatement.addCase((Case) toNode(c));
+          else switchStatement.addDefault((Default) toNode(c));
+        }
+        NodeList.freeze(switchStatement.getCases());
+        NodeList.freeze(switchStatement.getDefaultCases());
+        return switchStatement;
+      case CASE:
+        return new Case(line, column, expression(child(node, 0)), statement(child(node, 1)));
+      case DEFAULT:
+        return new Default(line, column, statement(firstChildren[node]));
+      case COMPOUND_STATEMENT:
+        CompoundStatement compound = new CompoundStatement(line, column);
+        for (int c = firstChildren[node]; c != NONE; c = nextSiblings[c])
+          compound.addStatement(statement(c));
+        NodeList.freeze(compound.getStatements());
+        return compound;
+      case INT_VALUE:
+        return new IntValue(line, column, payloads[node]);
+      case FLOAT_VALUE:
+        return new FloatValue(line, column, Float.intBitsToFloat(payloads[node]));
+      case BOOL_VALUE:
+        return new BoolValue(line, column, payloads[node] != 0);
+      case STRING_VALUE:
+        return new StringValue(line, column, string(node));
+      case IDENTIFIER_REFERENCE:
+        return new IdentifierReference(line, column, string(node));
+      case SELECT_EXPRESSION:
+        return new SelectExpression(
+            line,
+            column,
+            expression(child(node, 0)),
+            expression(child(node, 1)),
+            expression(child(node, 2)));
+      case BOOL_NOT:
+        return new BoolNot(line, column, expression(firstChildren[node]));
+      case UNARY_MINUS:
+        return new UnaryMinus(line, column, expression(firstChildren[node]));
+      case MATRIX_X_DIMENSION:
+        return new MatrixXDimension(line, column, expression(firstChildren[node]));
+      case MATRIX_Y_DIMENSION:
+        return new MatrixYDimension(line, column, expression(firstChildren[node]));
+      case VECTOR_DIMENSION:
+        return new VectorDimension(line, column, expression(firstChildren[node]));
+      case SUB_VECTOR:
+        return new SubVector(
+            line,
+            column,
+            expression(child(node, 0)),
+            expression(child(node, 2)),
+            expression(child(node, 1)),
+            expression(child(node, 3)));
+      case SUB_MATRIX:
+        return new SubMatrix(
+            line,
+            column,
+            expression(child(node, 0)),
+            expression(child(node, 2)),
+            expression(child(node, 1)),
+            expression(child(node, 3)),
+            expression(child(node, 5)),
+            expression(child(node, 4)),
+            expression(child(node, 6)));
+      case ELEMENT_SELECT:
+        return new ElementSelect(
+            line, column, expression(child(node, 0)), expression(child(node, 1)));
+      case RECORD_ELEMENT_SELECT:
+        return new RecordElementSelect(
+            line, column, expression(firstChildren[node]), string(node));
+      case CALL_EXPRESSION:
+        CallExpression call = new CallExpression(line, column, string(node));
+        for (int c = firstChildren[node]; c != NONE; c = nextSiblings[c])
+          call.addActualParameter(expression(c));
+        NodeList.freeze(call.getActualParameters());
+        return call;
+      case STRUCTURE_INIT:
+      case RECORD_INIT:
+        StructureInit init =
+            kind(node) == Kind.STRUCTURE_INIT
+                ? new StructureInit(line, column)
+                : new RecordInit(line, column, string(node));
+        for (int c = firstChildren[node]; c != NONE; c = nextSiblings[c])
+          init.addElement(expression(c));
+        NodeList.freeze(init.getElements());
+        return init;
+      default:
+        if (kind(node).isBinary()) {
+          return binary(
+              node, line, column, expression(child(node, 0)), expression(child(node, 1)));
+        }
+        throw new IllegalArgumentException(kind(node) + " is a type, not a node");
+    }
+  }
+
+  private Expression binary(int node, int line, int column, Expression x, Expression y) {
+    switch (kind(node)) {
+      case OR:
+        return new Or(line, column, x, y);
+      case AND:
+        return new And(line, column, x, y);
+      case COMPARE:
+        return new Compare(line, column, x, y, COMPARISONS[payloads[node]]);
+      case ADDITION:
+        return new Addition(line, column, x, y);
+      case SUBTRACTION:
+        return new Subtraction(line, column, x, y);
+      case MULTIPLICATION:
+        return new Multiplication(line, column, x, y);
+      case DIVISION:
+        return new Division(line, column, x, y);
+      case EXPONENTIATION:
+        return new Exponentiation(line, column, x, y);
+      case DOT_PRODUCT:
+        return new DotProduct(line, column, x, y);
+      default:
+        return new MatrixMultiplication(line, column, x, y);
+    }
+  }
+
+  private Expression expression(int node) {
+    return (Expression) toNode(node);
+  }
+
+  private Statement statement(int node) {
+    return (Statement) toNode(node);
+  }
+
+  /**
+   * Creates the {@link Type} of a type node.
+   *
+   * @param node The type node.
+   * @return The type.
+   */
+  public Type toType(int node) {
+    switch (kind(node)) {
+      case INT_TYPE:
+        return Type.getIntType();
+      case FLOAT_TYPE:
+        return Type.getFloatType();
+      case BOOL_TYPE:
+        return Type.getBoolType();
+      case VOID_TYPE:
+        return Type.getVoidType();
+      case STRING_TYPE:
+        return Type.getStringType();
+      case RECORD_TYPE:
+        return new RecordType(string(node));
+      case VECTOR_TYPE:
+        return new VectorType(elementType(node), expression(firstChildren[node]));
+      case MATRIX_TYPE:
+        return new MatrixType(
+            elementType(node), expression(child(node, 0)), expression(child(node, 1)));
+      default:
+        throw new IllegalArgumentException(kind(node) + " is not a type");
+    }
+  }
+
+  private ScalarType elementType(int node) {
+    return payloads[node] != 0 ? Type.getFloatType() : Type.getIntType();
+  }
+}
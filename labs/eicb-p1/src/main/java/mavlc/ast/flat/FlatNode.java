@@ -0,0 +1,511 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.ast.flat;
+
+import static mavlc.ast.flat.FlatAst.Kind.*;
+import static mavlc.ast.flat.FlatAst.NONE;
+
+import java.util.ArrayList;
+import java.util.List;
+import mavlc.ast.flat.FlatAst.Kind;
+import mavlc.ast.nodes.ASTNode;
+import mavlc.ast.nodes.expression.Compare;
+import mavlc.ast.type.Type;
+import mavlc.ast.visitor.ASTNodeVisitor;
+
+/**
+ * View of a node of a {@link FlatAst}, with the getters of the corresponding {@link ASTNode}.
+ *
+ * <p>A view is only an index into the flat AST, so views are created whenever a node is accessed
+ * and compare equal if they view the same node. Getters return views for child nodes and types,
+ * and throw an {@link UnsupportedOperationException} if the node has no such part. Literal values
+ * are returned by getters named after their type, e.g. {@link #getIntValue()}, because {@code
+ * getValue()} returns the value of definitions and assignments.
+ */
+public final class FlatNode {
+
+  private static final Compare.Comparison[] COMPARISONS = Compare.Comparison.values();
+
+  private final FlatAst ast;
+
+  private final int node;
+
+  /**
+   * Constructor.
+   *
+   * @param ast The flat AST containing the node.
+   * @param node The viewed node.
+   */
+  FlatNode(FlatAst ast, int node) {
+    this.ast = ast;
+    this.node = node;
+  }
+
+  /** @return The flat AST containing the node. */
+  public FlatAst getAst() {
+    return ast;
+  }
+
+  /** @return The node in the flat AST. */
+  public int node() {
+    return node;
+  }
+
+  /** @return The kind of the node. */
+  public Kind getKind() {
+    return ast.kind(node);
+  }
+
+  /** @return Source line in the input program. */
+  public int getSrcLine() {
+    return ast.line(node);
+  }
+
+  /** @return Source column in the input program. */
+  public int getSrcColumn() {
+    return ast.column(node);
+  }
+
+  /** @return Views of all children, in the order of the source code. */
+  public List<FlatNode> getChildren() {
+    return children(ast.firstChild(node), null);
+  }
+
+  /** @return The {@link ASTNode}s of the subtree of this node. */
+  public ASTNode toNode() {
+    return ast.toNode(node);
+  }
+
+  /** @return The type of this type node. */
+  public Type toType() {
+    return ast.toType(node);
+  }
+
+  /**
+   * Accepts the given visitor with the {@link ASTNode}s of this subtree, which are created for
+   * every call, and calls the corresponding visit-method in the visitor.
+   *
+   * @param visitor Instance of {@link mavlc.ast.visitor.ASTNodeVisitor}.
+   * @param obj Additional argument, passed on to the visitor.
+   * @param <RetTy> Return type used by visitor methods.
+   * @param <ArgTy> Argument type used by visitor methods.
+   * @return Return value from the visit-method in the visitor.
+   */
+  public <RetTy, ArgTy> RetTy accept(ASTNodeVisitor<? extends RetTy, ArgTy> visitor, ArgTy obj) {
+    return toNode().accept(visitor, obj);
+  }
+
+  /* Declarations */
+
+  public List<FlatNode> getFunctions() {
+    expect(MODULE);
+    return children(ast.firstChild(node), FUNCTION);
+  }
+
+  public List<FlatNode> getRecords() {
+    expect(MODULE);
+    return children(ast.firstChild(node), RECORD_TYPE_DECLARATION);
+  }
+
+  /** @return The name of a declaration, function, record type or left hand identifier. */
+  public String getName() {
+    switch (getKind()) {
+      case RECORD_ELEMENT_DECLARATION:
+      case ITERATOR_DECLARATION:
+        return ast.flaggedName(node);
+      case FUNCTION:
+      case FORMAL_PARAMETER:
+      case RECORD_TYPE_DECLARATION:
+      case RECORD_TYPE:
+      case VALUE_DEFINITION:
+      case VARIABLE_DECLARATION:
+      case LEFT_HAND_IDENTIFIER:
+      case VECTOR_LHS_IDENTIFIER:
+      case MATRIX_LHS_IDENTIFIER:
+      case RECORD_LHS_IDENTIFIER:
+      case RECORD_INIT:
+        return ast.string(node);
+      default:
+        throw unsupported("a named node");
+    }
+  }
+
+  public FlatNode getReturnType() {
+    expect(FUNCTION);
+    return child(0);
+  }
+
+  public List<FlatNode> getParameters() {
+    expect(FUNCTION);
+    return children(ast.nextSibling(ast.firstChild(node)), FORMAL_PARAMETER);
+  }
+
+  public List<FlatNode> getFunctionBody() {
+    expect(FUNCTION);
+    int statement = ast.nextSibling(ast.firstChild(node));
+    while (statement != NONE && ast.kind(statement) == FORMAL_PARAMETER)
+      statement = ast.nextSibling(statement);
+    return children(statement, null);
+  }
+
+  /** @return The type of a declaration or formal parameter. */
+  public FlatNode getType() {
+    switch (getKind()) {
+      case FORMAL_PARAMETER:
+      case RECORD_ELEMENT_DECLARATION:
+      case VALUE_DEFINITION:
+      case VARIABLE_DECLARATION:
+      case ITERATOR_DECLARATION:
+        return child(0);
+      default:
+        throw unsupported("a declaration");
+    }
+  }
+
+  /** @return Whether a record element or iterator is variable. */
+  public boolean isVariable() {
+    expect(RECORD_ELEMENT_DECLARATION, ITERATOR_DECLARATION);
+    return ast.flag(node);
+  }
+
+  /** @return The elements of a record type, a structure initializer or a record initializer. */
+  public List<FlatNode> getElements() {
+    expect(RECORD_TYPE_DECLARATION, STRUCTURE_INIT, RECORD_INIT);
+    return getChildren();
+  }
+
+  /* Statements */
+
+  /** @return The value of a value definition or variable assignment. */
+  public FlatNode getValue() {
+    expect(VALUE_DEFINITION, VARIABLE_ASSIGNMENT);
+    return child(1);
+  }
+
+  public FlatNode getReturnValue() {
+    expect(RETURN_STATEMENT);
+    return child(0);
+  }
+
+  public FlatNode getIdentifier() {
+    expect(VARIABLE_ASSIGNMENT);
+    return child(0);
+  }
+
+  /** @return The index of a vector LHS identifier or an element selection. */
+  public FlatNode getIndex() {
+    switch (getKind()) {
+      case VECTOR_LHS_IDENTIFIER:
+        return child(0);
+      case ELEMENT_SELECT:
+        return child(1);
+      default:
+        throw unsupported("an indexed node");
+    }
+  }
+
+  public FlatNode getXIndex() {
+    expect(MATRIX_LHS_IDENTIFIER);
+    return child(0);
+  }
+
+  public FlatNode getYIndex() {
+    expect(MATRIX_LHS_IDENTIFIER);
+    return child(1);
+  }
+
+  /** @return The element name of a record LHS identifier or a record element selection. */
+  public String getElementName() {
+    switch (getKind()) {
+      case RECORD_LHS_IDENTIFIER:
+        return ast.secondString(node);
+      case RECORD_ELEMENT_SELECT:
+        return ast.string(node);
+      default:
+        throw unsupported("a record element");
+    }
+  }
+
+  public FlatNode getCall() {
+    expect(CALL_STATEMENT);
+    return child(0);
+  }
+
+  public String getInitVariableName() {
+    expect(FOR_LOOP);
+    return ast.string(node);
+  }
+
+  public FlatNode getInitValue() {
+    expect(FOR_LOOP);
+    return child(0);
+  }
+
+  public FlatNode getCheck() {
+    expect(FOR_LOOP);
+    return child(1);
+  }
+
+  public String getIncrementVariableName() {
+    expect(FOR_LOOP);
+    return ast.secondString(node);
+  }
+
+  public FlatNode getIncrementExpr() {
+    expect(FOR_LOOP);
+    return child(2);
+  }
+
+  /** @return The body of a for or foreach loop. */
+  public FlatNode getLoopBody() {
+    expect(FOR_LOOP, FOR_EACH_LOOP);
+    return child(getKind() == FOR_LOOP ? 3 : 2);
+  }
+
+  public FlatNode getIteratorDeclaration() {
+    expect(FOR_EACH_LOOP);
+    return child(0);
+  }
+
+  public FlatNode getStructExpr() {
+    expect(FOR_EACH_LOOP);
+    return child(1);
+  }
+
+  /** @return The condition of an if statement or the tested value of a switch statement. */
+  public FlatNode getTestExpression() {
+    expect(IF_STATEMENT, SWITCH_STATEMENT);
+    return child(0);
+  }
+
+  public FlatNode getThenStatement() {
+    expect(IF_STATEMENT);
+    return child(1);
+  }
+
+  /** @return The else statement, or null if there is none. */
+  public FlatNode getElseStatement() {
+    expect(IF_STATEMENT);
+    int elseStatement = ast.child(node, 2);
+    return elseStatement == NONE ? null : ast.view(elseStatement);
+  }
+
+  public boolean hasElseStatement() {
+    expect(IF_STATEMENT);
+    return ast.child(node, 2) != NONE;
+  }
+
+  public List<FlatNode> getCases() {
+    expect(SWITCH_STATEMENT);
+    return children(ast.nextSibling(ast.firstChild(node)), CASE);
+  }
+
+  public List<FlatNode> getDefaultCases() {
+    expect(SWITCH_STATEMENT);
+    return children(ast.nextSibling(ast.firstChild(node)), DEFAULT);
+  }
+
+  public FlatNode getConditionExpression() {
+    expect(CASE);
+    return child(0);
+  }
+
+  /** @return The statement of a case or default case. */
+  public FlatNode getStatement() {
+    expect(CASE, DEFAULT);
+    return child(getKind() == CASE ? 1 : 0);
+  }
+
+  public List<FlatNode> getStatements() {
+    expect(COMPOUND_STATEMENT);
+    return getChildren();
+  }
+
+  /* Expressions */
+
+  public int getIntValue() {
+    expect(INT_VALUE);
+    return ast.payload(node);
+  }
+
+  public float getFloatValue() {
+    expect(FLOAT_VALUE);
+    return Float.intBitsToFloat(ast.payload(node));
+  }
+
+  public boolean getBoolValue() {
+    expect(BOOL_VALUE);
+    return ast.payload(node) != 0;
+  }
+
+  public String getStringValue() {
+    expect(STRING_VALUE);
+    return ast.string(node);
+  }
+
+  public String getIdentifierName() {
+    expect(IDENTIFIER_REFERENCE);
+    return ast.string(node);
+  }
+
+  public FlatNode getLeftOp() {
+    if (!getKind().isBinary()) throw unsupported("a binary expression");
+    return child(0);
+  }
+
+  public FlatNode getRightOp() {
+    if (!getKind().isBinary()) throw unsupported("a binary expression");
+    return child(1);
+  }
+
+  public Compare.Comparison getComparator() {
+    expect(COMPARE);
+    return COMPARISONS[ast.payload(node)];
+  }
+
+  public FlatNode getOperand() {
+    if (!getKind().isUnary()) throw unsupported("a unary expression");
+    return child(0);
+  }
+
+  /** @return The condition of a select expression. */
+  public FlatNode getCondition() {
+    expect(SELECT_EXPRESSION);
+    return child(0);
+  }
+
+  public FlatNode getTrueCase() {
+    expect(SELECT_EXPRESSION);
+    return child(1);
+  }
+
+  public FlatNode getFalseCase() {
+    expect(SELECT_EXPRESSION);
+    return child(2);
+  }
+
+  /** @return The vector or matrix of a subvector, submatrix or element selection. */
+  public FlatNode getStruct() {
+    expect(SUB_VECTOR, SUB_MATRIX, ELEMENT_SELECT);
+    return child(0);
+  }
+
+  public FlatNode getStartIndex() {
+    expect(SUB_VECTOR);
+    return child(1);
+  }
+
+  public FlatNode getBaseIndex() {
+    expect(SUB_VECTOR);
+    return child(2);
+  }
+
+  public FlatNode getEndIndex() {
+    expect(SUB_VECTOR);
+    return child(3);
+  }
+
+  public FlatNode getXStartIndex() {
+    expect(SUB_MATRIX);
+    return child(1);
+  }
+
+  public FlatNode getXBaseIndex() {
+    expect(SUB_MATRIX);
+    return child(2);
+  }
+
+  public FlatNode getXEndIndex() {
+    expect(SUB_MATRIX);
+    return child(3);
+  }
+
+  public FlatNode getYStartIndex() {
+    expect(SUB_MATRIX);
+    return child(4);
+  }
+
+  public FlatNode getYBaseIndex() {
+    expect(SUB_MATRIX);
+    return child(5);
+  }
+
+  public FlatNode getYEndIndex() {
+    expect(SUB_MATRIX);
+    return child(6);
+  }
+
+  public FlatNode getRecord() {
+    expect(RECORD_ELEMENT_SELECT);
+    return child(0);
+  }
+
+  public String getCalleeName() {
+    expect(CALL_EXPRESSION);
+    return ast.string(node);
+  }
+
+  public List<FlatNode> getActualParameters() {
+    expect(CALL_EXPRESSION);
+    return getChildren();
+  }
+
+  private FlatNode child(int n) {
+    return ast.view(ast.child(node, n));
+  }
+
+  /** @return Views of a node and its following siblings, optionally only those of one kind. */
+  private List<FlatNode> children(int first, Kind kind) {
+    List<FlatNode> children = new ArrayList<>();
+    for (int c = first; c != NONE; c = ast.nextSibling(c)) {
+      if (kind == null || ast.kind(c) == kind) children.add(ast.view(c));
+    }
+    return children;
+  }
+
+  private void expect(Kind kind) {
+    if (getKind() != kind) throw unsupported(kind.toString());
+  }
+
+  private void expect(Kind kind, Kind other) {
+    if (getKind() != kind && getKind() != other) throw unsupported(kind + " or " + other);
+  }
+
+  private void expect(Kind kind, Kind other, Kind third) {
+    Kind actual = getKind();
+    if (actual != kind && actual != other && actual != third)
+      throw unsupported(kind + ", " + other + " or " + third);
+  }
+
+  private UnsupportedOperationException unsupported(String expected) {
+    return new UnsupportedOperationException(
+        "expected " + expected + " but the node is " + getKind());
+  }
+
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(ast) * 31 + node;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (!(obj instanceof FlatNode)) return false;
+    FlatNode other = (FlatNode) obj;
+    return ast == other.ast && node == other.node;
+  }
+
+  @Override
+  public String toString() {
+    return getKind() + "#" + node;
+  }
+}
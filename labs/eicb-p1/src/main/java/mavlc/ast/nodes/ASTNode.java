@@ -12,15 +12,36 @@
 package mavlc.ast.nodes;
 
 import java.io.Serializable;
+import java.util.List;
+import mavlc.ast.type.MatrixType;
+import mavlc.ast.type.RecordType;
+import mavlc.ast.type.Type;
+import mavlc.ast.type.VectorType;
 import mavlc.ast.visitor.ASTNodeVisitor;
 
-/** Abstract super-type of all AST-nodes. */
+/**
+ * Abstract super-type of all AST-nodes.
+ *
+ * <p>Every node has a {@link #structuralHash()} of its subtree, which is cached once the subtree
+ * can no longer change. {@link #hashCode()} is derived from it, and {@code equals} of nodes returns
+ * false as soon as the cached structural hashes differ.
+ */
 public abstract class ASTNode implements Serializable {
 
   protected final int srcLine;
 
   protected final int srcColumn;
 
+  /** The structural hash, or 0 if it was not cached yet. */
+  private transient long structuralHash;
+
+  /**
+   * Whether the subtree of the node whose structural hash is being computed on this thread can
+   * still change.
+   */
+  private static final ThreadLocal<boolean[]> MUTABLE =
+      ThreadLocal.withInitial(() -> new boolean[1]);
+
   /**
    * Constructor.
    *
@@ -54,6 +75,18 @@ public abstract class ASTNode implements Serializable {
    */
   public abstract String dump();
 
+  /**
+   * Get the kind of the node, which identifies its class with a small constant for switches. The
+   * kind is looked up per class, see {@link NodeKind#of}, and not stored in the node.
+   *
+   * @return The kind of the node.
+   * @throws IllegalArgumentException if the node's class is neither one of the node classes of
+   *     {@link NodeKind} nor a subclass of one, e.g. for a test wrapper.
+   */
+  public final NodeKind getKind() {
+    return NodeKind.of(getClass());
+  }
+
   /**
    * Get the line in which the node was specified in the program.
    *
@@ -71,4 +104,121 @@ public abstract class ASTNode implements Serializable {
   public int getSrcColumn() {
     return srcColumn;
   }
+
+  /**
+   * Get the 64-bit structural hash of the subtree of this node: a hash of the node's class, its
+   * own values like names, operators and literals, and the structural hashes of its children and
+   * types. Source positions and the results of contextual analysis are not included, so equal
+   * subtrees at different places have equal structural hashes.
+   *
+   * <p>The hash is only cached once the subtree can no longer change, i.e. all child lists in it
+   * are frozen {@link NodeList}s, as in ASTs built by the parser. The hash of an AST built by hand
+   * or read from XML is computed anew on every call. A function body that is parsed on demand is
+   * not parsed for the hash, which then covers the signature of the function only.
+   *
+   * @return The structural hash.
+   */
+  public final long structuralHash() {
+    long hash = structuralHash;
+    if (hash != 0) return hash;
+    boolean[] mutable = MUTABLE.get();
+    boolean outer = mutable[0];
+    mutable[0] = false;
+    try {
+      hash = computeStructuralHash();
+      // finalizer of MurmurHash3, so that all bits depend on all parts
+      hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+      hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+      hash ^= hash >>> 33;
+      if (hash == 0) hash = 1;
+      if (!mutable[0]) structuralHash = hash;
+      return hash;
+    } finally {
+      // the subtree of the enclosing node contains this one
+      mutable[0] |= outer;
+    }
+  }
+
+  /**
+   * Tells whether two nodes are known to differ without comparing them: their structural hashes
+   * are cached and differ. Hashes are not computed here, so that {@code equals} does not hash the
+   * subtrees again on every level.
+   *
+   * @param other Another node.
+   * @return Whether the cached structural hashes of both nodes differ.
+   */
+  protected final boolean cachedHashesDiffer(ASTNode other) {
+    long hash = structuralHash, otherHash = other.structuralHash;
+    return hash != 0 && otherHash != 0 && hash != otherHash;
+  }
+
+  /**
+   * Marks the subtree whose structural hash is being computed as one that can still change, so
+   * that the hash is not cached. Child lists other than frozen {@link NodeList}s are marked by
+   * {@link #mix(long, List)}.
+   */
+  protected static void markMutable() {
+    MUTABLE.get()[0] = true;
+  }
+
+  /**
+   * Computes the structural hash of this node by mixing the {@link #kindHash()} with the node's
+   * values and children, e.g. {@code mix(mix(kindHash(), leftOp), rightOp)}.
+   *
+   * @return The structural hash, before finalization.
+   */
+  protected abstract long computeStructuralHash();
+
+  /** @return The start of the structural hash, which depends on the class of the node. */
+  protected final long kindHash() {
+    return mix(0, getClass().getName().hashCode());
+  }
+
+  protected static long mix(long hash, long value) {
+    hash = (hash ^ value) * 0x9e3779b97f4a7c15L;
+    return hash ^ (hash >>> 29);
+  }
+
+  protected static long mix(long hash, boolean value) {
+    return mix(hash, value ? 1 : 2);
+  }
+
+  protected static long mix(long hash, String value) {
+    return mix(hash, value == null ? 0 : value.hashCode());
+  }
+
+  protected static long mix(long hash, ASTNode node) {
+    return mix(hash, node == null ? 0 : node.structuralHash());
+  }
+
+  protected static long mix(long hash, List<? extends ASTNode> nodes) {
+    if (!NodeList.isFrozen(nodes)) markMutable();
+    if (nodes == null) return mix(hash, 0);
+    hash = mix(hash, nodes.size());
+    for (ASTNode node : nodes) hash = mix(hash, node);
+    return hash;
+  }
+
+  /** Mixes a type into a hash, with the structural hashes of its dimension expressions. */
+  protected static long mix(long hash, Type type) {
+    if (type == null) return mix(hash, 0);
+    hash = mix(hash, type.getClass().getName());
+    if (type instanceof VectorType) {
+      VectorType vector = (VectorType) type;
+      return mix(mix(hash, vector.getElementType()), vector.getDimensionExpr());
+    } else if (type instanceof MatrixType) {
+      MatrixType matrix = (MatrixType) type;
+      hash = mix(hash, matrix.getElementType());
+      return mix(mix(hash, matrix.getxDimensionExpr()), matrix.getyDimensionExpr());
+    } else if (type instanceof RecordType) {
+      return mix(hash, ((RecordType) type).getName());
+    }
+    return hash;
+  }
+
+  /** @return A hash code derived from the {@link #structuralHash()}. */
+  @Override
+  public int hashCode() {
+    return Long.hashCode(structuralHash());
+  }
 }
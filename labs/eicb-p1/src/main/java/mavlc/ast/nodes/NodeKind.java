@@ -0,0 +1,159 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.ast.nodes;
+
+import mavlc.ast.nodes.expression.Addition;
+import mavlc.ast.nodes.expression.And;
+import mavlc.ast.nodes.expression.BinaryExpression;
+import mavlc.ast.nodes.expression.BoolNot;
+import mavlc.ast.nodes.expression.BoolValue;
+import mavlc.ast.nodes.expression.CallExpression;
+import mavlc.ast.nodes.expression.Compare;
+import mavlc.ast.nodes.expression.Division;
+import mavlc.ast.nodes.expression.DotProduct;
+import mavlc.ast.nodes.expression.ElementSelect;
+import mavlc.ast.nodes.expression.Exponentiation;
+import mavlc.ast.nodes.expression.FloatValue;
+import mavlc.ast.nodes.expression.IdentifierReference;
+import mavlc.ast.nodes.expression.IntValue;
+import mavlc.ast.nodes.expression.MatrixMultiplication;
+import mavlc.ast.nodes.expression.MatrixXDimension;
+import mavlc.ast.nodes.expression.MatrixYDimension;
+import mavlc.ast.nodes.expression.Multiplication;
+import mavlc.ast.nodes.expression.Or;
+import mavlc.ast.nodes.expression.RecordElementSelect;
+import mavlc.ast.nodes.expression.RecordInit;
+import mavlc.ast.nodes.expression.SelectExpression;
+import mavlc.ast.nodes.expression.StringValue;
+import mavlc.ast.nodes.expression.StructureInit;
+import mavlc.ast.nodes.expression.SubMatrix;
+import mavlc.ast.nodes.expression.SubVector;
+import mavlc.ast.nodes.expression.Subtraction;
+import mavlc.ast.nodes.expression.UnaryMinus;
+import mavlc.ast.nodes.expression.VectorDimension;
+import mavlc.ast.nodes.function.FormalParameter;
+import mavlc.ast.nodes.function.Function;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.nodes.record.RecordElementDeclaration;
+import mavlc.ast.nodes.record.RecordTypeDeclaration;
+import mavlc.ast.nodes.statement.CallStatement;
+import mavlc.ast.nodes.statement.Case;
+import mavlc.ast.nodes.statement.CompoundStatement;
+import mavlc.ast.nodes.statement.Default;
+import mavlc.ast.nodes.statement.ForEachLoop;
+import mavlc.ast.nodes.statement.ForLoop;
+import mavlc.ast.nodes.statement.IfStatement;
+import mavlc.ast.nodes.statement.IteratorDeclaration;
+import mavlc.ast.nodes.statement.LeftHandIdentifier;
+import mavlc.ast.nodes.statement.MatrixLHSIdentifier;
+import mavlc.ast.nodes.statement.RecordLHSIdentifier;
+import mavlc.ast.nodes.statement.ReturnStatement;
+import mavlc.ast.nodes.statement.SwitchStatement;
+import mavlc.ast.nodes.statement.ValueDefinition;
+import mavlc.ast.nodes.statement.VariableAssignment;
+import mavlc.ast.nodes.statement.VariableDeclaration;
+import mavlc.ast.nodes.statement.VectorLHSIdentifier;
+
+/**
+ * The kind of an AST-node, one for every concrete node class, in the order of the visit-methods of
+ * {@link mavlc.ast.visitor.ASTNodeVisitor}. The ordinal of a kind is a stable tag, so new kinds are
+ * only appended.
+ *
+ * <p>{@link mavlc.ast.visitor.SwitchDispatchVisitor} switches on the kind of a node instead of
+ * dispatching through {@link ASTNode#accept}.
+ */
+public enum NodeKind {
+  MODULE(Module.class),
+  FUNCTION(Function.class),
+  FORMAL_PARAMETER(FormalParameter.class),
+  ITERATOR_DECLARATION(IteratorDeclaration.class),
+  RECORD_TYPE_DECLARATION(RecordTypeDeclaration.class),
+  RECORD_ELEMENT_DECLARATION(RecordElementDeclaration.class),
+  VALUE_DEFINITION(ValueDefinition.class),
+  VARIABLE_DECLARATION(VariableDeclaration.class),
+  VARIABLE_ASSIGNMENT(VariableAssignment.class),
+  LEFT_HAND_IDENTIFIER(LeftHandIdentifier.class),
+  MATRIX_LHS_IDENTIFIER(MatrixLHSIdentifier.class),
+  VECTOR_LHS_IDENTIFIER(VectorLHSIdentifier.class),
+  RECORD_LHS_IDENTIFIER(RecordLHSIdentifier.class),
+  FOR_LOOP(ForLoop.class),
+  FOR_EACH_LOOP(ForEachLoop.class),
+  IF_STATEMENT(IfStatement.class),
+  CALL_STATEMENT(CallStatement.class),
+  RETURN_STATEMENT(ReturnStatement.class),
+  COMPOUND_STATEMENT(CompoundStatement.class),
+  SWITCH_STATEMENT(SwitchStatement.class),
+  CASE(Case.class),
+  DEFAULT(Default.class),
+  SELECT_EXPRESSION(SelectExpression.class),
+  BINARY_EXPRESSION(BinaryExpression.class),
+  MATRIX_MULTIPLICATION(MatrixMultiplication.class),
+  DOT_PRODUCT(DotProduct.class),
+  MULTIPLICATION(Multiplication.class),
+  DIVISION(Division.class),
+  ADDITION(Addition.class),
+  SUBTRACTION(Subtraction.class),
+  COMPARE(Compare.class),
+  AND(And.class),
+  OR(Or.class),
+  EXPONENTIATION(Exponentiation.class),
+  MATRIX_X_DIMENSION(MatrixXDimension.class),
+  MATRIX_Y_DIMENSION(MatrixYDimension.class),
+  VECTOR_DIMENSION(VectorDimension.class),
+  UNARY_MINUS(UnaryMinus.class),
+  BOOL_NOT(BoolNot.class),
+  CALL_EXPRESSION(CallExpression.class),
+  ELEMENT_SELECT(ElementSelect.class),
+  RECORD_ELEMENT_SELECT(RecordElementSelect.class),
+  SUB_MATRIX(SubMatrix.class),
+  SUB_VECTOR(SubVector.class),
+  STRUCTURE_INIT(StructureInit.class),
+  RECORD_INIT(RecordInit.class),
+  STRING_VALUE(StringValue.class),
+  BOOL_VALUE(BoolValue.class),
+  INT_VALUE(IntValue.class),
+  FLOAT_VALUE(FloatValue.class),
+  IDENTIFIER_REFERENCE(IdentifierReference.class);
+
+  private static final ClassValue<NodeKind> KINDS =
+      new ClassValue<NodeKind>() {
+        @Override
+        protected NodeKind computeValue(Class<?> type) {
+          for (Class<?> c = type; c != ASTNode.class; c = c.getSuperclass()) {
+            for (NodeKind kind : values()) if (kind.nodeClass == c) return kind;
+          }
+          throw new IllegalArgumentException("no kind of AST-node: " + type.getName());
+        }
+      };
+
+  private final Class<? extends ASTNode> nodeClass;
+
+  NodeKind(Class<? extends ASTNode> nodeClass) {
+    this.nodeClass = nodeClass;
+  }
+
+  /** @return The class of the nodes of this kind. */
+  public Class<? extends ASTNode> getNodeClass() {
+    return nodeClass;
+  }
+
+  /**
+   * Get the kind of the nodes of a class, which is the kind of its nearest node super-class.
+   *
+   * @param type The class of an AST-node.
+   * @return The kind of the nodes of the class.
+   * @throws IllegalArgumentException if neither the class nor a super-class has a kind.
+   */
+  public static NodeKind of(Class<? extends ASTNode> type) {
+    return KINDS.get(type);
+  }
+}
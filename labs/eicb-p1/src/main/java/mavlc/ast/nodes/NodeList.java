@@ -0,0 +1,130 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.ast.nodes;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Array-backed list of the children of an AST-node.
+ *
+ * <p>Most nodes have few children, so a list allocates no array until its first element is added
+ * and then grows slowly. Once the parser has added all children, it freezes the list, which trims
+ * the array to the number of elements and rejects any further modification.
+ *
+ * @param <E> Type of the child nodes.
+ */
+public class NodeList<E extends ASTNode> extends AbstractList<E>
+    implements RandomAccess, Serializable {
+
+  /** */
+  private static final long serialVersionUID = -3608427436528120957L;
+
+  private static final Object[] EMPTY = {};
+
+  private Object[] elements = EMPTY;
+
+  /** The number of elements, or -1 once the list is frozen and the array holds exactly them. */
+  private int size;
+
+  /**
+   * Freezes a list of child nodes if it is a {@link NodeList}.
+   *
+   * @param list The list to freeze.
+   */
+  public static void freeze(List<?> list) {
+    if (list instanceof NodeList) ((NodeList<?>) list).freeze();
+  }
+
+  /**
+   * @param list A list of child nodes.
+   * @return Whether the list is a frozen {@link NodeList}.
+   */
+  public static boolean isFrozen(List<?> list) {
+    return list instanceof NodeList && ((NodeList<?>) list).isFrozen();
+  }
+
+  /** Trims the list to its elements and rejects any further modification. */
+  public void freeze() {
+    if (size < 0) return;
+    if (elements.length != size) elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+    size = -1;
+  }
+
+  /** @return Whether the list rejects modifications. */
+  public boolean isFrozen() {
+    return size < 0;
+  }
+
+  @Override
+  public int size() {
+    return size < 0 ? elements.length : size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    if (index >= size() || index < 0)
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    return (E) elements[index];
+  }
+
+  @Override
+  public E set(int index, E element) {
+    checkMutable();
+    E previous = get(index);
+    elements[index] = element;
+    return previous;
+  }
+
+  @Override
+  public void add(int index, E element) {
+    checkMutable();
+    if (index < 0 || index > size)
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    if (size == elements.length) elements = Arrays.copyOf(elements, size + (size >> 1) + 2);
+    System.arraycopy(elements, index, elements, index + 1, size - index);
+    elements[index] = element;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public E remove(int index) {
+    checkMutable();
+    E previous = get(index);
+    System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+    elements[--size] = null;
+    modCount++;
+    return previous;
+  }
+
+  private void checkMutable() {
+    if (size < 0) throw new UnsupportedOperationException("the children of the node are frozen");
+  }
+
+  /**
+   * A node list for the fields that were {@link java.util.LinkedList}s before, i.e. the records of
+   * a module and the elements of a structure initializer. The XML serialization writes it with the
+   * class attribute of a linked list, so that the XML form of the AST stays the same.
+   *
+   * @param <E> Type of the child nodes.
+   */
+  public static final class Linked<E extends ASTNode> extends NodeList<E> {
+
+    /** */
+    private static final long serialVersionUID = 4425365911187204419L;
+  }
+}
@@ -65,17 +65,9 @@ public class BinaryExpression extends Expression {
     return rightOp;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((leftOp == null) ? 0 : leftOp.hashCode());
-    result = prime * result + ((rightOp == null) ? 0 : rightOp.hashCode());
-    result = prime * result + getClass().getName().hashCode();
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(kindHash(), leftOp), rightOp);
   }
 
   /* (non-Javadoc)
@@ -87,6 +79,7 @@ public class BinaryExpression extends Expression {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     BinaryExpression other = (BinaryExpression) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (leftOp == null) {
       if (other.leftOp != null) return false;
     } else if (!leftOp.equals(other.leftOp)) return false;
@@ -66,15 +66,9 @@ public class BoolValue extends Expression {
     return val;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + (val ? 1231 : 1237);
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), val);
   }
 
   /* (non-Javadoc)
@@ -86,6 +80,7 @@ public class BoolValue extends Expression {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     BoolValue other = (BoolValue) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (val != other.val) return false;
     return true;
   }
@@ -11,8 +11,8 @@
  */
 package mavlc.ast.nodes.expression;
 
-import java.util.ArrayList;
 import java.util.List;
+import mavlc.ast.nodes.NodeList;
 import mavlc.ast.nodes.function.Function;
 import mavlc.ast.visitor.ASTNodeVisitor;
 
@@ -26,7 +26,7 @@ public class CallExpression extends Expression {
 
   protected Function callee;
 
-  protected final List<Expression> actualParameters = new ArrayList<>();
+  protected final List<Expression> actualParameters = new NodeList<>();
 
   /**
    * Constructor.
@@ -98,16 +98,9 @@ public class CallExpression extends Expression {
     return name;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((actualParameters == null) ? 0 : actualParameters.hashCode());
-    result = prime * result + ((name == null) ? 0 : name.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(kindHash(), name), actualParameters);
   }
 
   /* (non-Javadoc)
@@ -119,6 +112,7 @@ public class CallExpression extends Expression {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     CallExpression other = (CallExpression) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (actualParameters == null) {
       if (other.actualParameters != null) return false;
     } else if (!actualParameters.equals(other.actualParameters)) return false;
@@ -75,6 +75,22 @@ public class Compare extends BinaryExpression {
     return visitor.visitCompare(this, obj);
   }
 
+  @Override
+  protected long computeStructuralHash() {
+    return mix(super.computeStructuralHash(), comparator.ordinal());
+  }
+
+  /* (non-Javadoc)
+   * @see java.lang.Object#equals(java.lang.Object)
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (!super.equals(obj)) return false;
+    Compare other = (Compare) obj;
+    return comparator == other.comparator;
+  }
+
   /**
    * Get the comparator used for this comparison.
    *
@@ -65,16 +65,9 @@ public class ElementSelect extends Expression {
     return index;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((index == null) ? 0 : index.hashCode());
-    result = prime * result + ((struct == null) ? 0 : struct.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(kindHash(), struct), index);
   }
 
   /* (non-Javadoc)
@@ -86,6 +79,7 @@ public class ElementSelect extends Expression {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     ElementSelect other = (ElementSelect) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (index == null) {
       if (other.index != null) return false;
     } else if (!index.equals(other.index)) return false;
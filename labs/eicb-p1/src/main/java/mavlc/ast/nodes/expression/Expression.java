@@ -59,17 +59,6 @@ public abstract class Expression extends ASTNode {
     this.type = type;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
-  @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((type == null) ? 0 : type.hashCode());
-    return result;
-  }
-
   /* (non-Javadoc)
    * @see java.lang.Object#equals(java.lang.Object)
    */
@@ -79,6 +68,7 @@ public abstract class Expression extends ASTNode {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     Expression other = (Expression) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (type == null) {
       if (other.type != null) return false;
     } else if (!type.equals(other.type)) return false;
@@ -67,15 +67,9 @@ public class FloatValue extends Expression {
     return val;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + Float.floatToIntBits(val);
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), Float.floatToIntBits(val));
   }
 
   /* (non-Javadoc)
@@ -73,16 +73,9 @@ public class IdentifierReference extends Expression {
     this.declaration = declaration;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((declaration == null) ? 0 : declaration.hashCode());
-    result = prime * result + ((idName == null) ? 0 : idName.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), idName);
   }
 
   /* (non-Javadoc)
@@ -66,15 +66,9 @@ public class IntValue extends Expression {
     return val;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + val;
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), val);
   }
 
   /* (non-Javadoc)
@@ -66,16 +66,9 @@ public class RecordElementSelect extends Expression {
     return elementName;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((elementName == null) ? 0 : elementName.hashCode());
-    result = prime * result + ((record == null) ? 0 : record.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(kindHash(), record), elementName);
   }
 
   /* (non-Javadoc)
@@ -87,6 +80,7 @@ public class RecordElementSelect extends Expression {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     RecordElementSelect other = (RecordElementSelect) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (elementName == null) {
       if (other.elementName != null) return false;
     } else if (!elementName.equals(other.elementName)) return false;
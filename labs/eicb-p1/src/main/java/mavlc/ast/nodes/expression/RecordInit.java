@@ -65,16 +65,9 @@ public class RecordInit extends StructureInit {
     return visitor.visitRecordInit(this, obj);
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((elements == null) ? 0 : elements.hashCode());
-    result = prime * result + ((name == null) ? 0 : name.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(super.computeStructuralHash(), name);
   }
 
   /* (non-Javadoc)
@@ -93,11 +93,7 @@ public class SelectExpression extends Expression {
   }
 
   @Override
-  public int hashCode() {
-    int result = super.hashCode();
-    result = 31 * result + (condition != null ? condition.hashCode() : 0);
-    result = 31 * result + (trueCase != null ? trueCase.hashCode() : 0);
-    result = 31 * result + (falseCase != null ? falseCase.hashCode() : 0);
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(mix(kindHash(), condition), trueCase), falseCase);
   }
 }
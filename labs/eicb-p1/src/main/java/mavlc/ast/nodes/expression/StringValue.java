@@ -67,15 +67,9 @@ public class StringValue extends Expression {
     return val;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((val == null) ? 0 : val.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), val);
   }
 
   /* (non-Javadoc)
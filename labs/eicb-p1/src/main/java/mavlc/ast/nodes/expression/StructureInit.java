@@ -11,8 +11,8 @@
  */
 package mavlc.ast.nodes.expression;
 
-import java.util.LinkedList;
 import java.util.List;
+import mavlc.ast.nodes.NodeList;
 import mavlc.ast.visitor.ASTNodeVisitor;
 
 /** AST-node representing the construction of a matrix or vector from the underlying values. */
@@ -21,7 +21,7 @@ public class StructureInit extends Expression {
   /** */
   private static final long serialVersionUID = -4113133824801642436L;
 
-  protected final List<Expression> elements = new LinkedList<>();
+  protected final List<Expression> elements = new NodeList.Linked<>();
 
   /**
    * Constructor.
@@ -72,15 +72,9 @@ public class StructureInit extends Expression {
     return visitor.visitStructureInit(this, obj);
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((elements == null) ? 0 : elements.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), elements);
   }
 
   /* (non-Javadoc)
@@ -147,21 +147,11 @@ public class SubMatrix extends Expression {
     return YEnd;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((XBase == null) ? 0 : XBase.hashCode());
-    result = prime * result + ((XEnd == null) ? 0 : XEnd.hashCode());
-    result = prime * result + ((XStart == null) ? 0 : XStart.hashCode());
-    result = prime * result + ((YBase == null) ? 0 : YBase.hashCode());
-    result = prime * result + ((YEnd == null) ? 0 : YEnd.hashCode());
-    result = prime * result + ((YStart == null) ? 0 : YStart.hashCode());
-    result = prime * result + ((struct == null) ? 0 : struct.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    long hash = mix(mix(kindHash(), struct), XBase);
+    hash = mix(mix(hash, XStart), XEnd);
+    return mix(mix(mix(hash, YBase), YStart), YEnd);
   }
 
   /* (non-Javadoc)
@@ -102,18 +102,9 @@ public class SubVector extends Expression {
     return end;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((base == null) ? 0 : base.hashCode());
-    result = prime * result + ((end == null) ? 0 : end.hashCode());
-    result = prime * result + ((start == null) ? 0 : start.hashCode());
-    result = prime * result + ((struct == null) ? 0 : struct.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(mix(mix(kindHash(), struct), base), start), end);
   }
 
   /* (non-Javadoc)
@@ -50,16 +50,9 @@ public abstract class UnaryExpression extends Expression {
   @Override
   public abstract String dump();
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((op == null) ? 0 : op.hashCode());
-    result = prime * result + getClass().getName().hashCode();
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), op);
   }
 
   /* (non-Javadoc)
@@ -71,6 +64,7 @@ public abstract class UnaryExpression extends Expression {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     UnaryExpression other = (UnaryExpression) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (op == null) {
       if (other.op != null) return false;
     } else if (!op.equals(other.op)) return false;
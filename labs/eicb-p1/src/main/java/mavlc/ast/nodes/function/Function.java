@@ -11,9 +11,11 @@
  */
 package mavlc.ast.nodes.function;
 
-import java.util.ArrayList;
+import java.io.ObjectStreamException;
 import java.util.List;
+import java.util.function.Supplier;
 import mavlc.ast.nodes.ASTNode;
+import mavlc.ast.nodes.NodeList;
 import mavlc.ast.nodes.statement.Statement;
 import mavlc.ast.type.Type;
 import mavlc.ast.visitor.ASTNodeVisitor;
@@ -28,9 +30,12 @@ public class Function extends ASTNode {
 
   protected final Type returnType;
 
-  protected final List<FormalParameter> parameters = new ArrayList<FormalParameter>();
+  protected final List<FormalParameter> parameters = new NodeList<>();
 
-  protected final List<Statement> functionBody = new ArrayList<Statement>();
+  protected final List<Statement> functionBody = new NodeList<>();
+
+  /** Parses the function body on demand, or null once the statements are in the body. */
+  private transient volatile Supplier<List<Statement>> lazyBody;
 
   protected int sourceCodeOffset = -1;
 
@@ -63,7 +68,44 @@ public class Function extends ASTNode {
    * @param stmt Statement to add to the function body.
    */
   public void addStatement(Statement stmt) {
-    functionBody.add(stmt);
+    getFunctionBody().add(stmt);
+  }
+
+  /**
+   * Defers the parsing of the function body until it is first accessed. The parser must be safe to
+   * call from any thread; it is called at most once unless it fails.
+   *
+   * @param body Parser of the statements of the function body.
+   * @throws UnsupportedOperationException if the function body is frozen.
+   */
+  public void setLazyBody(Supplier<List<Statement>> body) {
+    if (NodeList.isFrozen(functionBody))
+      throw new UnsupportedOperationException("the children of the node are frozen");
+    lazyBody = body;
+  }
+
+  /** @return Whether the function body has not been parsed yet. */
+  public boolean isBodyPending() {
+    return lazyBody != null;
+  }
+
+  private synchronized void parseLazyBody() {
+    Supplier<List<Statement>> body = lazyBody;
+    if (body == null) return;
+    functionBody.addAll(body.get());
+    NodeList.freeze(functionBody);
+    lazyBody = null;
+  }
+
+  /**
+   * Parses a pending function body before the function is serialized.
+   *
+   * @return This function.
+   * @throws ObjectStreamException never.
+   */
+  protected Object writeReplace() throws ObjectStreamException {
+    getFunctionBody();
+    return this;
   }
 
   @Override
@@ -112,7 +154,7 @@ public class Function extends ASTNode {
     }
     sb.append(")");
     sb.append("{\n");
-    for (Statement stmt : functionBody) {
+    for (Statement stmt : getFunctionBody()) {
       sb.append(stmt.dump()).append("\n");
     }
     sb.append("}");
@@ -147,26 +189,25 @@ public class Function extends ASTNode {
   }
 
   /**
-   * Get a list of all statements in the function body.
+   * Get a list of all statements in the function body. A pending body is parsed first.
    *
    * @return List of statements.
    */
   public List<Statement> getFunctionBody() {
+    if (lazyBody != null) parseLazyBody();
     return functionBody;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
+  /**
+   * Hashes a pending function body without parsing it: the hash then covers the signature only, is
+   * not cached, and changes once the body is parsed.
    */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((functionBody == null) ? 0 : functionBody.hashCode());
-    result = prime * result + ((name == null) ? 0 : name.hashCode());
-    result = prime * result + ((parameters == null) ? 0 : parameters.hashCode());
-    result = prime * result + ((returnType == null) ? 0 : returnType.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    long hash = mix(mix(mix(kindHash(), name), returnType), parameters);
+    if (lazyBody == null) return mix(hash, functionBody);
+    markMutable();
+    return hash;
   }
 
   /* (non-Javadoc)
@@ -178,9 +219,11 @@ public class Function extends ASTNode {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     Function other = (Function) obj;
-    if (functionBody == null) {
-      if (other.functionBody != null) return false;
-    } else if (!functionBody.equals(other.functionBody)) return false;
+    if (cachedHashesDiffer(other)) return false;
+    List<Statement> body = getFunctionBody();
+    if (body == null) {
+      if (other.getFunctionBody() != null) return false;
+    } else if (!body.equals(other.getFunctionBody())) return false;
     if (name == null) {
       if (other.name != null) return false;
     } else if (!name.equals(other.name)) return false;
@@ -11,9 +11,9 @@
  */
 package mavlc.ast.nodes.module;
 
-import java.util.LinkedList;
 import java.util.List;
 import mavlc.ast.nodes.ASTNode;
+import mavlc.ast.nodes.NodeList;
 import mavlc.ast.nodes.function.Function;
 import mavlc.ast.nodes.record.RecordTypeDeclaration;
 import mavlc.ast.visitor.ASTNodeVisitor;
@@ -34,9 +34,9 @@ public class Module extends ASTNode {
     super(sourceLine, sourceColumn);
   }
 
-  protected final List<Function> functions = new LinkedList<Function>();
+  protected final List<Function> functions = new NodeList<>();
 
-  protected final List<RecordTypeDeclaration> records = new LinkedList<RecordTypeDeclaration>();
+  protected final List<RecordTypeDeclaration> records = new NodeList.Linked<>();
 
   @Override
   public <RetTy, ArgTy> RetTy accept(ASTNodeVisitor<? extends RetTy, ArgTy> visitor, ArgTy obj) {
@@ -91,16 +91,9 @@ public class Module extends ASTNode {
     return records;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((functions == null) ? 0 : functions.hashCode());
-    result = prime * result + ((records == null) ? 0 : records.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(kindHash(), records), functions);
   }
 
   /* (non-Javadoc)
@@ -112,6 +105,7 @@ public class Module extends ASTNode {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     Module other = (Module) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (functions == null) {
       if (other.functions != null) return false;
     } else if (!functions.equals(other.functions)) return false;
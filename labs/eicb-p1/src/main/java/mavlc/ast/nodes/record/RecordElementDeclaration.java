@@ -60,18 +60,14 @@ public class RecordElementDeclaration extends Declaration {
   }
 
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + (isVariable ? 0 : 1);
-    return result;
+  protected long computeStructuralHash() {
+    return mix(super.computeStructuralHash(), isVariable);
   }
 
   @Override
   public boolean equals(Object obj) {
     if (this == obj) return true;
-    if (obj == null) return false;
-    if (getClass() != obj.getClass()) return false;
+    if (!super.equals(obj)) return false;
     RecordElementDeclaration other = (RecordElementDeclaration) obj;
     return isVariable == other.isVariable;
   }
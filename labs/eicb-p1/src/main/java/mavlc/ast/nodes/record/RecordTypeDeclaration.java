@@ -101,12 +101,8 @@ public class RecordTypeDeclaration extends ASTNode {
   }
 
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((name == null) ? 0 : name.hashCode());
-    result = prime * result + ((elements == null) ? 0 : elements.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(kindHash(), name), elements);
   }
 
   @Override
@@ -115,12 +111,13 @@ public class RecordTypeDeclaration extends ASTNode {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     RecordTypeDeclaration other = (RecordTypeDeclaration) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (elements == null) {
       if (other.elements != null) return false;
     } else if (!elements.equals(other.elements)) return false;
-    if (elements == null) {
-      if (other.elements != null) return false;
-    } else if (!elements.equals(other.elements)) return false;
+    if (name == null) {
+      if (other.name != null) return false;
+    } else if (!name.equals(other.name)) return false;
     return true;
   }
 }
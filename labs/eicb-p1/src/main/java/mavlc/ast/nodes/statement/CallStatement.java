@@ -53,15 +53,9 @@ public class CallStatement extends Statement {
     return call;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((call == null) ? 0 : call.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), call);
   }
 
   /* (non-Javadoc)
@@ -73,6 +67,7 @@ public class CallStatement extends Statement {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     CallStatement other = (CallStatement) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (call == null) {
       if (other.call != null) return false;
     } else if (!call.equals(other.call)) return false;
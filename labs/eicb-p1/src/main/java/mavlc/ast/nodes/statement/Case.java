@@ -76,12 +76,13 @@ public class Case extends SingleCase {
     if (o == null || getClass() != o.getClass()) return false;
     if (!super.equals(o)) return false;
     Case aCase = (Case) o;
-    return condition.intValue() == aCase.condition.intValue();
+    return Objects.equals(conditionExpr, aCase.conditionExpr)
+        && Objects.equals(condition, aCase.condition);
   }
 
   @Override
-  public int hashCode() {
-    return Objects.hash(super.hashCode(), condition.intValue());
+  protected long computeStructuralHash() {
+    return mix(super.computeStructuralHash(), conditionExpr);
   }
 
   /** @return The constant expression describing which value this case handles. */
@@ -11,8 +11,8 @@
  */
 package mavlc.ast.nodes.statement;
 
-import java.util.ArrayList;
 import java.util.List;
+import mavlc.ast.nodes.NodeList;
 import mavlc.ast.visitor.ASTNodeVisitor;
 
 /** AST-node representing a block of statements. */
@@ -31,7 +31,7 @@ public class CompoundStatement extends Statement {
     super(sourceLine, sourceColumn);
   }
 
-  protected final List<Statement> statements = new ArrayList<>();
+  protected final List<Statement> statements = new NodeList<>();
 
   @Override
   public String dump() {
@@ -67,15 +67,9 @@ public class CompoundStatement extends Statement {
     return statements;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((statements == null) ? 0 : statements.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), statements);
   }
 
   /* (non-Javadoc)
@@ -87,6 +81,7 @@ public class CompoundStatement extends Statement {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     CompoundStatement other = (CompoundStatement) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (statements == null) {
       if (other.statements != null) return false;
     } else if (!statements.equals(other.statements)) return false;
@@ -73,16 +73,9 @@ public abstract class Declaration extends Statement {
    */
   public abstract boolean isVariable();
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((name == null) ? 0 : name.hashCode());
-    result = prime * result + ((type == null) ? 0 : type.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(kindHash(), name), type);
   }
 
   /* (non-Javadoc)
@@ -94,6 +87,7 @@ public abstract class Declaration extends Statement {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     Declaration other = (Declaration) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (name == null) {
       if (other.name != null) return false;
     } else if (!name.equals(other.name)) return false;
@@ -92,17 +92,9 @@ public class ForEachLoop extends Statement {
     return visitor.visitForEachLoop(this, obj);
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((body == null) ? 0 : body.hashCode());
-    result = prime * result + ((iterator == null) ? 0 : iterator.hashCode());
-    result = prime * result + ((struct == null) ? 0 : struct.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(mix(kindHash(), iterator), struct), body);
   }
 
   /* (non-Javadoc)
@@ -114,6 +106,7 @@ public class ForEachLoop extends Statement {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     ForEachLoop other = (ForEachLoop) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (body == null) {
       if (other.body != null) return false;
     } else if (!body.equals(other.body)) return false;
@@ -138,20 +138,10 @@ public class ForLoop extends Statement {
     return visitor.visitForLoop(this, obj);
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((body == null) ? 0 : body.hashCode());
-    result = prime * result + ((check == null) ? 0 : check.hashCode());
-    result = prime * result + ((incrExpr == null) ? 0 : incrExpr.hashCode());
-    result = prime * result + ((incrVarName == null) ? 0 : incrVarName.hashCode());
-    result = prime * result + ((initValue == null) ? 0 : initValue.hashCode());
-    result = prime * result + ((initVarName == null) ? 0 : initVarName.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    long hash = mix(mix(mix(kindHash(), initVarName), initValue), check);
+    return mix(mix(mix(hash, incrVarName), incrExpr), body);
   }
 
   /* (non-Javadoc)
@@ -163,6 +153,7 @@ public class ForLoop extends Statement {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     ForLoop other = (ForLoop) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (body == null) {
       if (other.body != null) return false;
     } else if (!body.equals(other.body)) return false;
@@ -117,17 +117,9 @@ public class IfStatement extends Statement {
     return elseStatement;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((elseStatement == null) ? 0 : elseStatement.hashCode());
-    result = prime * result + ((test == null) ? 0 : test.hashCode());
-    result = prime * result + ((thenStatement == null) ? 0 : thenStatement.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(mix(kindHash(), test), thenStatement), elseStatement);
   }
 
   /* (non-Javadoc)
@@ -139,6 +131,7 @@ public class IfStatement extends Statement {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     IfStatement other = (IfStatement) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (elseStatement == null) {
       if (other.elseStatement != null) return false;
     } else if (!elseStatement.equals(other.elseStatement)) return false;
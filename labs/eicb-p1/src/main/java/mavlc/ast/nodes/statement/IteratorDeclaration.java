@@ -43,15 +43,9 @@ public class IteratorDeclaration extends Declaration {
     return visitor.visitIteratorDeclaration(this, obj);
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + (isVariable ? 0 : 1);
-    return result;
+  protected long computeStructuralHash() {
+    return mix(super.computeStructuralHash(), isVariable);
   }
 
   /* (non-Javadoc)
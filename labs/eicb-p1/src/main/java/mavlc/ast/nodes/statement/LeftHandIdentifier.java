@@ -73,16 +73,9 @@ public class LeftHandIdentifier extends ASTNode {
     this.declaration = declaration;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((declaration == null) ? 0 : declaration.hashCode());
-    result = prime * result + ((name == null) ? 0 : name.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), name);
   }
 
   /* (non-Javadoc)
@@ -94,6 +87,7 @@ public class LeftHandIdentifier extends ASTNode {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     LeftHandIdentifier other = (LeftHandIdentifier) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (declaration == null) {
       if (other.declaration != null) return false;
     } else if (!declaration.equals(other.declaration)) return false;
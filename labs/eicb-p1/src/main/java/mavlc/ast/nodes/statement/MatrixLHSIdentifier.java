@@ -68,16 +68,9 @@ public class MatrixLHSIdentifier extends LeftHandIdentifier {
     return yIndex;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((xIndex == null) ? 0 : xIndex.hashCode());
-    result = prime * result + ((yIndex == null) ? 0 : yIndex.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(super.computeStructuralHash(), xIndex), yIndex);
   }
 
   /* (non-Javadoc)
@@ -54,15 +54,9 @@ public class RecordLHSIdentifier extends LeftHandIdentifier {
     return elementName;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((elementName == null) ? 0 : elementName.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(super.computeStructuralHash(), elementName);
   }
 
   /* (non-Javadoc)
@@ -53,15 +53,9 @@ public class ReturnStatement extends Statement {
     return returnValue;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((returnValue == null) ? 0 : returnValue.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), returnValue);
   }
 
   /* (non-Javadoc)
@@ -73,6 +67,7 @@ public class ReturnStatement extends Statement {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     ReturnStatement other = (ReturnStatement) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (returnValue == null) {
       if (other.returnValue != null) return false;
     } else if (!returnValue.equals(other.returnValue)) return false;
@@ -55,11 +55,13 @@ public abstract class SingleCase extends ASTNode {
 
     SingleCase that = (SingleCase) o;
 
+    if (cachedHashesDiffer(that)) return false;
+
     return statement != null ? statement.equals(that.statement) : that.statement == null;
   }
 
   @Override
-  public int hashCode() {
-    return statement != null ? statement.hashCode() : 0;
+  protected long computeStructuralHash() {
+    return mix(kindHash(), statement);
   }
 }
@@ -11,8 +11,8 @@
  */
 package mavlc.ast.nodes.statement;
 
-import java.util.ArrayList;
 import java.util.List;
+import mavlc.ast.nodes.NodeList;
 import mavlc.ast.nodes.expression.Expression;
 import mavlc.ast.visitor.ASTNodeVisitor;
 
@@ -22,8 +22,8 @@ public class SwitchStatement extends Statement {
   private static final long serialVersionUID = -3984538633351524643L;
 
   protected Expression testExpression;
-  protected final List<Case> cases = new ArrayList<>();
-  protected final List<Default> defaultCases = new ArrayList<>();
+  protected final List<Case> cases = new NodeList<>();
+  protected final List<Default> defaultCases = new NodeList<>();
 
   /**
    * Constructor.
@@ -39,8 +39,11 @@ public class SwitchStatement extends Statement {
    * Set the test expression.
    *
    * @param test Expression that is evaluated to determine which case is executed.
+   * @throws UnsupportedOperationException if the cases are frozen.
    */
   public void setTestExpression(Expression test) {
+    if (NodeList.isFrozen(cases))
+      throw new UnsupportedOperationException("the children of the node are frozen");
     testExpression = test;
   }
 
@@ -111,6 +114,8 @@ public class SwitchStatement extends Statement {
 
     SwitchStatement that = (SwitchStatement) o;
 
+    if (cachedHashesDiffer(that)) return false;
+
     if (testExpression != null
         ? !testExpression.equals(that.testExpression)
         : that.testExpression != null) return false;
@@ -121,10 +126,7 @@ public class SwitchStatement extends Statement {
   }
 
   @Override
-  public int hashCode() {
-    int result = testExpression != null ? testExpression.hashCode() : 0;
-    result = 31 * result + (cases != null ? cases.hashCode() : 0);
-    result = 31 * result + (defaultCases != null ? defaultCases.hashCode() : 0);
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(mix(kindHash(), testExpression), cases), defaultCases);
   }
 }
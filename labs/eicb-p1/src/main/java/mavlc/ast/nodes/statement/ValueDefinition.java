@@ -69,15 +69,9 @@ public class ValueDefinition extends Declaration {
     return false;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((value == null) ? 0 : value.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(super.computeStructuralHash(), value);
   }
 
   /* (non-Javadoc)
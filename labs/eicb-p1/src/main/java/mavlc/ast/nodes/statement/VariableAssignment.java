@@ -67,16 +67,9 @@ public class VariableAssignment extends Statement {
     return value;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((identifier == null) ? 0 : identifier.hashCode());
-    result = prime * result + ((value == null) ? 0 : value.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(mix(kindHash(), identifier), value);
   }
 
   /* (non-Javadoc)
@@ -88,6 +81,7 @@ public class VariableAssignment extends Statement {
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     VariableAssignment other = (VariableAssignment) obj;
+    if (cachedHashesDiffer(other)) return false;
     if (identifier == null) {
       if (other.identifier != null) return false;
     } else if (!identifier.equals(other.identifier)) return false;
@@ -54,15 +54,9 @@ public class VectorLHSIdentifier extends LeftHandIdentifier {
     return index;
   }
 
-  /* (non-Javadoc)
-   * @see java.lang.Object#hashCode()
-   */
   @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((index == null) ? 0 : index.hashCode());
-    return result;
+  protected long computeStructuralHash() {
+    return mix(super.computeStructuralHash(), index);
   }
 
   /* (non-Javadoc)
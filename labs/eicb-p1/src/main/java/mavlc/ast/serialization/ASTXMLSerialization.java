@@ -12,6 +12,7 @@
 package mavlc.ast.serialization;
 
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.collections.CollectionConverter;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
 import com.thoughtworks.xstream.io.xml.StaxDriver;
@@ -21,7 +22,9 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.List;
 import mavlc.ast.nodes.ASTNode;
+import mavlc.ast.nodes.NodeList;
 import mavlc.ast.nodes.expression.Addition;
 import mavlc.ast.nodes.expression.And;
 import mavlc.ast.nodes.expression.BoolNot;
@@ -90,6 +93,11 @@ public class ASTXMLSerialization extends ASTSerialization {
     xstream = new XStream(new StaxDriver());
     xstream.alias("module", Module.class);
     xstream.addImplicitCollection(Module.class, "functions");
+    // Child lists are written like the array lists and linked lists they used to be
+    xstream.addDefaultImplementation(NodeList.class, List.class);
+    xstream.registerConverter(new CollectionConverter(xstream.getMapper(), NodeList.class));
+    xstream.registerConverter(new CollectionConverter(xstream.getMapper(), NodeList.Linked.class));
+    xstream.alias("linked-list", NodeList.Linked.class);
     xstream.alias("function", Function.class);
     xstream.alias("formalParameter", FormalParameter.class);
     xstream.alias("recordTypeDeclaration", RecordTypeDeclaration.class);
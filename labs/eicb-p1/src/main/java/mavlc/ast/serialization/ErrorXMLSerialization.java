@@ -81,6 +81,7 @@ import mavlc.ast.type.StringType;
 import mavlc.ast.type.VectorType;
 import mavlc.ast.type.VoidType;
 import mavlc.error_reporting.CompilationError;
+import mavlc.error_reporting.SyntaxErrors;
 
 public class ErrorXMLSerialization {
 
@@ -150,6 +151,8 @@ public class ErrorXMLSerialization {
     xstream.alias("vectorType", VectorType.class);
     xstream.alias("recordType", RecordType.class);
     xstream.alias("voidType", VoidType.class);
+
+    xstream.alias("syntaxErrors", SyntaxErrors.class);
   }
 
   public void serialize(CompilationError error, String fileName) {
@@ -127,9 +127,12 @@ public class MatrixType extends StructType {
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     MatrixType that = (MatrixType) o;
+    // before contextual analysis, the dimension expressions are compared
     return Objects.equals(elemType, that.elemType)
-        && xDim.intValue() == that.xDim.intValue()
-        && yDim.intValue() == that.yDim.intValue();
+        && Objects.equals(xDim, that.xDim)
+        && Objects.equals(yDim, that.yDim)
+        && (xDim != null || xDimExpr.equals(that.xDimExpr))
+        && (yDim != null || yDimExpr.equals(that.yDimExpr));
   }
 
   @Override
@@ -85,7 +85,10 @@ public class VectorType extends StructType {
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     VectorType that = (VectorType) o;
-    return Objects.equals(elemType, that.elemType) && dim.intValue() == that.dim.intValue();
+    // before contextual analysis, the dimension expressions are compared
+    return Objects.equals(elemType, that.elemType)
+        && Objects.equals(dim, that.dim)
+        && (dim != null || dimExpr.equals(that.dimExpr));
   }
 
   @Override
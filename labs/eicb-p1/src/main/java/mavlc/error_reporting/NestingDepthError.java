@@ -0,0 +1,71 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.error_reporting;
+
+import mavlc.parser.recursive_descent.Token;
+
+/**
+ * Error class to signal that expressions or statements are nested deeper than the parser supports.
+ */
+public class NestingDepthError extends SyntaxError {
+
+  /** */
+  private static final long serialVersionUID = -5061924212409574520L;
+
+  private final int limit;
+
+  private final int depth;
+
+  /**
+   * Constructor.
+   *
+   * @param token The token at which the limit was exceeded.
+   * @param limit The maximal nesting depth.
+   */
+  public NestingDepthError(Token token, int limit) {
+    super(token);
+    this.limit = limit;
+    this.depth = limit + 1;
+    message =
+        String.format(
+            "Syntax error in line %d, column %d\nNesting depth exceeds the limit of %d at token %s",
+            token.getLine(), token.getColumn(), limit, token);
+  }
+
+  /**
+   * Constructor for a stack that ran out before the limit was exceeded.
+   *
+   * @param token The token at which the stack was exhausted.
+   * @param limit The maximal nesting depth.
+   * @param depth The nesting depth that was reached.
+   */
+  public NestingDepthError(Token token, int limit, int depth) {
+    super(token);
+    this.limit = limit;
+    this.depth = depth;
+    message =
+        String.format(
+            "Syntax error in line %d, column %d\n"
+                + "Stack exhausted at nesting depth %d, below the limit of %d, at token %s",
+            token.getLine(), token.getColumn(), depth, limit, token);
+  }
+
+  /** @return The maximal nesting depth that was exceeded or, if the stack ran out, not reached. */
+  public int getLimit() {
+    return limit;
+  }
+
+  /** @return The nesting depth at which parsing stopped. */
+  public int getDepth() {
+    return depth;
+  }
+}
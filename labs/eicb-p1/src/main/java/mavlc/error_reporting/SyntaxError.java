@@ -38,8 +38,8 @@ public class SyntaxError extends CompilationError {
    * @param expectedTokens The expected/allowed tokens.
    */
   public SyntaxError(Token actualToken, Token.TokenType... expectedTokens) {
-    line = actualToken.line;
-    column = actualToken.column;
+    line = actualToken.getLine();
+    column = actualToken.getColumn();
     actual = actualToken;
     expected = Arrays.asList(expectedTokens);
     /*
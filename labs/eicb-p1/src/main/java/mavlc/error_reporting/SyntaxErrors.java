@@ -0,0 +1,61 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.error_reporting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Error class to signal several syntax errors found by a parser that recovers from errors. */
+public class SyntaxErrors extends CompilationError {
+
+  /** */
+  private static final long serialVersionUID = 3290458723652109814L;
+
+  private final List<SyntaxError> errors;
+
+  /**
+   * Constructor.
+   *
+   * @param errors The syntax errors, in source order.
+   */
+  public SyntaxErrors(List<SyntaxError> errors) {
+    this.errors = new ArrayList<>(errors);
+    StringBuilder sb = new StringBuilder();
+    sb.append(errors.size()).append(" syntax errors");
+    for (SyntaxError error : errors) sb.append("\n").append(error.getMessage());
+    message = sb.toString();
+  }
+
+  /** @return The syntax errors, in source order. */
+  public List<SyntaxError> getErrors() {
+    return errors;
+  }
+
+  /* (non-Javadoc)
+   * @see java.lang.Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    return errors.hashCode();
+  }
+
+  /* (non-Javadoc)
+   * @see java.lang.Object#equals(java.lang.Object)
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (obj == null) return false;
+    if (getClass() != obj.getClass()) return false;
+    return errors.equals(((SyntaxErrors) obj).errors);
+  }
+}
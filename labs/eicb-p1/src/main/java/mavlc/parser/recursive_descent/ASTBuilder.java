@@ -0,0 +1,549 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import static mavlc.ast.nodes.expression.Compare.Comparison.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import mavlc.ast.nodes.NodeList;
+import mavlc.ast.nodes.expression.*;
+import mavlc.ast.nodes.function.FormalParameter;
+import mavlc.ast.nodes.function.Function;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.nodes.record.RecordElementDeclaration;
+import mavlc.ast.nodes.record.RecordTypeDeclaration;
+import mavlc.ast.nodes.statement.*;
+import mavlc.ast.type.*;
+
+/**
+ * Builds the AST of a MAVL program from the events of a {@link Parser}.
+ *
+ * <p>Completed nodes are kept on an operand stack until the construct that uses them is complete.
+ * Constructs with a variable number of parts mark the height of the operand stack when they start,
+ * and take all nodes above the mark when they end.
+ */
+public final class ASTBuilder implements ParseListener {
+
+  private Module module;
+
+  private Object[] operands = new Object[64];
+  private int operandCount;
+
+  /** The node of the marks of statements. */
+  private static final Object STATEMENT = new Object();
+
+  private int[] marks = new int[32];
+  private int[] markLines = new int[32];
+  private int[] markColumns = new int[32];
+  private Object[] markNodes = new Object[32];
+  private int markCount;
+
+  /** The table to share equal literals and types with, or null. */
+  private NodeInterner interner;
+
+  /** Constructor. */
+  public ASTBuilder() {}
+
+  /**
+   * Constructor for building declarations into an existing module.
+   *
+   * @param module The module to add functions and records to.
+   */
+  public ASTBuilder(Module module) {
+    this.module = module;
+  }
+
+  /** Discards everything built so far, keeping the buffers. */
+  void reset() {
+    module = null;
+    truncate(0);
+    Arrays.fill(markNodes, 0, markCount, null);
+    markCount = 0;
+  }
+
+  /**
+   * Shares equal literals and types of the built AST.
+   *
+   * @param interner The table to share literals and types with, or null to share none.
+   */
+  void setInterner(NodeInterner interner) {
+    this.interner = interner;
+  }
+
+  /** @return The module built so far. */
+  public Module getModule() {
+    return module;
+  }
+
+  /** @return The statements built outside of any function, e.g. of a skipped function body. */
+  List<Statement> getStatements() {
+    List<Statement> statements = new ArrayList<>(operandCount);
+    for (int i = 0; i < operandCount; i++) statements.add((Statement) operands[i]);
+    return statements;
+  }
+
+  private void push(Object node) {
+    if (operandCount == operands.length) operands = Arrays.copyOf(operands, operandCount * 2);
+    operands[operandCount++] = node;
+  }
+
+  private Object pop() {
+    Object node = operands[--operandCount];
+    operands[operandCount] = null;
+    return node;
+  }
+
+  private Expression popExpression() {
+    return (Expression) pop();
+  }
+
+  private Type popType() {
+    return (Type) pop();
+  }
+
+  /** Pushes a literal, or the equal literal interned before. */
+  private void pushShared(Expression expression) {
+    push(interner == null ? expression : interner.intern(expression));
+  }
+
+  /** Pushes a type, or the equal type interned before. */
+  private void pushShared(Type type) {
+    push(interner == null ? type : interner.intern(type));
+  }
+
+  private void mark(int line, int column, Object node) {
+    if (markCount == marks.length) {
+      int capacity = markCount * 2;
+      marks = Arrays.copyOf(marks, capacity);
+      markLines = Arrays.copyOf(markLines, capacity);
+      markColumns = Arrays.copyOf(markColumns, capacity);
+      markNodes = Arrays.copyOf(markNodes, capacity);
+    }
+    marks[markCount] = operandCount;
+    markLines[markCount] = line;
+    markColumns[markCount] = column;
+    markNodes[markCount++] = node;
+  }
+
+  /** @return The index of the first operand above the innermost mark, which is removed. */
+  private int unmark() {
+    markNodes[--markCount] = null;
+    return marks[markCount];
+  }
+
+  private int markLine() {
+    return markLines[markCount - 1];
+  }
+
+  private int markColumn() {
+    return markColumns[markCount - 1];
+  }
+
+  /** Removes the operands from the given index on. */
+  private void truncate(int from) {
+    Arrays.fill(operands, from, operandCount, null);
+    operandCount = from;
+  }
+
+  /* Declarations */
+
+  @Override
+  public void enterModule(int line, int column) {
+    module = new Module(line, column);
+  }
+
+  @Override
+  public void exitModule() {
+    NodeList.freeze(module.getFunctions());
+    NodeList.freeze(module.getRecords());
+  }
+
+  @Override
+  public void enterFunction(int line, int column, String name) {
+    mark(line, column, new Function(line, column, name, popType()));
+  }
+
+  @Override
+  public void exitFunction() {
+    Function function = (Function) markNodes[markCount - 1];
+    int from = unmark();
+    for (int i = from; i < operandCount; i++) {
+      Object node = operands[i];
+      if (node instanceof FormalParameter) function.addParameter((FormalParameter) node);
+      else function.addStatement((Statement) node);
+    }
+    truncate(from);
+    NodeList.freeze(function.getParameters());
+    if (!function.isBodyPending()) NodeList.freeze(function.getFunctionBody());
+    module.addFunction(function);
+  }
+
+  @Override
+  public void onFormalParameter(int line, int column, String name) {
+    push(new FormalParameter(line, column, name, popType()));
+  }
+
+  @Override
+  public void onSkippedBody(Consumer<ParseListener> body) {
+    Function function = (Function) markNodes[markCount - 1];
+    function.setLazyBody(
+        () -> {
+          ASTBuilder builder = new ASTBuilder();
+          builder.setInterner(interner);
+          body.accept(builder);
+          return builder.getStatements();
+        });
+  }
+
+  @Override
+  public void enterRecord(int line, int column, String name) {
+    mark(line, column, name);
+  }
+
+  @Override
+  public void exitRecord() {
+    int line = markLine(), column = markColumn();
+    String name = (String) markNodes[markCount - 1];
+    int from = unmark();
+    NodeList<RecordElementDeclaration> elements = new NodeList<>();
+    for (int i = from; i < operandCount; i++) elements.add((RecordElementDeclaration) operands[i]);
+    elements.freeze();
+    truncate(from);
+    module.addRecord(new RecordTypeDeclaration(line, column, name, elements));
+  }
+
+  @Override
+  public void onRecordElement(int line, int column, boolean variable, String name) {
+    push(new RecordElementDeclaration(line, column, variable, popType(), name));
+  }
+
+  @Override
+  public void abortDeclaration() {
+    Arrays.fill(markNodes, 0, markCount, null);
+    markCount = 0;
+    truncate(0);
+  }
+
+  /* Types */
+
+  @Override
+  public void onType(Type type) {
+    push(type);
+  }
+
+  @Override
+  public void onRecordType(String name) {
+    push(new RecordType(name));
+  }
+
+  @Override
+  public void onVectorType(ScalarType elementType) {
+    pushShared(new VectorType(elementType, popExpression()));
+  }
+
+  @Override
+  public void onMatrixType(ScalarType elementType) {
+    Expression y = popExpression();
+    pushShared(new MatrixType(elementType, popExpression(), y));
+  }
+
+  /* Statements */
+
+  @Override
+  public void enterStatement(int line, int column) {
+    mark(line, column, STATEMENT);
+  }
+
+  @Override
+  public void abortStatement() {
+    Object node;
+    int from;
+    do {
+      node = markNodes[markCount - 1];
+      from = unmark();
+    } while (node != STATEMENT);
+    truncate(from);
+  }
+
+  @Override
+  public void exitValueDefinition(String name) {
+    int line = markLine(), column = markColumn();
+    unmark();
+    Expression value = popExpression();
+    push(new ValueDefinition(line, column, popType(), name, value));
+  }
+
+  @Override
+  public void exitVariableDeclaration(String name) {
+    int line = markLine(), column = markColumn();
+    unmark();
+    push(new VariableDeclaration(line, column, popType(), name));
+  }
+
+  @Override
+  public void exitReturn() {
+    int line = markLine(), column = markColumn();
+    unmark();
+    push(new ReturnStatement(line, column, popExpression()));
+  }
+
+  @Override
+  public void exitAssignment(String name, int indices, String element) {
+    int line = markLine(), column = markColumn();
+    unmark();
+    Expression value = popExpression();
+    LeftHandIdentifier lhs;
+    if (element != null) {
+      lhs = new RecordLHSIdentifier(line, column, name, element);
+    } else if (indices == 2) {
+      Expression y = popExpression();
+      lhs = new MatrixLHSIdentifier(line, column, name, popExpression(), y);
+    } else if (indices == 1) {
+      lhs = new VectorLHSIdentifier(line, column, name, popExpression());
+    } else {
+      lhs = new LeftHandIdentifier(line, column, name);
+    }
+    push(new VariableAssignment(line, column, lhs, value));
+  }
+
+  @Override
+  public void exitCallStatement() {
+    int line = markLine(), column = markColumn();
+    unmark();
+    push(new CallStatement(line, column, (CallExpression) pop()));
+  }
+
+  @Override
+  public void exitFor(String variable, String incrementedVariable) {
+    int line = markLine(), column = markColumn();
+    unmark();
+    Statement body = (Statement) pop();
+    Expression increment = popExpression();
+    Expression condition = popExpression();
+    Expression init = popExpression();
+    push(
+        new ForLoop(line, column, variable, init, condition, incrementedVariable, increment, body));
+  }
+
+  @Override
+  public void onIteratorDeclaration(int line, int column, boolean variable, String name) {
+    push(new IteratorDeclaration(line, column, name, popType(), variable));
+  }
+
+  @Override
+  public void exitForEach() {
+    int line = markLine(), column = markColumn();
+    unmark();
+    Statement body = (Statement) pop();
+    Expression struct = popExpression();
+    push(new ForEachLoop(line, column, (IteratorDeclaration) pop(), struct, body));
+  }
+
+  @Override
+  public void exitIf() {
+    int line = markLine(), column = markColumn();
+    int from = unmark();
+    Statement elseStatement = operandCount - from == 3 ? (Statement) pop() : null;
+    Statement thenStatement = (Statement) pop();
+    Expression condition = popExpression();
+    if (elseStatement == null) push(new IfStatement(line, column, condition, thenStatement));
+    else push(new IfStatement(line, column, condition, thenStatement, elseStatement));
+  }
+
+  @Override
+  public void exitSwitch() {
+    int line = markLine(), column = markColumn();
+    int from = unmark();
+    SwitchStatement switchStatement = new SwitchStatement(line, column);
+    switchStatement.setTestExpression((Expression) operands[from]);
+    for (int i = from + 1; i < operandCount; i++) {
+      Object node = operands[i];
+      if (node instanceof Case) switchStatement.addCase((Case) node);
+      else switchStatement.addDefault((Default) node);
+    }
+    truncate(from);
+    NodeList.freeze(switchStatement.getCases());
+    NodeList.freeze(switchStatement.getDefaultCases());
+    push(switchStatement);
+  }
+
+  @Override
+  public void onCase(int line, int column) {
+    Statement statement = (Statement) pop();
+    push(new Case(line, column, popExpression(), statement));
+  }
+
+  @Override
+  public void onDefault(int line, int column) {
+    push(new Default(line, column, (Statement) pop()));
+  }
+
+  @Override
+  public void exitCompound() {
+    CompoundStatement compound = new CompoundStatement(markLine(), markColumn());
+    int from = unmark();
+    for (int i = from; i < operandCount; i++) compound.addStatement((Statement) operands[i]);
+    truncate(from);
+    NodeList.freeze(compound.getStatements());
+    push(compound);
+  }
+
+  /* Expressions */
+
+  @Override
+  public void onIntLiteral(int line, int column, int value) {
+    pushShared(new IntValue(line, column, value));
+  }
+
+  @Override
+  public void onFloatLiteral(int line, int column, float value) {
+    pushShared(new FloatValue(line, column, value));
+  }
+
+  @Override
+  public void onBoolLiteral(int line, int column, boolean value) {
+    pushShared(new BoolValue(line, column, value));
+  }
+
+  @Override
+  public void onStringLiteral(int line, int column, String value) {
+    pushShared(new StringValue(line, column, value));
+  }
+
+  @Override
+  public void onIdentifier(int line, int column, String name) {
+    push(new IdentifierReference(line, column, name));
+  }
+
+  @Override
+  public void onOperator(Operator operator, int line, int column) {
+    switch (operator) {
+      case SELECT:
+        Expression falseCase = popExpression();
+        Expression trueCase = popExpression();
+        push(new SelectExpression(line, column, popExpression(), trueCase, falseCase));
+        return;
+      case NOT:
+        push(new BoolNot(line, column, popExpression()));
+        return;
+      case UNARY_MINUS:
+        push(new UnaryMinus(line, column, popExpression()));
+        return;
+      case X_DIMENSION:
+        push(new MatrixXDimension(line, column, popExpression()));
+        return;
+      case Y_DIMENSION:
+        push(new MatrixYDimension(line, column, popExpression()));
+        return;
+      case DIMENSION:
+        push(new VectorDimension(line, column, popExpression()));
+        return;
+      case SUB_VECTOR:
+        Expression end = popExpression(), base = popExpression(), start = popExpression();
+        push(new SubVector(line, column, popExpression(), base, start, end));
+        return;
+      case SUB_MATRIX:
+        Expression end2 = popExpression(), base2 = popExpression(), start2 = popExpression();
+        Expression end1 = popExpression(), base1 = popExpression(), start1 = popExpression();
+        Expression m = popExpression();
+        push(new SubMatrix(line, column, m, base1, start1, end1, base2, start2, end2));
+        return;
+      default:
+        // binary operators replace their left operand
+        Expression y = popExpression();
+        int top = operandCount - 1;
+        operands[top] = binary(operator, line, column, (Expression) operands[top], y);
+    }
+  }
+
+  private static Expression binary(
+      Operator operator, int line, int column, Expression x, Expression y) {
+    switch (operator) {
+      case OR:
+        return new Or(line, column, x, y);
+      case AND:
+        return new And(line, column, x, y);
+      case LESS:
+        return new Compare(line, column, x, y, LESS);
+      case GREATER:
+        return new Compare(line, column, x, y, GREATER);
+      case LESS_EQUAL:
+        return new Compare(line, column, x, y, LESS_EQUAL);
+      case GREATER_EQUAL:
+        return new Compare(line, column, x, y, GREATER_EQUAL);
+      case EQUAL:
+        return new Compare(line, column, x, y, EQUAL);
+      case NOT_EQUAL:
+        return new Compare(line, column, x, y, NOT_EQUAL);
+      case ADD:
+        return new Addition(line, column, x, y);
+      case SUB:
+        return new Subtraction(line, column, x, y);
+      case MUL:
+        return new Multiplication(line, column, x, y);
+      case DIV:
+        return new Division(line, column, x, y);
+      case EXP:
+        return new Exponentiation(line, column, x, y);
+      case DOT_PRODUCT:
+        return new DotProduct(line, column, x, y);
+      case MATRIX_MULTIPLICATION:
+        return new MatrixMultiplication(line, column, x, y);
+      case ELEMENT_SELECT:
+        return new ElementSelect(line, column, x, y);
+      default:
+        throw new IllegalStateException("not binary: " + operator);
+    }
+  }
+
+  @Override
+  public void onRecordElementSelect(int line, int column, String element) {
+    push(new RecordElementSelect(line, column, popExpression(), element));
+  }
+
+  @Override
+  public void enterCall(int line, int column, String name) {
+    mark(line, column, new CallExpression(line, column, name));
+  }
+
+  @Override
+  public void exitCall() {
+    CallExpression call = (CallExpression) markNodes[markCount - 1];
+    int from = unmark();
+    for (int i = from; i < operandCount; i++) call.addActualParameter((Expression) operands[i]);
+    truncate(from);
+    NodeList.freeze(call.getActualParameters());
+    push(call);
+  }
+
+  @Override
+  public void enterStructureInit(int line, int column, String recordName) {
+    StructureInit init =
+        recordName == null
+            ? new StructureInit(line, column)
+            : new RecordInit(line, column, recordName);
+    mark(line, column, init);
+  }
+
+  @Override
+  public void exitStructureInit() {
+    StructureInit init = (StructureInit) markNodes[markCount - 1];
+    int from = unmark();
+    for (int i = from; i < operandCount; i++) init.addElement((Expression) operands[i]);
+    truncate(from);
+    NodeList.freeze(init.getElements());
+    push(init);
+  }
+}
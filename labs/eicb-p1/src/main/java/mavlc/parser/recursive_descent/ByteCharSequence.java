@@ -0,0 +1,115 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only {@link CharSequence} view of a {@link ByteBuffer}, decoding every byte as one
+ * ISO-8859-1 character. This is exactly how the scanner has always interpreted its input bytes, and
+ * it allows scanning heap and memory-mapped buffers by index without copying them.
+ */
+final class ByteCharSequence implements CharSequence {
+
+  private static final long ONES = 0x0101010101010101L;
+
+  private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+  private final ByteBuffer buffer;
+
+  /**
+   * Constructor.
+   *
+   * @param buffer The bytes between the buffer's position and limit form the character sequence.
+   */
+  ByteCharSequence(ByteBuffer buffer) {
+    // a slice is always big-endian, so the first byte of a long is its most significant one
+    this.buffer = buffer.slice();
+  }
+
+  @Override
+  public int length() {
+    return buffer.limit();
+  }
+
+  @Override
+  public char charAt(int index) {
+    return (char) (buffer.get(index) & 0xFF);
+  }
+
+  /**
+   * Searches eight bytes at a time.
+   *
+   * @param c The character to search for.
+   * @param from The offset at which the search starts.
+   * @return The offset of the first occurrence of the character at or after the given offset, or
+   *     the length of the sequence if there is none.
+   */
+  int indexOf(char c, int from) {
+    int length = buffer.limit();
+    if (c > 0xFF) return length;
+    long pattern = c * ONES;
+    int i = from;
+    for (; i + Long.BYTES <= length; i += Long.BYTES) {
+      long matches = zeroBytes(buffer.getLong(i) ^ pattern);
+      if (matches != 0) return i + (Long.numberOfLeadingZeros(matches) >>> 3);
+    }
+    for (; i < length; i++) if (charAt(i) == c) return i;
+    return length;
+  }
+
+  /**
+   * Skips eight bytes at a time.
+   *
+   * @param c The character to skip.
+   * @param from The offset at which the search starts.
+   * @return The offset of the first character other than the given one at or after the given
+   *     offset, or the length of the sequence if there is none.
+   */
+  int skip(char c, int from) {
+    int length = buffer.limit();
+    if (c > 0xFF) return Math.min(from, length);
+    long pattern = c * ONES;
+    int i = from;
+    for (; i + Long.BYTES <= length; i += Long.BYTES) {
+      long mismatches = ~zeroBytes(buffer.getLong(i) ^ pattern) & ~LOW_BITS;
+      if (mismatches != 0) return i + (Long.numberOfLeadingZeros(mismatches) >>> 3);
+    }
+    for (; i < length; i++) if (charAt(i) != c) return i;
+    return length;
+  }
+
+  /**
+   * @return A word with the highest bit set in every byte that is zero in the given word, and all
+   *     other bits cleared. Unlike the common {@code (x - ONES) & ~x} trick, no borrow crosses byte
+   *     boundaries, so bytes after the first zero byte are exact as well.
+   */
+  private static long zeroBytes(long x) {
+    return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    ByteBuffer view = buffer.duplicate();
+    view.position(start);
+    view.limit(end);
+    return new ByteCharSequence(view);
+  }
+
+  @Override
+  public String toString() {
+    byte[] bytes = new byte[buffer.limit()];
+    buffer.duplicate().get(bytes);
+    return new String(bytes, StandardCharsets.ISO_8859_1);
+  }
+}
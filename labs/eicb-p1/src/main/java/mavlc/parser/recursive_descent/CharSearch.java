@@ -0,0 +1,57 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+/**
+ * Bulk character searches that let the scanner skip comments, string literals and indentation
+ * without stepping through them one character at a time.
+ *
+ * <p>Strings are searched with {@link String#indexOf(int, int)}, which the JVM implements with
+ * vector instructions; memory-mapped input is searched eight bytes at a time by {@link
+ * ByteCharSequence}. Other character sequences fall back to a plain loop.
+ */
+final class CharSearch {
+
+  private CharSearch() {}
+
+  /**
+   * @param source The text to search.
+   * @param c The character to search for.
+   * @param from The offset at which the search starts.
+   * @return The offset of the first occurrence of the character at or after the given offset, or
+   *     the length of the text if there is none.
+   */
+  static int indexOf(CharSequence source, char c, int from) {
+    if (source instanceof String) {
+      int index = ((String) source).indexOf(c, from);
+      return index < 0 ? source.length() : index;
+    }
+    if (source instanceof ByteCharSequence) return ((ByteCharSequence) source).indexOf(c, from);
+    int length = source.length();
+    for (int i = from; i < length; i++) if (source.charAt(i) == c) return i;
+    return length;
+  }
+
+  /**
+   * @param source The text to search.
+   * @param c The character to skip.
+   * @param from The offset at which the search starts.
+   * @return The offset of the first character other than the given one at or after the given
+   *     offset, or the length of the text if there is none.
+   */
+  static int skip(CharSequence source, char c, int from) {
+    if (source instanceof ByteCharSequence) return ((ByteCharSequence) source).skip(c, from);
+    int length = source.length();
+    for (int i = from; i < length; i++) if (source.charAt(i) != c) return i;
+    return length;
+  }
+}
@@ -0,0 +1,43 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import java.util.Deque;
+import java.util.Iterator;
+
+/** Adapts a fully materialized token queue, as returned by {@link Scanner#scan()}. */
+final class DequeTokenSource implements TokenSource {
+
+  private final Deque<Token> tokens;
+
+  private Token last;
+
+  DequeTokenSource(Deque<Token> tokens) {
+    this.tokens = tokens;
+  }
+
+  @Override
+  public Token next() {
+    Token t = tokens.poll();
+    if (t != null) last = t;
+    return last;
+  }
+
+  @Override
+  public Token peek(int k) {
+    if (k < 0 || k >= MAX_LOOKAHEAD) throw new IllegalArgumentException("lookahead " + k);
+    Iterator<Token> it = tokens.iterator();
+    Token t = last;
+    for (int i = 0; i <= k && it.hasNext(); i++) t = it.next();
+    return t;
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import static mavlc.parser.recursive_descent.Token.TokenType.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A table-driven scanner for MAVL, producing the same tokens as {@link Scanner}.
+ *
+ * <p>Each token is the longest match of a {@link DfaTable} run, found by one table lookup per
+ * character instead of the hand-written case analysis of {@link Scanner}.
+ */
+public final class DfaScanner implements TokenSource {
+
+  private static final Token.TokenType[] TYPES = Token.TokenType.values();
+
+  private final CharSequence source;
+  private final int sourceLength;
+  private int position;
+  private final Token[] lookahead = new Token[MAX_LOOKAHEAD];
+  private int lookaheadStart, lookaheadCount;
+  private final SymbolTable symbols = new SymbolTable();
+  private final SourcePositions positions;
+
+  /**
+   * Constructor.
+   *
+   * @param path The input program to tokenize.
+   * @throws IOException in case an error occurs while accessing the given file.
+   */
+  public DfaScanner(Path path) throws IOException {
+    this(Scanner.read(path));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param source The input program to tokenize.
+   */
+  public DfaScanner(CharSequence source) {
+    this.source = source;
+    sourceLength = source.length();
+    positions = new SourcePositions(sourceLength);
+  }
+
+  /** @return The table of all identifiers scanned so far. */
+  public SymbolTable getSymbols() {
+    return symbols;
+  }
+
+  /**
+   * Scans the input program.
+   *
+   * @return A queue containing the tokenized representation of the input program.
+   */
+  public Deque<Token> scan() {
+    ArrayDeque<Token> result = new ArrayDeque<>();
+    Token token;
+    do {
+      token = next();
+      result.add(token);
+    } while (token.type != EOF);
+    return result;
+  }
+
+  @Override
+  public Token next() {
+    if (lookaheadCount == 0) return scanNext();
+    Token token = lookahead[lookaheadStart];
+    lookahead[lookaheadStart] = null;
+    lookaheadStart = (lookaheadStart + 1) % MAX_LOOKAHEAD;
+    lookaheadCount--;
+    return token;
+  }
+
+  @Override
+  public Token peek(int k) {
+    if (k < 0 || k >= MAX_LOOKAHEAD) throw new IllegalArgumentException("lookahead " + k);
+    while (lookaheadCount <= k) {
+      lookahead[(lookaheadStart + lookaheadCount) % MAX_LOOKAHEAD] = scanNext();
+      lookaheadCount++;
+    }
+    return lookahead[(lookaheadStart + k) % MAX_LOOKAHEAD];
+  }
+
+  /**
+   * Scans the next token of the input program.
+   *
+   * @return The next token, or an EOF token if the whole input has been consumed.
+   */
+  private Token scanNext() {
+    final int[] transitions = DfaTable.transitions;
+    final int[] accepts = DfaTable.accepts;
+    final byte[] classOf = DfaTable.classOf;
+    final int classes = DfaTable.classes;
+    final int otherClass = DfaTable.otherClass;
+
+    while (position < sourceLength) {
+      int start = position;
+      int end = start;
+      int action = DfaTable.NONE;
+      int state = DfaTable.START;
+      for (int i = start; i < sourceLength; ) {
+        char c = source.charAt(i);
+        state = transitions[state * classes + (c < 128 ? classOf[c] : otherClass)];
+        if (state == DfaTable.DEAD) break;
+        i++;
+        if (accepts[state] != DfaTable.NONE) {
+          action = accepts[state];
+          end = i;
+        }
+      }
+
+      if (action == DfaTable.UNTERMINATED) {
+        throw new RuntimeException(
+            String.format(
+                "Reached EOF while scanning, Token started at line %d, column %d",
+                positions.lineOf(start), positions.columnOf(start)));
+      }
+      position = end;
+      if (action == DfaTable.SKIP) {
+        recordNewlines(start, end);
+        continue;
+      }
+
+      Token.TokenType type = TYPES[action];
+      int value = 0;
+      if (type == INTLIT || type == FLOATLIT) {
+        long decoded = NumberLiterals.decode(source, start, end);
+        if (decoded == NumberLiterals.MALFORMED) type = ERROR;
+        value = (int) decoded;
+      }
+      if (type.hasFixedSpelling()) return new Token(type, type.pattern, positions, start);
+      if (type == ID) {
+        int symbol = symbols.intern(source, start, end);
+        return new Token(symbols.name(symbol), symbol, positions, start);
+      }
+      if (type == STRINGLIT) {
+        recordNewlines(start, end);
+        // the spelling of a string literal does not include the quotes
+        return new Token(type, source, start + 1, end - 1, 0, positions, start);
+      }
+      return new Token(type, source, start, end, value, positions, start);
+    }
+    return new Token(EOF, EOF.pattern, positions, position);
+  }
+
+  private void recordNewlines(int start, int end) {
+    for (int i = start; i < end; i++) if (source.charAt(i) == '\n') positions.add(i);
+  }
+}
@@ -0,0 +1,393 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import static mavlc.parser.recursive_descent.Token.TokenType.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transition table of the {@link DfaScanner}, generated from the {@link Token.TokenType} patterns
+ * when the class is initialized.
+ *
+ * <p>Every rule is a regular expression. The rules are compiled into one NFA, which is turned into
+ * a DFA by the subset construction. If several rules accept the same longest match, the earlier
+ * rule wins, so keywords take precedence over identifiers. Keywords and punctuation are the literal
+ * patterns of their token types; identifiers and integer and boolean literals use their types'
+ * patterns as regular expressions. The remaining rules describe the language that the {@link
+ * Scanner} actually accepts where it differs from the documented patterns: floats may contain
+ * several dots, strings cannot contain quotes, and a dot followed by letters is an error unless it
+ * spells a dimension. Whitespace and comments are skipped, and any other character is an error.
+ * String literals and comments which are not terminated before the end of the input are matched by
+ * rules of their own, because the {@link Scanner} fails on them.
+ *
+ * <p>Characters are mapped to a few character classes first, so the table has one row of {@link
+ * #classes} entries per state. Characters outside the ASCII range share one class.
+ */
+final class DfaTable {
+
+  /** The state in which no rule can match anymore. Its row maps every class to itself. */
+  static final int DEAD = 0;
+
+  /** The state in which every token starts. */
+  static final int START = 1;
+
+  /** Number of character classes, i.e. the length of a row of {@link #transitions}. */
+  static final int classes;
+
+  /** Character class of every ASCII character. */
+  static final byte[] classOf = new byte[128];
+
+  /** Character class of all characters outside the ASCII range. */
+  static final int otherClass;
+
+  /** The successor of state s on character class c is stored at index s * classes + c. */
+  static final int[] transitions;
+
+  /**
+   * The action of each state if the longest match ends in it: the ordinal of the accepted token
+   * type, {@link #SKIP}, {@link #UNTERMINATED} or {@link #NONE}.
+   */
+  static final int[] accepts;
+
+  /** Action of states that do not accept. */
+  static final int NONE = -1;
+
+  /** Action of states that accept whitespace or a comment. */
+  static final int SKIP = -2;
+
+  /** Action of states that accept a string literal or comment cut off by the end of the input. */
+  static final int UNTERMINATED = -3;
+
+  // one symbol per ASCII character plus one for all other characters
+  private static final int SYMBOLS = 129;
+
+  static {
+    Nfa nfa = new Nfa();
+    List<Integer> rules = new ArrayList<>();
+    for (Token.TokenType type : Token.TokenType.values()) {
+      if (type == EOF || !type.hasFixedSpelling()) continue;
+      nfa.addRule(nfa.literal(type.pattern));
+      rules.add(type.ordinal());
+    }
+    addRule(nfa, rules, BOOLLIT.ordinal(), BOOLLIT.pattern);
+    addRule(nfa, rules, ID.ordinal(), ID.pattern);
+    addRule(nfa, rules, INTLIT.ordinal(), INTLIT.pattern);
+    addRule(nfa, rules, FLOATLIT.ordinal(), "[0-9]+\\.[0-9.]*");
+    addRule(nfa, rules, STRINGLIT.ordinal(), "\"[^\"]*\"");
+    addRule(nfa, rules, ERROR.ordinal(), "\\.[a-zA-Z]*");
+    addRule(nfa, rules, SKIP, "[ \n\r\t]+");
+    addRule(nfa, rules, SKIP, "//[^\n]*\n");
+    addRule(nfa, rules, SKIP, "/\\*([^*]|\\*+[^*/])*\\*+/");
+    // these can only be longer than the rules above at the end of the input
+    addRule(nfa, rules, UNTERMINATED, "\"[^\"]*");
+    addRule(nfa, rules, UNTERMINATED, "//[^\n]*");
+    addRule(nfa, rules, UNTERMINATED, "/\\*([^*]|\\*+[^*/])*\\**");
+    addRule(nfa, rules, ERROR.ordinal(), ".");
+
+    // partition the symbols by the character sets that contain them
+    Map<BitSet, Integer> signatures = new HashMap<>();
+    int[] classOfSymbol = new int[SYMBOLS];
+    List<Integer> representatives = new ArrayList<>();
+    for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+      BitSet signature = new BitSet();
+      for (int i = 0; i < nfa.sets.size(); i++) if (nfa.sets.get(i).get(symbol)) signature.set(i);
+      Integer c = signatures.get(signature);
+      if (c == null) {
+        c = representatives.size();
+        signatures.put(signature, c);
+        representatives.add(symbol);
+      }
+      classOfSymbol[symbol] = c;
+    }
+    classes = representatives.size();
+    for (int i = 0; i < classOf.length; i++) classOf[i] = (byte) classOfSymbol[i];
+    otherClass = classOfSymbol[SYMBOLS - 1];
+
+    // subset construction
+    List<BitSet> states = new ArrayList<>();
+    Map<BitSet, Integer> numbers = new HashMap<>();
+    states.add(new BitSet());
+    numbers.put(states.get(DEAD), DEAD);
+    BitSet start = new BitSet();
+    start.set(nfa.start);
+    nfa.closure(start);
+    states.add(start);
+    numbers.put(start, START);
+    List<int[]> rows = new ArrayList<>();
+    for (int s = 0; s < states.size(); s++) {
+      int[] row = new int[classes];
+      for (int c = 0; c < classes; c++) {
+        BitSet next = nfa.move(states.get(s), representatives.get(c));
+        Integer n = numbers.get(next);
+        if (n == null) {
+          n = states.size();
+          states.add(next);
+          numbers.put(next, n);
+        }
+        row[c] = n;
+      }
+      rows.add(row);
+    }
+
+    transitions = new int[states.size() * classes];
+    accepts = new int[states.size()];
+    for (int s = 0; s < states.size(); s++) {
+      System.arraycopy(rows.get(s), 0, transitions, s * classes, classes);
+      int rule = nfa.firstAcceptedRule(states.get(s));
+      accepts[s] = rule < 0 ? NONE : rules.get(rule);
+    }
+  }
+
+  private DfaTable() {}
+
+  private static void addRule(Nfa nfa, List<Integer> rules, int action, String regex) {
+    nfa.addRule(new RegexParser(nfa, regex).parse());
+    rules.add(action);
+  }
+
+  /** Nondeterministic automaton with one accepting state per rule. */
+  private static final class Nfa {
+
+    /** The character sets that label transitions, indexed by set number. */
+    final List<BitSet> sets = new ArrayList<>();
+
+    /** The character set number of each state's transition, or -1 if it has none. */
+    final List<Integer> labels = new ArrayList<>();
+
+    /** The target of each state's transition. */
+    final List<Integer> targets = new ArrayList<>();
+
+    /** The epsilon transitions of each state. */
+    final List<List<Integer>> epsilons = new ArrayList<>();
+
+    /** The rule accepted by each state, or -1. */
+    final List<Integer> accepting = new ArrayList<>();
+
+    final int start = newState();
+
+    private int rules;
+
+    int newState() {
+      labels.add(-1);
+      targets.add(-1);
+      epsilons.add(new ArrayList<>());
+      accepting.add(-1);
+      return labels.size() - 1;
+    }
+
+    /** @return A fragment (start and end state) matching one character of the given set. */
+    int[] symbol(BitSet set) {
+      int from = newState(), to = newState();
+      labels.set(from, sets.size());
+      targets.set(from, to);
+      sets.add(set);
+      return new int[] {from, to};
+    }
+
+    /** @return A fragment matching the given string. */
+    int[] literal(String s) {
+      int[] result = empty();
+      for (int i = 0; i < s.length(); i++) {
+        BitSet set = new BitSet();
+        set.set(s.charAt(i));
+        result = sequence(result, symbol(set));
+      }
+      return result;
+    }
+
+    int[] empty() {
+      int from = newState(), to = newState();
+      epsilons.get(from).add(to);
+      return new int[] {from, to};
+    }
+
+    int[] sequence(int[] a, int[] b) {
+      epsilons.get(a[1]).add(b[0]);
+      return new int[] {a[0], b[1]};
+    }
+
+    int[] choice(int[] a, int[] b) {
+      int from = newState(), to = newState();
+      epsilons.get(from).add(a[0]);
+      epsilons.get(from).add(b[0]);
+      epsilons.get(a[1]).add(to);
+      epsilons.get(b[1]).add(to);
+      return new int[] {from, to};
+    }
+
+    int[] star(int[] a) {
+      int from = newState(), to = newState();
+      epsilons.get(from).add(a[0]);
+      epsilons.get(from).add(to);
+      epsilons.get(a[1]).add(a[0]);
+      epsilons.get(a[1]).add(to);
+      return new int[] {from, to};
+    }
+
+    int[] plus(int[] a) {
+      int to = newState();
+      epsilons.get(a[1]).add(a[0]);
+      epsilons.get(a[1]).add(to);
+      return new int[] {a[0], to};
+    }
+
+    int[] optional(int[] a) {
+      epsilons.get(a[0]).add(a[1]);
+      return a;
+    }
+
+    void addRule(int[] fragment) {
+      epsilons.get(start).add(fragment[0]);
+      accepting.set(fragment[1], rules++);
+    }
+
+    void closure(BitSet states) {
+      List<Integer> work = new ArrayList<>();
+      for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) work.add(s);
+      while (!work.isEmpty()) {
+        for (int t : epsilons.get(work.remove(work.size() - 1))) {
+          if (!states.get(t)) {
+            states.set(t);
+            work.add(t);
+          }
+        }
+      }
+    }
+
+    BitSet move(BitSet states, int symbol) {
+      BitSet result = new BitSet();
+      for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+        int label = labels.get(s);
+        if (label >= 0 && sets.get(label).get(symbol)) result.set(targets.get(s));
+      }
+      closure(result);
+      return result;
+    }
+
+    int firstAcceptedRule(BitSet states) {
+      int result = -1;
+      for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+        int rule = accepting.get(s);
+        if (rule >= 0 && (result < 0 || rule < result)) result = rule;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Parses the regular expressions of the rules: alternatives ({@code |}), grouping, the
+   * quantifiers {@code *}, {@code +} and {@code ?}, character sets with ranges and negation, the
+   * wildcard {@code .} and backslash escapes.
+   */
+  private static final class RegexParser {
+
+    private final Nfa nfa;
+
+    private final String regex;
+
+    private int position;
+
+    RegexParser(Nfa nfa, String regex) {
+      this.nfa = nfa;
+      this.regex = regex;
+    }
+
+    int[] parse() {
+      int[] result = alternatives();
+      if (position != regex.length()) throw error();
+      return result;
+    }
+
+    private int[] alternatives() {
+      int[] result = sequence();
+      while (accept('|')) result = nfa.choice(result, sequence());
+      return result;
+    }
+
+    private int[] sequence() {
+      int[] result = nfa.empty();
+      while (position < regex.length() && peek() != '|' && peek() != ')')
+        result = nfa.sequence(result, repetition());
+      return result;
+    }
+
+    private int[] repetition() {
+      int[] result = atom();
+      while (true) {
+        if (accept('*')) result = nfa.star(result);
+        else if (accept('+')) result = nfa.plus(result);
+        else if (accept('?')) result = nfa.optional(result);
+        else return result;
+      }
+    }
+
+    private int[] atom() {
+      if (accept('(')) {
+        int[] result = alternatives();
+        if (!accept(')')) throw error();
+        return result;
+      }
+      BitSet set = new BitSet();
+      if (accept('[')) {
+        boolean negated = accept('^');
+        while (!accept(']')) {
+          char from = character();
+          char to = from;
+          if (peek() == '-' && regex.charAt(position + 1) != ']') {
+            position++;
+            to = character();
+          }
+          set.set(from, to + 1);
+        }
+        if (negated) set.flip(0, SYMBOLS);
+      } else if (accept('.')) {
+        set.set(0, SYMBOLS);
+      } else {
+        set.set(character());
+      }
+      return nfa.symbol(set);
+    }
+
+    private char character() {
+      if (position >= regex.length()) throw error();
+      char c = regex.charAt(position++);
+      if (c == '\\') {
+        if (position >= regex.length()) throw error();
+        c = regex.charAt(position++);
+      }
+      return c;
+    }
+
+    private char peek() {
+      if (position >= regex.length()) throw error();
+      return regex.charAt(position);
+    }
+
+    private boolean accept(char c) {
+      if (position < regex.length() && regex.charAt(position) == c) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private IllegalArgumentException error() {
+      return new IllegalArgumentException(
+          String.format("Malformed scanner rule %s at offset %d", regex, position));
+    }
+  }
+}
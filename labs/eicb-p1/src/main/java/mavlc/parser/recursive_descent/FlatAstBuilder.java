@@ -0,0 +1,435 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import static mavlc.ast.flat.FlatAst.Kind.*;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import mavlc.ast.flat.FlatAst;
+import mavlc.ast.flat.FlatAst.Kind;
+import mavlc.ast.nodes.expression.Compare.Comparison;
+import mavlc.ast.type.*;
+
+/**
+ * Builds the {@link FlatAst} of a MAVL program from the events of a {@link Parser}.
+ *
+ * <p>Works like {@link ASTBuilder}, with the indices of completed nodes on the operand stack. The
+ * nodes of constructs abandoned after a syntax error remain in the flat AST, but are unreachable.
+ * Skipped function bodies are parsed when they are reported.
+ */
+public final class FlatAstBuilder implements ParseListener {
+
+  private final FlatAst ast;
+
+  private int moduleLine, moduleColumn;
+
+  private int[] operands = new int[64];
+  private int operandCount;
+
+  private int[] marks = new int[32];
+  private int[] markLines = new int[32];
+  private int[] markColumns = new int[32];
+  /** The kind of the node started at the mark, or null for a statement. */
+  private Kind[] markKinds = new Kind[32];
+  private int[] markPayloads = new int[32];
+  private int markCount;
+
+  /** Constructor. */
+  public FlatAstBuilder() {
+    this(new FlatAst());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param ast The flat AST to add the nodes to.
+   */
+  public FlatAstBuilder(FlatAst ast) {
+    this.ast = ast;
+  }
+
+  /** @return The flat AST, whose root is the module once the parser has finished. */
+  public FlatAst getAst() {
+    return ast;
+  }
+
+  private void push(int node) {
+    if (operandCount == operands.length) operands = Arrays.copyOf(operands, operandCount * 2);
+    operands[operandCount++] = node;
+  }
+
+  /** Adds a node whose children are the operands from the given index on, which it replaces. */
+  private void reduce(Kind kind, int line, int column, int payload, int from) {
+    int node = ast.addNode(kind, line, column, payload, operands, from, operandCount);
+    operandCount = from;
+    push(node);
+  }
+
+  /** Starts a node whose children are the operands from the given index on. */
+  private void mark(Kind kind, int line, int column, int payload, int from) {
+    if (markCount == marks.length) {
+      int capacity = markCount * 2;
+      marks = Arrays.copyOf(marks, capacity);
+      markLines = Arrays.copyOf(markLines, capacity);
+      markColumns = Arrays.copyOf(markColumns, capacity);
+      markKinds = Arrays.copyOf(markKinds, capacity);
+      markPayloads = Arrays.copyOf(markPayloads, capacity);
+    }
+    marks[markCount] = from;
+    markLines[markCount] = line;
+    markColumns[markCount] = column;
+    markKinds[markCount] = kind;
+    markPayloads[markCount++] = payload;
+  }
+
+  /** Completes the node started at the innermost mark. */
+  private void reduceMark() {
+    reduceMark(markKinds[markCount - 1], markPayloads[markCount - 1]);
+  }
+
+  /** Completes the statement or node started at the innermost mark. */
+  private void reduceMark(Kind kind, int payload) {
+    markCount--;
+    reduce(kind, markLines[markCount], markColumns[markCount], payload, marks[markCount]);
+  }
+
+  private int string(String string) {
+    return ast.addString(string);
+  }
+
+  /** @return The payload of a name and a flag. */
+  private int flagged(String name, boolean flag) {
+    return string(name) << 1 | (flag ? 1 : 0);
+  }
+
+  /** @return The index of the first of two consecutive strings. */
+  private int strings(String first, String second) {
+    int index = string(first);
+    string(second);
+    return index;
+  }
+
+  /* Declarations */
+
+  @Override
+  public void enterModule(int line, int column) {
+    moduleLine = line;
+    moduleColumn = column;
+  }
+
+  @Override
+  public void exitModule() {
+    reduce(MODULE, moduleLine, moduleColumn, 0, 0);
+    ast.trim();
+  }
+
+  @Override
+  public void enterFunction(int line, int column, String name) {
+    // the return type is the first child
+    mark(FUNCTION, line, column, string(name), operandCount - 1);
+  }
+
+  @Override
+  public void exitFunction() {
+    reduceMark();
+  }
+
+  @Override
+  public void onFormalParameter(int line, int column, String name) {
+    reduce(FORMAL_PARAMETER, line, column, string(name), operandCount - 1);
+  }
+
+  @Override
+  public void onSkippedBody(Consumer<ParseListener> body) {
+    body.accept(this);
+  }
+
+  @Override
+  public void enterRecord(int line, int column, String name) {
+    mark(RECORD_TYPE_DECLARATION, line, column, string(name), operandCount);
+  }
+
+  @Override
+  public void exitRecord() {
+    reduceMark();
+  }
+
+  @Override
+  public void onRecordElement(int line, int column, boolean variable, String name) {
+    reduce(RECORD_ELEMENT_DECLARATION, line, column, flagged(name, variable), operandCount - 1);
+  }
+
+  @Override
+  public void abortDeclaration() {
+    markCount = 0;
+    operandCount = 0;
+  }
+
+  /* Types */
+
+  @Override
+  public void onType(Type type) {
+    Kind kind;
+    if (type instanceof IntType) kind = INT_TYPE;
+    else if (type instanceof FloatType) kind = FLOAT_TYPE;
+    else if (type instanceof BoolType) kind = BOOL_TYPE;
+    else if (type instanceof VoidType) kind = VOID_TYPE;
+    else kind = STRING_TYPE;
+    reduce(kind, 0, 0, 0, operandCount);
+  }
+
+  @Override
+  public void onRecordType(String name) {
+    reduce(RECORD_TYPE, 0, 0, string(name), operandCount);
+  }
+
+  @Override
+  public void onVectorType(ScalarType elementType) {
+    reduce(VECTOR_TYPE, 0, 0, elementType instanceof FloatType ? 1 : 0, operandCount - 1);
+  }
+
+  @Override
+  public void onMatrixType(ScalarType elementType) {
+    reduce(MATRIX_TYPE, 0, 0, elementType instanceof FloatType ? 1 : 0, operandCount - 2);
+  }
+
+  /* Statements */
+
+  @Override
+  public void enterStatement(int line, int column) {
+    mark(null, line, column, 0, operandCount);
+  }
+
+  @Override
+  public void abortStatement() {
+    do markCount--;
+    while (markKinds[markCount] != null);
+    operandCount = marks[markCount];
+  }
+
+  @Override
+  public void exitValueDefinition(String name) {
+    reduceMark(VALUE_DEFINITION, string(name));
+  }
+
+  @Override
+  public void exitVariableDeclaration(String name) {
+    reduceMark(VARIABLE_DECLARATION, string(name));
+  }
+
+  @Override
+  public void exitReturn() {
+    reduceMark(RETURN_STATEMENT, 0);
+  }
+
+  @Override
+  public void exitAssignment(String name, int indices, String element) {
+    int line = markLines[markCount - 1], column = markColumns[markCount - 1];
+    int value = operands[--operandCount];
+    if (element != null) {
+      reduce(RECORD_LHS_IDENTIFIER, line, column, strings(name, element), operandCount);
+    } else {
+      Kind kind =
+          indices == 2
+              ? MATRIX_LHS_IDENTIFIER
+              : indices == 1 ? VECTOR_LHS_IDENTIFIER : LEFT_HAND_IDENTIFIER;
+      reduce(kind, line, column, string(name), operandCount - indices);
+    }
+    push(value);
+    reduceMark(VARIABLE_ASSIGNMENT, 0);
+  }
+
+  @Override
+  public void exitCallStatement() {
+    reduceMark(CALL_STATEMENT, 0);
+  }
+
+  @Override
+  public void exitFor(String variable, String incrementedVariable) {
+    reduceMark(FOR_LOOP, strings(variable, incrementedVariable));
+  }
+
+  @Override
+  public void onIteratorDeclaration(int line, int column, boolean variable, String name) {
+    reduce(ITERATOR_DECLARATION, line, column, flagged(name, variable), operandCount - 1);
+  }
+
+  @Override
+  public void exitForEach() {
+    reduceMark(FOR_EACH_LOOP, 0);
+  }
+
+  @Override
+  public void exitIf() {
+    reduceMark(IF_STATEMENT, 0);
+  }
+
+  @Override
+  public void exitSwitch() {
+    reduceMark(SWITCH_STATEMENT, 0);
+  }
+
+  @Override
+  public void onCase(int line, int column) {
+    reduce(CASE, line, column, 0, operandCount - 2);
+  }
+
+  @Override
+  public void onDefault(int line, int column) {
+    reduce(DEFAULT, line, column, 0, operandCount - 1);
+  }
+
+  @Override
+  public void exitCompound() {
+    reduceMark(COMPOUND_STATEMENT, 0);
+  }
+
+  /* Expressions */
+
+  @Override
+  public void onIntLiteral(int line, int column, int value) {
+    reduce(INT_VALUE, line, column, value, operandCount);
+  }
+
+  @Override
+  public void onFloatLiteral(int line, int column, float value) {
+    reduce(FLOAT_VALUE, line, column, Float.floatToRawIntBits(value), operandCount);
+  }
+
+  @Override
+  public void onBoolLiteral(int line, int column, boolean value) {
+    reduce(BOOL_VALUE, line, column, value ? 1 : 0, operandCount);
+  }
+
+  @Override
+  public void onStringLiteral(int line, int column, String value) {
+    reduce(STRING_VALUE, line, column, string(value), operandCount);
+  }
+
+  @Override
+  public void onIdentifier(int line, int column, String name) {
+    reduce(IDENTIFIER_REFERENCE, line, column, string(name), operandCount);
+  }
+
+  @Override
+  public void onOperator(Operator operator, int line, int column) {
+    int payload = 0;
+    Kind kind;
+    switch (operator) {
+      case SELECT:
+        kind = SELECT_EXPRESSION;
+        break;
+      case OR:
+        kind = OR;
+        break;
+      case AND:
+        kind = AND;
+        break;
+      case NOT:
+        kind = BOOL_NOT;
+        break;
+      case LESS:
+        kind = COMPARE;
+        payload = Comparison.LESS.ordinal();
+        break;
+      case GREATER:
+        kind = COMPARE;
+        payload = Comparison.GREATER.ordinal();
+        break;
+      case LESS_EQUAL:
+        kind = COMPARE;
+        payload = Comparison.LESS_EQUAL.ordinal();
+        break;
+      case GREATER_EQUAL:
+        kind = COMPARE;
+        payload = Comparison.GREATER_EQUAL.ordinal();
+        break;
+      case EQUAL:
+        kind = COMPARE;
+        payload = Comparison.EQUAL.ordinal();
+        break;
+      case NOT_EQUAL:
+        kind = COMPARE;
+        payload = Comparison.NOT_EQUAL.ordinal();
+        break;
+      case ADD:
+        kind = ADDITION;
+        break;
+      case SUB:
+        kind = SUBTRACTION;
+        break;
+      case MUL:
+        kind = MULTIPLICATION;
+        break;
+      case DIV:
+        kind = DIVISION;
+        break;
+      case UNARY_MINUS:
+        kind = UNARY_MINUS;
+        break;
+      case EXP:
+        kind = EXPONENTIATION;
+        break;
+      case X_DIMENSION:
+        kind = MATRIX_X_DIMENSION;
+        break;
+      case Y_DIMENSION:
+        kind = MATRIX_Y_DIMENSION;
+        break;
+      case DIMENSION:
+        kind = VECTOR_DIMENSION;
+        break;
+      case DOT_PRODUCT:
+        kind = DOT_PRODUCT;
+        break;
+      case MATRIX_MULTIPLICATION:
+        kind = MATRIX_MULTIPLICATION;
+        break;
+      case SUB_VECTOR:
+        kind = SUB_VECTOR;
+        break;
+      case SUB_MATRIX:
+        kind = SUB_MATRIX;
+        break;
+      default:
+        kind = ELEMENT_SELECT;
+    }
+    reduce(kind, line, column, payload, operandCount - operator.operands);
+  }
+
+  @Override
+  public void onRecordElementSelect(int line, int column, String element) {
+    reduce(RECORD_ELEMENT_SELECT, line, column, string(element), operandCount - 1);
+  }
+
+  @Override
+  public void enterCall(int line, int column, String name) {
+    mark(CALL_EXPRESSION, line, column, string(name), operandCount);
+  }
+
+  @Override
+  public void exitCall() {
+    reduceMark();
+  }
+
+  @Override
+  public void enterStructureInit(int line, int column, String recordName) {
+    if (recordName == null) mark(STRUCTURE_INIT, line, column, 0, operandCount);
+    else mark(RECORD_INIT, line, column, string(recordName), operandCount);
+  }
+
+  @Override
+  public void exitStructureInit() {
+    reduceMark();
+  }
+}
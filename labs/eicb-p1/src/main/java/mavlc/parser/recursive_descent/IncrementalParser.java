@@ -0,0 +1,335 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import mavlc.ast.nodes.NodeList;
+import mavlc.ast.nodes.module.Module;
+import mavlc.error_reporting.NestingDepthError;
+import mavlc.error_reporting.SyntaxError;
+
+/**
+ * Parses a program repeatedly while it is edited, reusing the AST of declarations that did not
+ * change.
+ *
+ * <p>Like for the {@link ParallelParser}, the tokens are split in front of every top-level {@code
+ * function} and {@code record} keyword. Each declaration is identified by a fingerprint of its
+ * source text from its first to its last token, and of the position of its first token. A
+ * declaration with the same text and position as one of the last successful parse would produce
+ * the same {@link mavlc.ast.nodes.function.Function} or {@link
+ * mavlc.ast.nodes.record.RecordTypeDeclaration}, including the positions of all nodes, so the
+ * previous node is reused. Since fingerprints may collide, the text is compared with the retained
+ * source text of that parse before. All other declarations are parsed again. Since the nodes store
+ * absolute positions, an edit that adds or removes lines also causes all following declarations to
+ * be parsed again.
+ *
+ * <p>The parser keeps track of the text that changed through {@link #edit} since the last
+ * successful parse. Declarations outside of it keep the hash of their text, so only the edited
+ * declarations are hashed again. If the tokens were edited otherwise, all declarations are hashed.
+ *
+ * <p>The returned {@link Module} is new on every parse, but the declarations in it are shared with
+ * previous results, so they must not be modified.
+ */
+public final class IncrementalParser {
+
+  private final PackedTokenBuffer tokens;
+
+  private final int maxDepth;
+
+  /** The slices of the last successful parse, by fingerprint. */
+  private Map<Fingerprint, Slice> declarations = new HashMap<>();
+
+  /** The slices of the last successful parse, in source order. */
+  private Slice[] slices = new Slice[0];
+
+  /** The source text of the last successful parse, or null. */
+  private CharSequence parsedSource;
+
+  /** How the source text of the tokens differs from {@link #parsedSource}, or null if unknown. */
+  private Change changed;
+
+  /** The source text that {@link #changed} leads to. */
+  private CharSequence changedSource;
+
+  private int reparsed;
+
+  /** The edited source text if the tokens could not be scanned from it yet, or null. */
+  private CharSequence pending;
+
+  /** How {@link #pending} differs from the source text of the tokens. */
+  private Change pendingChange;
+
+  /**
+   * Constructor.
+   *
+   * @param tokens The tokens of the input program, which are updated by {@link #edit}.
+   */
+  public IncrementalParser(PackedTokenBuffer tokens) {
+    this(tokens, Parser.DEFAULT_MAX_DEPTH);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param tokens The tokens of the input program, which are updated by {@link #edit}.
+   * @param maxDepth The maximal nesting depth of expressions and statements.
+   */
+  public IncrementalParser(PackedTokenBuffer tokens, int maxDepth) {
+    if (maxDepth < 1) throw new IllegalArgumentException("maximal depth " + maxDepth);
+    this.tokens = tokens;
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Parses the MAVL grammar's start symbol, Module, from the current tokens.
+   *
+   * @return A {@link Module} node that is the root of the AST representing the tokenized input
+   *     progam.
+   * @throws SyntaxError to indicate that an unexpected token was encountered. The declarations of
+   *     the last successful parse are kept for reuse.
+   */
+  public Module parse() throws SyntaxError {
+    int[] bounds = ParallelParser.split(tokens, 1);
+    CharSequence source = tokens.getSource();
+    Change change = null;
+    if (source == parsedSource) change = new Change(0, 0, 0);
+    else if (source == changedSource) change = changed;
+    Map<Fingerprint, Slice> parsed = new HashMap<>(bounds.length * 2);
+    Slice[] sliced = new Slice[bounds.length - 1];
+    Module compilationUnit = new Module(tokens.line(Math.min(1, tokens.size() - 1)), 0);
+    int count = 0;
+    for (int k = 0; k + 1 < bounds.length; k++) {
+      int start = tokens.tokenStart(bounds[k]);
+      int end = end(bounds[k], bounds[k + 1]);
+      Slice unchanged = change == null ? null : unchanged(change, start, end);
+      Fingerprint fingerprint =
+          unchanged == null
+              ? fingerprint(source, start, end)
+              : fingerprint(unchanged.fingerprint.hash, start, end);
+      Slice previous = declarations.get(fingerprint);
+      Module module;
+      if (previous != null
+          && (previous == unchanged
+              || regionMatches(parsedSource, previous.start, source, start, end - start))) {
+        module = previous.declarations;
+      } else {
+        module = parse(bounds[k], bounds[k + 1]);
+        count++;
+      }
+      sliced[k] = new Slice(fingerprint, start, module);
+      parsed.put(fingerprint, sliced[k]);
+      module.getFunctions().forEach(compilationUnit::addFunction);
+      module.getRecords().forEach(compilationUnit::addRecord);
+    }
+    NodeList.freeze(compilationUnit.getFunctions());
+    NodeList.freeze(compilationUnit.getRecords());
+    declarations = parsed;
+    slices = sliced;
+    parsedSource = source;
+    changed = null;
+    changedSource = null;
+    reparsed = count;
+    return compilationUnit;
+  }
+
+  /**
+   * Applies an edit of the source text to the tokens and parses the edited program.
+   *
+   * @param offset Offset of the edit in the source text.
+   * @param removedLength Number of characters removed at the offset.
+   * @param inserted The text inserted at the offset.
+   * @return The root of the AST of the edited program.
+   * @throws SyntaxError to indicate that an unexpected token was encountered.
+   * @throws RuntimeException if the edited program cannot be scanned, e.g. because a comment or
+   *     string literal is not terminated. The tokens are left unchanged, and the edit is applied
+   *     together with the following ones, whose offsets refer to the edited program.
+   * @see PackedTokenBuffer#relex(CharSequence, int, int, int)
+   */
+  public Module edit(int offset, int removedLength, CharSequence inserted) throws SyntaxError {
+    CharSequence scanned = tokens.getSource();
+    CharSequence source = pending != null ? pending : scanned;
+    StringBuilder edited =
+        new StringBuilder(source.length() - removedLength + inserted.length())
+            .append(source, 0, offset)
+            .append(inserted)
+            .append(source, offset + removedLength, source.length());
+    Change change = new Change(offset, removedLength, inserted.length());
+    pendingChange = pending == null ? change : pendingChange.then(change, source.length());
+    pending = edited.toString();
+    tokens.relex(pending, pendingChange.offset, pendingChange.removed, pendingChange.inserted);
+
+    // track the region that changed since the last successful parse
+    if (scanned == parsedSource) changed = pendingChange;
+    else if (scanned == changedSource) changed = changed.then(pendingChange, scanned.length());
+    else changed = null;
+    changedSource = pending;
+    pending = null;
+    return parse();
+  }
+
+  /** @return The number of slices of declarations that the last successful parse parsed anew. */
+  public int getReparsedDeclarations() {
+    return reparsed;
+  }
+
+  private Module parse(int from, int to) {
+    Parser parser = new Parser(tokens.cursor(from), maxDepth);
+    Supplier<Module> parse = declarations(parser, tokens.tokenStart(to));
+    try {
+      return parse.get();
+    } catch (NestingDepthError e) {
+      // the calling thread may run out of stack before the limit is reached
+      Parser retry = new Parser(tokens.cursor(from), maxDepth);
+      return retry.onDedicatedThread(declarations(retry, tokens.tokenStart(to)));
+    }
+  }
+
+  private static Supplier<Module> declarations(Parser parser, int endOffset) {
+    return () -> {
+      ASTBuilder builder = new ASTBuilder(new Module(0, 0));
+      parser.parseDeclarations(builder, endOffset);
+      return builder.getModule();
+    };
+  }
+
+  /** @return Offset after the last token in front of the given one, or that token's offset. */
+  private int end(int from, int to) {
+    if (to == from) return tokens.tokenStart(from);
+    int last = to - 1;
+    int end = tokens.start(last) + tokens.length(last);
+    return tokens.type(last) == Token.TokenType.STRINGLIT ? end + 1 : end;
+  }
+
+  /**
+   * Finds the slice of the last successful parse that had the same text as the given range, if that
+   * range lies outside of the text that changed since.
+   *
+   * @param change How the source text changed since the last successful parse.
+   * @param start Offset of the range in the source text.
+   * @param end Offset after the range.
+   * @return The slice with the same text, or null if there is none or it is not known.
+   */
+  private Slice unchanged(Change change, int start, int end) {
+    int previousStart;
+    if (end <= change.offset) previousStart = start;
+    else if (start >= change.offset + change.inserted)
+      previousStart = start - change.inserted + change.removed;
+    else return null;
+    int low = 0, high = slices.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      Slice slice = slices[mid];
+      if (slice.start < previousStart) low = mid + 1;
+      else if (slice.start > previousStart) high = mid - 1;
+      else return slice.fingerprint.length == end - start ? slice : null;
+    }
+    return null;
+  }
+
+  private Fingerprint fingerprint(CharSequence source, int start, int end) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = start; i < end; i++) hash = (hash ^ source.charAt(i)) * 0x100000001b3L;
+    return fingerprint(hash, start, end);
+  }
+
+  private Fingerprint fingerprint(long hash, int start, int end) {
+    SourcePositions positions = tokens.getPositions();
+    return new Fingerprint(hash, end - start, positions.lineOf(start), positions.columnOf(start));
+  }
+
+  /** @return Whether both texts contain the same characters at the given offsets. */
+  private static boolean regionMatches(
+      CharSequence text, int offset, CharSequence other, int otherOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      if (text.charAt(offset + i) != other.charAt(otherOffset + i)) return false;
+    }
+    return true;
+  }
+
+  /** The declarations of a slice of the tokens, and the text they were parsed from. */
+  private static final class Slice {
+
+    private final Fingerprint fingerprint;
+
+    /** Offset of the slice in the source text it was parsed from. */
+    private final int start;
+
+    private final Module declarations;
+
+    Slice(Fingerprint fingerprint, int start, Module declarations) {
+      this.fingerprint = fingerprint;
+      this.start = start;
+      this.declarations = declarations;
+    }
+  }
+
+  /** An edit of a source text: its offset, and the lengths of the removed and inserted text. */
+  private static final class Change {
+
+    private final int offset, removed, inserted;
+
+    Change(int offset, int removed, int inserted) {
+      this.offset = offset;
+      this.removed = removed;
+      this.inserted = inserted;
+    }
+
+    /**
+     * Merges this change with the one following it into one that spans both, keeping the text in
+     * front of and behind both changes.
+     *
+     * @param next The change of the text that this change resulted in.
+     * @param length The length of that text.
+     * @return A change with the effect of this change followed by the given one.
+     */
+    Change then(Change next, int length) {
+      int behind = Math.min(length - offset - inserted, length - next.offset - next.removed);
+      int start = Math.min(offset, next.offset);
+      return new Change(
+          start,
+          length - inserted + removed - start - behind,
+          length - next.removed + next.inserted - start - behind);
+    }
+  }
+
+  /** Identifies the source text of a slice of declarations, and where it starts. */
+  private static final class Fingerprint {
+
+    private final long hash;
+
+    private final int length, line, column;
+
+    Fingerprint(long hash, int length, int line, int column) {
+      this.hash = hash;
+      this.length = length;
+      this.line = line;
+      this.column = column;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Fingerprint)) return false;
+      Fingerprint other = (Fingerprint) obj;
+      return hash == other.hash
+          && length == other.length
+          && line == other.line
+          && column == other.column;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(hash) * 31 + line;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import static mavlc.parser.recursive_descent.Token.TokenType.*;
+
+/**
+ * Perfect hash table of the words that the scanner must not classify as identifiers: the keywords
+ * and the boolean literals.
+ *
+ * <p>The hash only looks at the first and last character and the length of a word, which is
+ * collision-free for the words below. A lookup therefore costs one table access and at most one
+ * comparison, directly on the source text.
+ */
+final class Keywords {
+
+  private static final Token.TokenType[] WORDS = {
+    INT, FLOAT, BOOL, VOID, STRING, MATRIX, VECTOR, VAL, VAR, FOR, IF, ELSE, RETURN, FUNCTION,
+    SWITCH, CASE, DEFAULT, FOREACH, RECORD
+  };
+
+  private static final String[] LITERALS = {"true", "false"};
+
+  private static final int SIZE = 32;
+
+  private static final String[] spellings = new String[SIZE];
+
+  private static final Token.TokenType[] types = new Token.TokenType[SIZE];
+
+  static {
+    for (Token.TokenType type : WORDS) put(type.pattern, type);
+    for (String literal : LITERALS) put(literal, BOOLLIT);
+  }
+
+  private Keywords() {}
+
+  private static void put(String spelling, Token.TokenType type) {
+    int h = hash(spelling.charAt(0), spelling.charAt(spelling.length() - 1), spelling.length());
+    if (spellings[h] != null)
+      throw new IllegalStateException(
+          "Keyword hash collision between " + spellings[h] + " and " + spelling);
+    spellings[h] = spelling;
+    types[h] = type;
+  }
+
+  private static int hash(char first, char last, int length) {
+    return (first * 9 + last * 6 + length) & (SIZE - 1);
+  }
+
+  /**
+   * Classifies a scanned word.
+   *
+   * @param source The source text.
+   * @param start Offset of the word in the source text.
+   * @param end Offset after the word in the source text.
+   * @return The keyword's type, {@link Token.TokenType#BOOLLIT} for "true" and "false", or null if
+   *     the word is an identifier.
+   */
+  static Token.TokenType lookup(CharSequence source, int start, int end) {
+    int length = end - start;
+    if (length < 2 || length > 8) return null;
+    int h = hash(source.charAt(start), source.charAt(end - 1), length);
+    String spelling = spellings[h];
+    if (spelling == null || spelling.length() != length) return null;
+    for (int i = 0; i < length; i++)
+      if (source.charAt(start + i) != spelling.charAt(i)) return null;
+    return types[h];
+  }
+}
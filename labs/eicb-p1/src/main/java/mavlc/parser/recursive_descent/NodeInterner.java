@@ -0,0 +1,192 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import mavlc.ast.nodes.expression.BoolValue;
+import mavlc.ast.nodes.expression.Expression;
+import mavlc.ast.nodes.expression.FloatValue;
+import mavlc.ast.nodes.expression.IntValue;
+import mavlc.ast.nodes.expression.StringValue;
+import mavlc.ast.type.MatrixType;
+import mavlc.ast.type.Type;
+import mavlc.ast.type.VectorType;
+
+/**
+ * Hash-consing table for literals and types. Every distinct literal, vector type and matrix type is
+ * kept once, so that repeated constants and types share one object and compare by identity.
+ *
+ * <p>Only nodes that contextual analysis decorates the same way wherever they occur are shared: a
+ * literal always gets the type of its class, and a vector or matrix type whose dimensions are
+ * literals always gets the same dimensions. Identifier references and the expressions containing
+ * them are linked to declarations of their scope, and record types to the declaration of their
+ * module, so they are never shared. Neither are other compound expressions, calls and structure
+ * initializers.
+ *
+ * <p>The dimensions of a type are interned before the type, so two types are equal if they have
+ * the same class, the same element type and identical dimensions, and each lookup takes constant
+ * time.
+ *
+ * <p>Source positions are not preserved: a shared literal keeps the line and column of its first
+ * occurrence. No diagnostic of this front end reads them, since syntax errors are positioned at
+ * tokens, but the XML serialization writes them. ASTs built with an interner are therefore not
+ * meant to be serialized.
+ *
+ * <p>The table is thread-safe, because the bodies of lazily parsed functions intern into the table
+ * of their parser on whichever threads request them. {@link #clear()} must not run concurrently
+ * with interning.
+ */
+public final class NodeInterner {
+
+  private final ConcurrentMap<Key, Object> canonical = new ConcurrentHashMap<>();
+
+  /** Occurrences and shared occurrences per class, by class name. */
+  private final ConcurrentMap<String, AtomicIntegerArray> counts = new ConcurrentSkipListMap<>();
+
+  private final AtomicInteger occurrences = new AtomicInteger();
+
+  /** Removes all interned literals and types, and the counts. */
+  public void clear() {
+    canonical.clear();
+    counts.clear();
+    occurrences.set(0);
+  }
+
+  /**
+   * Interns a literal. Other expressions are returned as they are.
+   *
+   * @param expression The expression.
+   * @return The first interned literal equal to the given one, or the given expression.
+   */
+  public Expression intern(Expression expression) {
+    Object value;
+    if (expression instanceof IntValue) value = ((IntValue) expression).getValue();
+    else if (expression instanceof FloatValue) value = ((FloatValue) expression).getValue();
+    else if (expression instanceof BoolValue) value = ((BoolValue) expression).getValue();
+    else if (expression instanceof StringValue) value = ((StringValue) expression).getValue();
+    else return expression;
+    return (Expression) intern(expression, new Key(expression.getClass(), value, NO_PARTS));
+  }
+
+  /**
+   * Interns a vector or matrix type whose dimension expressions were interned. Other types, and
+   * types with dimensions other than literals, are returned as they are.
+   *
+   * @param type The type.
+   * @return The first interned type equal to the given one, or the given type.
+   */
+  public Type intern(Type type) {
+    Object[] parts;
+    if (type instanceof VectorType) {
+      VectorType vector = (VectorType) type;
+      parts = new Object[] {vector.getElementType(), vector.getDimensionExpr()};
+    } else if (type instanceof MatrixType) {
+      MatrixType matrix = (MatrixType) type;
+      parts =
+          new Object[] {
+            matrix.getElementType(), matrix.getxDimensionExpr(), matrix.getyDimensionExpr()
+          };
+    } else {
+      return type;
+    }
+    for (int i = 1; i < parts.length; i++) if (!isLiteral(parts[i])) return type;
+    return (Type) intern(type, new Key(type.getClass(), null, parts));
+  }
+
+  private static boolean isLiteral(Object expression) {
+    return expression instanceof IntValue
+        || expression instanceof FloatValue
+        || expression instanceof BoolValue
+        || expression instanceof StringValue;
+  }
+
+  private Object intern(Object candidate, Key key) {
+    occurrences.incrementAndGet();
+    AtomicIntegerArray count =
+        counts.computeIfAbsent(key.type.getSimpleName(), name -> new AtomicIntegerArray(2));
+    count.incrementAndGet(0);
+    Object interned = canonical.putIfAbsent(key, candidate);
+    if (interned == null) return candidate;
+    count.incrementAndGet(1);
+    return interned;
+  }
+
+  /** @return The number of distinct literals and types. */
+  public int size() {
+    return canonical.size();
+  }
+
+  /** @return The number of literals and types interned so far. */
+  public int occurrences() {
+    return occurrences.get();
+  }
+
+  /**
+   * Describes how much was shared, e.g. {@code IntValue: 812 of 1000 shared} for every class and
+   * the total in the last line.
+   *
+   * @return The report.
+   */
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, AtomicIntegerArray> entry : counts.entrySet()) {
+      AtomicIntegerArray count = entry.getValue();
+      sb.append(entry.getKey()).append(": ").append(count.get(1)).append(" of ");
+      sb.append(count.get(0)).append(" shared\n");
+    }
+    int total = occurrences();
+    int shared = total - size();
+    sb.append("total: ").append(shared).append(" of ").append(total).append(" shared");
+    return sb.toString();
+  }
+
+  private static final Object[] NO_PARTS = {};
+
+  /** The class, value and parts of a literal or type; parts compare by identity. */
+  private static final class Key {
+
+    final Class<?> type;
+    final Object value;
+    final Object[] parts;
+    final int hash;
+
+    Key(Class<?> type, Object value, Object[] parts) {
+      this.type = type;
+      this.value = value;
+      this.parts = parts;
+      int hash = type.hashCode() * 31 + (value == null ? 0 : value.hashCode());
+      for (Object part : parts) hash = hash * 31 + System.identityHashCode(part);
+      this.hash = hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) return false;
+      Key other = (Key) obj;
+      if (type != other.type || hash != other.hash || parts.length != other.parts.length)
+        return false;
+      if (value == null ? other.value != null : !value.equals(other.value)) return false;
+      for (int i = 0; i < parts.length; i++) if (parts[i] != other.parts[i]) return false;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+/**
+ * Decodes number literals directly from the source text, so that no spelling has to be copied and
+ * parsed again by {@link Integer#parseInt(String)} or {@link Float#parseFloat(String)}.
+ *
+ * <p>The scanner accepts any sequence of digits and dots that starts with a digit. A sequence
+ * without dots is an int literal, a sequence with exactly one dot a float literal; sequences with
+ * several dots, int literals greater than {@link Integer#MAX_VALUE} and float literals too large
+ * for a float are malformed.
+ */
+final class NumberLiterals {
+
+  /** Result of {@link #decode} for a malformed literal; valid results are never negative. */
+  static final long MALFORMED = -1;
+
+  /** Float mantissas below this bound are exact. */
+  private static final long EXACT_MANTISSA = 1 << 24;
+
+  /** Powers of ten that are exact floats. */
+  private static final float[] POWERS_OF_TEN = {
+    1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+  };
+
+  private NumberLiterals() {}
+
+  /**
+   * Decodes a number literal.
+   *
+   * @param source The source text.
+   * @param start Offset of the literal in the source text.
+   * @param end Offset after the literal in the source text.
+   * @return The value of an int literal, the bits of the value of a float literal (see {@link
+   *     Float#floatToRawIntBits(float)}) as an unsigned number, or {@link #MALFORMED}.
+   */
+  static long decode(CharSequence source, int start, int end) {
+    long mantissa = 0;
+    boolean exact = true;
+    int dot = -1;
+    for (int i = start; i < end; i++) {
+      char c = source.charAt(i);
+      if (c == '.') {
+        if (dot >= 0) return MALFORMED;
+        dot = i;
+      } else if (mantissa < EXACT_MANTISSA << 8) {
+        mantissa = mantissa * 10 + (c - '0');
+      } else {
+        exact = false;
+      }
+    }
+
+    if (dot < 0) return exact && mantissa <= Integer.MAX_VALUE ? mantissa : MALFORMED;
+
+    // with an exact mantissa and power of ten, a single rounding yields the correct float
+    int fractionDigits = end - dot - 1;
+    float value;
+    if (exact && mantissa < EXACT_MANTISSA && fractionDigits < POWERS_OF_TEN.length) {
+      value = mantissa / POWERS_OF_TEN[fractionDigits];
+    } else {
+      value = Float.parseFloat(source.subSequence(start, end).toString());
+      if (Float.isInfinite(value)) return MALFORMED;
+    }
+    return Float.floatToRawIntBits(value) & 0xFFFFFFFFL;
+  }
+}
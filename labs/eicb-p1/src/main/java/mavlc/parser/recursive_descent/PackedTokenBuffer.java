@@ -0,0 +1,462 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import java.util.Arrays;
+
+/**
+ * A fully scanned token stream stored as parallel primitive arrays over the shared source text.
+ *
+ * <p>Each token costs 13 bytes (type, spelling offset and length, and the symbol number of an
+ * identifier or the decoded value of a number literal) instead of a {@link Token} object. Lines and
+ * columns are not stored per token but resolved from the {@link SourcePositions} index of the
+ * source text, which costs 4 bytes per line. Materialized tokens refer to their spelling in the
+ * source text; it is copied only when it is requested, and only for token types whose spelling
+ * varies (identifiers, literals and errors). All other tokens are spelled like their type's
+ * pattern. Identifiers are interned and literals decoded once while scanning, so materializing a
+ * token again, e.g. for lookahead, only reads the arrays.
+ *
+ * <p>After an edit of the source text, {@link #relex} rescans only the tokens around the edit. To
+ * avoid shifting all following tokens, the arrays are a gap buffer: the tokens behind the gap store
+ * their offset relative to the end of the source text, so they stay valid when text in front of
+ * them is inserted or removed. Scanning appends tokens in front of the gap, which stays at the end
+ * of the arrays until the first edit.
+ */
+public final class PackedTokenBuffer {
+
+  private static final Token.TokenType[] TYPES = Token.TokenType.values();
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private CharSequence source;
+
+  private final SymbolTable symbols;
+
+  private final SourcePositions positions;
+
+  /** The tokens are stored at [0, gapStart) and [gapEnd, capacity) of the arrays. */
+  private int gapStart, gapEnd = INITIAL_CAPACITY;
+
+  /** Length of the source text, which the tokens behind the gap refer to. */
+  private int sourceLength;
+
+  private byte[] types = new byte[INITIAL_CAPACITY];
+
+  private int[] starts = new int[INITIAL_CAPACITY];
+
+  private int[] lengths = new int[INITIAL_CAPACITY];
+
+  /** The symbol number of an identifier, the decoded value of a number literal, or zero. */
+  private int[] values = new int[INITIAL_CAPACITY];
+
+  /**
+   * Constructor.
+   *
+   * @param source The source text that the spelling offsets of the tokens refer to.
+   * @param symbols The table containing the identifiers of the tokens.
+   * @param positions The index of the newlines of the source text.
+   */
+  PackedTokenBuffer(CharSequence source, SymbolTable symbols, SourcePositions positions) {
+    this.source = source;
+    this.symbols = symbols;
+    this.positions = positions;
+    sourceLength = source.length();
+  }
+
+  /**
+   * Appends a token, or inserts it in front of the gap.
+   *
+   * @param type The token's type.
+   * @param start Offset of the token's spelling in the source text.
+   * @param length Length of the token's spelling.
+   * @param value The symbol number of an identifier in the {@link SymbolTable} of this buffer, the
+   *     value of a number literal as returned by {@link Token#getIntValue}, or zero.
+   */
+  void add(Token.TokenType type, int start, int length, int value) {
+    if (gapStart == gapEnd) grow(1);
+    types[gapStart] = (byte) type.ordinal();
+    starts[gapStart] = start;
+    lengths[gapStart] = length;
+    values[gapStart] = value;
+    gapStart++;
+  }
+
+  /**
+   * Appends a range of the tokens of another buffer over the same source text.
+   *
+   * @param other The buffer to copy the tokens from, which must not have been edited.
+   * @param from Index of the first token to copy.
+   * @param to Index after the last token to copy.
+   */
+  void addAll(PackedTokenBuffer other, int from, int to) {
+    int count = to - from;
+    if (gapEnd - gapStart < count) grow(count);
+    System.arraycopy(other.types, from, types, gapStart, count);
+    System.arraycopy(other.starts, from, starts, gapStart, count);
+    System.arraycopy(other.lengths, from, lengths, gapStart, count);
+    System.arraycopy(other.values, from, values, gapStart, count);
+    gapStart += count;
+  }
+
+  private void grow(int minGap) {
+    int size = size();
+    resize(Math.max(size + minGap, size + (size >> 1)));
+  }
+
+  private void resize(int capacity) {
+    int newGapEnd = capacity - (types.length - gapEnd);
+    types = resize(types, capacity, newGapEnd);
+    starts = resize(starts, capacity, newGapEnd);
+    lengths = resize(lengths, capacity, newGapEnd);
+    values = resize(values, capacity, newGapEnd);
+    gapEnd = newGapEnd;
+  }
+
+  private byte[] resize(byte[] array, int capacity, int newGapEnd) {
+    byte[] result = Arrays.copyOf(array, capacity);
+    System.arraycopy(array, gapEnd, result, newGapEnd, array.length - gapEnd);
+    return result;
+  }
+
+  private int[] resize(int[] array, int capacity, int newGapEnd) {
+    int[] result = Arrays.copyOf(array, capacity);
+    System.arraycopy(array, gapEnd, result, newGapEnd, array.length - gapEnd);
+    return result;
+  }
+
+  /** Releases the unused capacity of the arrays once scanning is complete. */
+  void trim() {
+    resize(size());
+  }
+
+  /**
+   * Moves the gap in front of the given token.
+   *
+   * @param index Index of the token.
+   */
+  private void moveGap(int index) {
+    if (index < gapStart) {
+      int count = gapStart - index;
+      int to = gapEnd - count;
+      copy(index, to, count);
+      for (int i = to; i < gapEnd; i++) starts[i] -= sourceLength;
+      gapStart = index;
+      gapEnd = to;
+    } else if (index > gapStart) {
+      int count = index - gapStart;
+      copy(gapEnd, gapStart, count);
+      for (int i = gapStart; i < index; i++) starts[i] += sourceLength;
+      gapStart = index;
+      gapEnd += count;
+    }
+  }
+
+  private void copy(int from, int to, int count) {
+    System.arraycopy(types, from, types, to, count);
+    System.arraycopy(starts, from, starts, to, count);
+    System.arraycopy(lengths, from, lengths, to, count);
+    System.arraycopy(values, from, values, to, count);
+  }
+
+  /** @return Index in the arrays of the token with the given index. */
+  private int slot(int index) {
+    return index < gapStart ? index : index + gapEnd - gapStart;
+  }
+
+  /** @return The number of tokens, including the final EOF token. */
+  public int size() {
+    return gapStart + types.length - gapEnd;
+  }
+
+  /** @return The source text that the tokens were scanned from. */
+  public CharSequence getSource() {
+    return source;
+  }
+
+  /** @return The index of the newlines of the source text. */
+  public SourcePositions getPositions() {
+    return positions;
+  }
+
+  /** @return The table containing the identifiers of the tokens. */
+  public SymbolTable getSymbols() {
+    return symbols;
+  }
+
+  /**
+   * @param index Index of the token.
+   * @return The token's type.
+   */
+  public Token.TokenType type(int index) {
+    return TYPES[types[slot(index)]];
+  }
+
+  /**
+   * @param index Index of the token.
+   * @return Offset of the token's spelling in the source text.
+   */
+  public int start(int index) {
+    return index < gapStart ? starts[index] : starts[slot(index)] + sourceLength;
+  }
+
+  /**
+   * @param index Index of the token.
+   * @return Offset of the token in the source text; unlike its spelling, a string literal starts
+   *     with the quote.
+   */
+  int tokenStart(int index) {
+    return type(index) == Token.TokenType.STRINGLIT ? start(index) - 1 : start(index);
+  }
+
+  /**
+   * @param index Index of the token.
+   * @return Length of the token's spelling.
+   */
+  public int length(int index) {
+    return lengths[slot(index)];
+  }
+
+  /**
+   * @param index Index of an identifier.
+   * @return The identifier's symbol number. For tokens copied with {@link #addAll}, it refers to
+   *     the table of the other buffer until it is replaced with {@link #setSymbol}.
+   */
+  int symbol(int index) {
+    return values[slot(index)];
+  }
+
+  /**
+   * Replaces the symbol number of an identifier, e.g. after copying it from a buffer with another
+   * {@link SymbolTable}.
+   *
+   * @param index Index of the token.
+   * @param symbol The identifier's symbol number in the table of this buffer.
+   */
+  void setSymbol(int index, int symbol) {
+    values[slot(index)] = symbol;
+  }
+
+  /**
+   * @param index Index of the token.
+   * @return The line number in the source file where the token was found.
+   */
+  public int line(int index) {
+    return positions.lineOf(tokenStart(index));
+  }
+
+  /**
+   * @param index Index of the token.
+   * @return The column in the line where the token starts.
+   */
+  public int column(int index) {
+    return positions.columnOf(tokenStart(index));
+  }
+
+  /**
+   * @param index Index of the token.
+   * @return The token's spelling.
+   */
+  public String spelling(int index) {
+    Token.TokenType type = type(index);
+    if (type.hasFixedSpelling()) return type.pattern;
+    int start = start(index);
+    return source.subSequence(start, start + length(index)).toString();
+  }
+
+  /**
+   * Materializes a token. Only the spelling of a literal is copied from the source text, and its
+   * position is resolved from the newline index.
+   *
+   * @param index Index of the token.
+   * @return A {@link Token} object equal to the one the {@link Scanner} would have returned.
+   */
+  public Token token(int index) {
+    Token.TokenType type = type(index);
+    int offset = tokenStart(index);
+    if (type.hasFixedSpelling()) return new Token(type, type.pattern, positions, offset);
+    int value = values[slot(index)];
+    if (type == Token.TokenType.ID) return new Token(symbols.name(value), value, positions, offset);
+    int start = start(index);
+    return new Token(type, source, start, start + length(index), value, positions, offset);
+  }
+
+  /**
+   * Finds a token by its offset.
+   *
+   * @param start Offset of the token's spelling in the source text.
+   * @param type The token's type.
+   * @return The index of the token of the given type whose spelling starts at the given offset, or
+   *     -1 if there is no such token.
+   */
+  int indexOf(int start, Token.TokenType type) {
+    int low = 0, high = size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midStart = start(mid);
+      if (midStart < start) low = mid + 1;
+      else if (midStart > start) high = mid - 1;
+      else return type(mid) == type ? mid : -1;
+    }
+    return -1;
+  }
+
+  /**
+   * Applies an edit of the source text by scanning only the tokens it affects. The edited source
+   * text is built as a new string; use {@link #relex(CharSequence, int, int, int)} if it is
+   * available already.
+   *
+   * @param offset Offset of the edit in the source text.
+   * @param removedLength Number of characters removed at the offset.
+   * @param inserted The text inserted at the offset.
+   */
+  public void relex(int offset, int removedLength, CharSequence inserted) {
+    StringBuilder edited = new StringBuilder(sourceLength - removedLength + inserted.length());
+    edited.append(source, 0, offset).append(inserted);
+    edited.append(source, offset + removedLength, sourceLength);
+    relex(edited.toString(), offset, removedLength, inserted.length());
+  }
+
+  /**
+   * Applies an edit of the source text by scanning only the tokens it affects.
+   *
+   * <p>Scanning restarts at the last token that starts before the edit, since the edit may extend
+   * it. It stops at the first token behind the edit that starts at the (shifted) offset of an old
+   * token. That token and all following tokens are the same as before. The newline index is updated
+   * the same way, so the work depends on the size of the edit and on the distance to the previous
+   * edit, but not on the size of the source text.
+   *
+   * <p>Identifiers are interned in the {@link SymbolTable} of this buffer. The tokens are scanned
+   * into a buffer of their own and replace the old ones only once scanning succeeded. If it fails,
+   * e.g. because the edit left a comment or string literal unterminated, the tokens and the newline
+   * index are left unchanged, though identifiers may have been interned. The positions of tokens
+   * materialized before the edit are resolved against the edited source text unless they were
+   * requested before the edit.
+   *
+   * @param edited The edited source text.
+   * @param offset Offset of the edit in the source text.
+   * @param removedLength Number of characters removed at the offset.
+   * @param insertedLength Number of characters inserted at the offset.
+   */
+  public void relex(CharSequence edited, int offset, int removedLength, int insertedLength) {
+    int restart = -1;
+    for (int low = 0, high = size() - 1; low <= high; ) {
+      int mid = (low + high) >>> 1;
+      if (tokenStart(mid) < offset) {
+        restart = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    int scanStart = restart < 0 ? 0 : tokenStart(restart);
+    if (restart < 0) restart = 0;
+    positions.edit(edited, offset, removedLength, insertedLength);
+
+    // scan into a buffer of its own, so that this one is unchanged if scanning fails
+    PackedTokenBuffer scanned = new PackedTokenBuffer(edited, symbols, positions);
+    Scanner scanner = new Scanner(edited, scanStart, positions);
+    int shift = edited.length() - sourceLength;
+    int resync = restart;
+    try {
+      while (true) {
+        scanner.scanPacked(scanned, 0);
+        int last = scanned.size() - 1;
+        Token.TokenType type = scanned.type(last);
+        if (type == Token.TokenType.EOF) {
+          resync = size();
+          break;
+        }
+        if (scanned.tokenStart(last) < offset + insertedLength) continue;
+
+        // skip the old tokens in front of it, then check whether the old tokens are in sync again
+        int oldStart = scanned.start(last) - shift;
+        while (resync < size() && start(resync) < oldStart) resync++;
+        if (resync < size() && start(resync) == oldStart && type(resync) == type) {
+          scanned.gapStart--;
+          break;
+        }
+      }
+    } catch (RuntimeException e) {
+      positions.edit(source, offset, insertedLength, removedLength);
+      throw e;
+    }
+
+    // the old tokens behind the gap stay valid, since they refer to the end of the source text
+    moveGap(restart);
+    gapEnd += resync - restart;
+    addAll(scanned, 0, scanned.size());
+    source = edited;
+    sourceLength = edited.length();
+  }
+
+  /** @return A token stream over all tokens of this buffer, e.g. to run a {@link Parser} on. */
+  public TokenSource cursor() {
+    return new Cursor(0);
+  }
+
+  /**
+   * @param from Index of the first token of the stream.
+   * @return A token stream over the tokens of this buffer from the given index on.
+   */
+  Cursor cursor(int from) {
+    return new Cursor(from);
+  }
+
+  /** Token stream that materializes one token at a time. */
+  final class Cursor implements TokenSource {
+
+    private int index;
+
+    Cursor(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public Token next() {
+      Token t = token(index);
+      if (index < size() - 1) index++;
+      return t;
+    }
+
+    @Override
+    public Token peek(int k) {
+      if (k < 0 || k >= MAX_LOOKAHEAD) throw new IllegalArgumentException("lookahead " + k);
+      return token(Math.min(index + k, size() - 1));
+    }
+
+    /**
+     * Skips a block without materializing its tokens. The token returned last must be a left brace;
+     * afterwards, the matching right brace is the next token.
+     *
+     * @return The index of the first token inside the block, or -1 if the block is not closed or
+     *     contains an erroneous token; then the cursor is not moved.
+     */
+    int skipBlock() {
+      int open = index - 1;
+      int depth = 0;
+      for (int i = open, size = size(); i < size; i++) {
+        Token.TokenType type = type(i);
+        if (type == Token.TokenType.LBRACE) {
+          depth++;
+        } else if (type == Token.TokenType.RBRACE) {
+          if (--depth == 0) {
+            index = i;
+            return open + 1;
+          }
+        } else if (type == Token.TokenType.ERROR) {
+          return -1;
+        }
+      }
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import static mavlc.parser.recursive_descent.Token.TokenType.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import mavlc.ast.nodes.NodeList;
+import mavlc.ast.nodes.module.Module;
+import mavlc.error_reporting.NestingDepthError;
+import mavlc.error_reporting.SyntaxError;
+
+/**
+ * Parses large input programs on several threads, producing the same AST as {@link
+ * Parser#parse()}.
+ *
+ * <p>A module is a sequence of independent function and record declarations. The tokens are split
+ * in front of every {@code function} and {@code record} keyword outside of braces, and runs of
+ * declarations are parsed by separate {@link Parser}s. Each parser reads from the complete token
+ * stream, so that a malformed declaration is reported exactly like the sequential parser would
+ * report it. The declarations are added to the module in source order, and if several runs fail,
+ * the first error in source order is thrown.
+ */
+public final class ParallelParser {
+
+  /** Runs of declarations are at least this many tokens long. */
+  static final int MIN_SLICE_TOKENS = 1 << 14;
+
+  private final PackedTokenBuffer tokens;
+
+  private final int maxDepth;
+
+  private final int minSliceTokens;
+
+  /**
+   * Constructor.
+   *
+   * @param tokens The tokens of the input program, e.g. from {@link ParallelScanner#scan()}.
+   */
+  public ParallelParser(PackedTokenBuffer tokens) {
+    this(tokens, Parser.DEFAULT_MAX_DEPTH);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param tokens The tokens of the input program, e.g. from {@link ParallelScanner#scan()}.
+   * @param maxDepth The maximal nesting depth of expressions and statements.
+   */
+  public ParallelParser(PackedTokenBuffer tokens, int maxDepth) {
+    this(tokens, maxDepth, MIN_SLICE_TOKENS);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param tokens The tokens of the input program.
+   * @param maxDepth The maximal nesting depth of expressions and statements.
+   * @param minSliceTokens The minimal number of tokens parsed by one parser.
+   */
+  public ParallelParser(PackedTokenBuffer tokens, int maxDepth, int minSliceTokens) {
+    if (maxDepth < 1) throw new IllegalArgumentException("maximal depth " + maxDepth);
+    this.tokens = tokens;
+    this.maxDepth = maxDepth;
+    this.minSliceTokens = minSliceTokens;
+  }
+
+  /**
+   * Parses the MAVL grammar's start symbol, Module.
+   *
+   * @return A {@link Module} node that is the root of the AST representing the tokenized input
+   *     progam.
+   * @throws SyntaxError to indicate that an unexpected token was encountered.
+   */
+  public Module parse() throws SyntaxError {
+    return parse(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Parses the MAVL grammar's start symbol, Module.
+   *
+   * @param pool The pool that runs the parsers.
+   * @return A {@link Module} node that is the root of the AST representing the tokenized input
+   *     progam.
+   * @throws SyntaxError to indicate that an unexpected token was encountered.
+   */
+  public Module parse(ForkJoinPool pool) throws SyntaxError {
+    int[] bounds = pool.getParallelism() > 1 ? split() : new int[0];
+    if (bounds.length <= 2) return new Parser(tokens.cursor(), maxDepth).parseOnDedicatedThread();
+
+    List<ForkJoinTask<Slice>> slices = new ArrayList<>(bounds.length - 1);
+    for (int k = 0; k + 1 < bounds.length; k++) {
+      Slice slice = new Slice(bounds[k], bounds[k + 1]);
+      slices.add(pool.submit(slice::parse, slice));
+    }
+
+    Module compilationUnit = new Module(tokens.line(Math.min(1, tokens.size() - 1)), 0);
+    for (int k = 0; k < slices.size(); k++) {
+      Slice slice = slices.get(k).join();
+      if (slice.error != null) {
+        for (int i = k + 1; i < slices.size(); i++) slices.get(i).cancel(false);
+        throw slice.error;
+      }
+      slice.declarations.getFunctions().forEach(compilationUnit::addFunction);
+      slice.declarations.getRecords().forEach(compilationUnit::addRecord);
+    }
+    NodeList.freeze(compilationUnit.getFunctions());
+    NodeList.freeze(compilationUnit.getRecords());
+    return compilationUnit;
+  }
+
+  /**
+   * Splits the tokens in front of top-level declarations.
+   *
+   * @return The indices of the first tokens of the slices, followed by the index of the EOF token.
+   */
+  int[] split() {
+    return split(tokens, minSliceTokens);
+  }
+
+  /**
+   * Splits the tokens in front of top-level declarations.
+   *
+   * @param tokens The tokens of the input program.
+   * @param minSliceTokens The minimal number of tokens of a slice.
+   * @return The indices of the first tokens of the slices, followed by the index of the EOF token.
+   */
+  static int[] split(PackedTokenBuffer tokens, int minSliceTokens) {
+    int[] bounds = new int[16];
+    int count = 1;
+    int size = tokens.size();
+    int depth = 0;
+    for (int i = 0; i < size; i++) {
+      switch (tokens.type(i)) {
+        case LBRACE:
+          depth++;
+          break;
+        case RBRACE:
+          // unbalanced braces are reported by the parser of the slice
+          if (depth > 0) depth--;
+          break;
+        case FUNCTION:
+        case RECORD:
+          if (depth == 0 && i - bounds[count - 1] >= minSliceTokens) {
+            if (count == bounds.length) bounds = Arrays.copyOf(bounds, count * 2);
+            bounds[count++] = i;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    if (count == bounds.length) bounds = Arrays.copyOf(bounds, count + 1);
+    bounds[count++] = size - 1;
+    return Arrays.copyOf(bounds, count);
+  }
+
+  /** A run of declarations parsed by one parser. */
+  private final class Slice {
+
+    private final int from, to;
+
+    private Module declarations;
+
+    private SyntaxError error;
+
+    Slice(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    void parse() {
+      try {
+        declarations = parse(false);
+      } catch (NestingDepthError e) {
+        // pool threads may run out of stack before the limit is reached
+        try {
+          declarations = parse(true);
+        } catch (SyntaxError e2) {
+          error = e2;
+        }
+      } catch (SyntaxError e) {
+        error = e;
+      }
+    }
+
+    private Module parse(boolean dedicatedThread) {
+      Parser parser = new Parser(tokens.cursor(from), maxDepth);
+      int endOffset = tokens.tokenStart(to);
+      ASTBuilder builder = new ASTBuilder(new Module(0, 0));
+      Supplier<Module> parse =
+          () -> {
+            parser.parseDeclarations(builder, endOffset);
+            return builder.getModule();
+          };
+      return dedicatedThread ? parser.onDedicatedThread(parse) : parse.get();
+    }
+  }
+}
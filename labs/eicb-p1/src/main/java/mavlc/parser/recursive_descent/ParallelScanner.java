@@ -0,0 +1,315 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import static mavlc.parser.recursive_descent.Token.TokenType.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Scans large input programs on several threads, producing the same tokens as {@link
+ * Scanner#scanPacked()}.
+ *
+ * <p>The input is split into chunks at line starts. Each chunk is scanned speculatively, assuming
+ * that no token or comment crosses its start. The newlines of all chunks are indexed beforehand,
+ * so that positions in error messages are correct even for speculative scans. The chunks are then
+ * stitched together in order. If the tokens of the previous chunk end in the middle of a
+ * speculatively scanned token, e.g. because the chunk starts inside a block comment or string
+ * literal, the chunk is scanned again from the true token boundary until a token starts at the
+ * same offset in both scans. From there on, the speculative tokens are correct.
+ *
+ * <p>Identifiers are interned into a separate {@link SymbolTable} per chunk. After stitching, the
+ * distinct identifiers of each chunk are merged into the table of the result once, in the order of
+ * their first occurrence, and the symbol numbers of the tokens are rewritten in parallel by a
+ * lookup in the chunk's remap array. So the numbers are the same as for a sequential scan.
+ */
+public final class ParallelScanner {
+
+  /** Chunks are at least this large, so that small inputs are scanned sequentially. */
+  static final int MIN_CHUNK_SIZE = 1 << 20;
+
+  private final CharSequence source;
+
+  private final int minChunkSize;
+
+  private final SymbolTable symbols = new SymbolTable();
+
+  /**
+   * Constructor.
+   *
+   * @param path The input program to tokenize.
+   * @throws IOException in case an error occurs while accessing the given file.
+   */
+  public ParallelScanner(Path path) throws IOException {
+    this(Scanner.read(path));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param source The input program to tokenize.
+   */
+  public ParallelScanner(CharSequence source) {
+    this(source, MIN_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param source The input program to tokenize.
+   * @param minChunkSize The minimal number of characters per chunk.
+   */
+  public ParallelScanner(CharSequence source, int minChunkSize) {
+    this.source = source;
+    this.minChunkSize = minChunkSize;
+  }
+
+  /** @return The table of all identifiers scanned so far. */
+  public SymbolTable getSymbols() {
+    return symbols;
+  }
+
+  /**
+   * Scans the input program on the common fork-join pool.
+   *
+   * @return A buffer containing the tokenized representation of the input program.
+   */
+  public PackedTokenBuffer scan() {
+    return scan(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Scans the input program.
+   *
+   * @param pool The pool to run the chunk scanners on.
+   * @return A buffer containing the tokenized representation of the input program.
+   */
+  public PackedTokenBuffer scan(ForkJoinPool pool) {
+    int[] bounds = split(pool.getParallelism());
+    int chunks = bounds.length - 1;
+
+    int[][] newlines = new int[chunks][];
+    runAll(pool, chunks, k -> newlines[k] = findNewlines(bounds[k], bounds[k + 1]));
+    SourcePositions positions = new SourcePositions(source.length());
+    for (int[] offsets : newlines) positions.addAll(offsets, offsets.length);
+
+    PackedTokenBuffer[] tokens = new PackedTokenBuffer[chunks];
+    RuntimeException[] failures = new RuntimeException[chunks];
+    runAll(
+        pool,
+        chunks,
+        k -> {
+          Scanner scanner = new Scanner(source, bounds[k], positions);
+          tokens[k] = new PackedTokenBuffer(source, scanner.getSymbols(), positions);
+          try {
+            scanner.scanPacked(tokens[k], bounds[k + 1]);
+          } catch (RuntimeException e) {
+            // only an error if the tokens before it are the true ones
+            failures[k] = e;
+          }
+        });
+
+    return stitch(pool, bounds, positions, tokens, failures);
+  }
+
+  /**
+   * Joins the speculatively scanned chunks.
+   *
+   * @param pool The pool to renumber the identifiers on.
+   * @param bounds The start offsets of all chunks plus the end of the input.
+   * @param positions The index of the newlines of the input.
+   * @param tokens The tokens of every chunk, followed by the first token that starts after the
+   *     chunk unless scanning failed.
+   * @param failures The error that occurred while scanning each chunk, if any.
+   * @return The tokens of the whole input program.
+   */
+  private PackedTokenBuffer stitch(
+      ForkJoinPool pool,
+      int[] bounds,
+      SourcePositions positions,
+      PackedTokenBuffer[] tokens,
+      RuntimeException[] failures) {
+    PackedTokenBuffer result = new PackedTokenBuffer(source, symbols, positions);
+    List<Segment> segments = new ArrayList<>();
+    // the first true token not added to the result yet
+    PackedTokenBuffer next = null;
+    int nextIndex = 0;
+
+    for (int k = 0; k < tokens.length; k++) {
+      int end = bounds[k + 1];
+      PackedTokenBuffer chunk = tokens[k];
+      int sync = 0;
+      if (next != null) {
+        if (next.tokenStart(nextIndex) >= end) continue;
+        sync = indexOf(chunk, next, nextIndex);
+        if (sync < 0) {
+          // rescan from the true token boundary until the speculative scan agrees
+          Scanner scanner = new Scanner(source, next.tokenStart(nextIndex), positions);
+          PackedTokenBuffer rescan = new PackedTokenBuffer(source, scanner.getSymbols(), positions);
+          while (sync < 0) {
+            scanner.scanPacked(rescan, 0);
+            int last = rescan.size() - 1;
+            if (rescan.type(last) == EOF || rescan.tokenStart(last) >= end) break;
+            sync = indexOf(chunk, rescan, last);
+            if (sync < 0) addAll(result, segments, rescan, last, last + 1);
+          }
+          if (sync < 0) {
+            next = rescan;
+            nextIndex = rescan.size() - 1;
+            continue;
+          }
+        }
+      }
+      if (failures[k] != null) {
+        result.addAll(chunk, sync, chunk.size());
+        throw failures[k];
+      }
+      addAll(result, segments, chunk, sync, chunk.size() - 1);
+      next = chunk;
+      nextIndex = chunk.size() - 1;
+    }
+    addAll(result, segments, next, nextIndex, nextIndex + 1);
+    result.trim();
+
+    runAll(pool, segments.size(), k -> segments.get(k).collect(result));
+    for (Segment segment : segments) segment.merge(symbols);
+    runAll(pool, segments.size(), k -> segments.get(k).renumber(result));
+    return result;
+  }
+
+  /** Copies tokens to the result and remembers which symbol table their identifiers refer to. */
+  private static void addAll(
+      PackedTokenBuffer result,
+      List<Segment> segments,
+      PackedTokenBuffer tokens,
+      int from,
+      int to) {
+    int start = result.size();
+    result.addAll(tokens, from, to);
+    segments.add(new Segment(tokens.getSymbols(), start, result.size()));
+  }
+
+  /** A range of the result whose identifiers are numbered by the symbol table of a chunk. */
+  private static final class Segment {
+
+    private final SymbolTable symbols;
+
+    private final int start;
+
+    private final int end;
+
+    /** The symbols of the range in the order of their first occurrence. */
+    private int[] firstOccurrences;
+
+    private int distinct;
+
+    /** The number and total length of the occurrences after the first one of each symbol. */
+    private int repeated;
+
+    private long repeatedChars;
+
+    /** The symbol number in the table of the result for each symbol of the range. */
+    private int[] remap;
+
+    Segment(SymbolTable symbols, int start, int end) {
+      this.symbols = symbols;
+      this.start = start;
+      this.end = end;
+    }
+
+    /** Finds the distinct symbols of the range and counts their repeated occurrences. */
+    void collect(PackedTokenBuffer result) {
+      firstOccurrences = new int[symbols.size()];
+      remap = new int[symbols.size()];
+      Arrays.fill(remap, -1);
+      for (int i = start; i < end; i++) {
+        if (result.type(i) != ID) continue;
+        int symbol = result.symbol(i);
+        if (remap[symbol] < 0) {
+          remap[symbol] = 0;
+          firstOccurrences[distinct++] = symbol;
+        } else {
+          repeated++;
+          repeatedChars += result.length(i);
+        }
+      }
+    }
+
+    /** Interns the distinct symbols of the range into the given table. */
+    void merge(SymbolTable table) {
+      for (int i = 0; i < distinct; i++) {
+        int symbol = firstOccurrences[i];
+        remap[symbol] = table.intern(symbols.name(symbol));
+      }
+      table.countRepeated(repeated, repeatedChars);
+    }
+
+    /** Replaces the symbol numbers of the range by the ones in the table of the result. */
+    void renumber(PackedTokenBuffer result) {
+      for (int i = start; i < end; i++) {
+        if (result.type(i) == ID) result.setSymbol(i, remap[result.symbol(i)]);
+      }
+    }
+  }
+
+  /**
+   * @return The index of the token in the chunk that starts where the given token starts, or -1.
+   */
+  private static int indexOf(PackedTokenBuffer chunk, PackedTokenBuffer tokens, int index) {
+    return chunk.indexOf(tokens.start(index), tokens.type(index));
+  }
+
+  /** @return The chunk boundaries, each at the start of a line, plus the end of the input. */
+  private int[] split(int parallelism) {
+    int length = source.length();
+    int chunkSize = Math.max(minChunkSize, length / (parallelism * 4));
+    List<Integer> bounds = new ArrayList<>();
+    bounds.add(0);
+    for (int p = chunkSize; p < length; p += chunkSize) {
+      while (p < length && source.charAt(p - 1) != '\n') p++;
+      if (p < length) bounds.add(p);
+    }
+    bounds.add(length);
+    int[] result = new int[bounds.size()];
+    for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+    return result;
+  }
+
+  /** @return The offsets of the newlines in the given range of the input. */
+  private int[] findNewlines(int start, int end) {
+    int[] result = new int[64];
+    int count = 0;
+    for (int i = start; i < end; i++) {
+      if (source.charAt(i) == '\n') {
+        if (count == result.length) result = Arrays.copyOf(result, count * 2);
+        result[count++] = i;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  private static void runAll(ForkJoinPool pool, int count, IntConsumer action) {
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int k = i;
+      tasks.add(pool.submit(() -> action.accept(k)));
+    }
+    for (ForkJoinTask<?> task : tasks) task.join();
+  }
+}
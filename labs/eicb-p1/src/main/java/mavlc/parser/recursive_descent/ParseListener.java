@@ -0,0 +1,206 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import java.util.function.Consumer;
+import mavlc.ast.type.ScalarType;
+import mavlc.ast.type.Type;
+
+/**
+ * Receives the syntactic structure of a MAVL program from {@link Parser#parse(ParseListener)}
+ * while it is parsed, without building an AST. {@link ASTBuilder} builds the AST from these events.
+ *
+ * <p>Events arrive in source order. Operands are reported before the construct that uses them:
+ * the operands of an operator before {@link #onOperator}, the type of a declaration before the
+ * declaration, and the expressions and nested statements of a statement before the {@code exit}
+ * event that completes it. Every statement starts with {@link #enterStatement} and ends with
+ * exactly one of the other {@code exit} events. Positions are those of the corresponding AST nodes.
+ *
+ * <p>A parser that recovers from syntax errors abandons the constructs it cannot complete: {@link
+ * #abortStatement} and {@link #abortDeclaration} discard everything reported since the start of
+ * the innermost open statement or of the current declaration.
+ *
+ * <p>All methods do nothing by default, so that a listener only implements the events it needs.
+ */
+public interface ParseListener {
+
+  /** Operators whose operands are reported before them, in source order. */
+  enum Operator {
+    /** {@code c ? a : b}. */
+    SELECT(3),
+    OR(2),
+    AND(2),
+    NOT(1),
+    LESS(2),
+    GREATER(2),
+    LESS_EQUAL(2),
+    GREATER_EQUAL(2),
+    EQUAL(2),
+    NOT_EQUAL(2),
+    ADD(2),
+    SUB(2),
+    MUL(2),
+    DIV(2),
+    UNARY_MINUS(1),
+    EXP(2),
+    X_DIMENSION(1),
+    Y_DIMENSION(1),
+    DIMENSION(1),
+    DOT_PRODUCT(2),
+    MATRIX_MULTIPLICATION(2),
+    /** {@code v{start:base:end}}. */
+    SUB_VECTOR(4),
+    /** {@code m{start:base:end}{start:base:end}}. */
+    SUB_MATRIX(7),
+    /** {@code v[index]}. */
+    ELEMENT_SELECT(2);
+
+    /** The number of operands. */
+    public final int operands;
+
+    Operator(int operands) {
+      this.operands = operands;
+    }
+  }
+
+  /* Declarations */
+
+  default void enterModule(int line, int column) {}
+
+  default void exitModule() {}
+
+  /** Starts a function, after its return type. */
+  default void enterFunction(int line, int column, String name) {}
+
+  default void exitFunction() {}
+
+  /** A formal parameter, after its type. */
+  default void onFormalParameter(int line, int column, String name) {}
+
+  /**
+   * The body of the current function was skipped by a parser with lazy function bodies. Instead of
+   * the events of its statements, a parser of the body is reported, which reports them on demand.
+   *
+   * @param body Parser of the body, which reports the statements to the given listener.
+   */
+  default void onSkippedBody(Consumer<ParseListener> body) {}
+
+  default void enterRecord(int line, int column, String name) {}
+
+  default void exitRecord() {}
+
+  /** A record element, after its type. */
+  default void onRecordElement(int line, int column, boolean variable, String name) {}
+
+  /** The current declaration is abandoned after a syntax error, including all open statements. */
+  default void abortDeclaration() {}
+
+  /* Types */
+
+  /** A type without dimensions or name: int, float, bool, void or string. */
+  default void onType(Type type) {}
+
+  default void onRecordType(String name) {}
+
+  /** A vector type, after the expression of its dimension. */
+  default void onVectorType(ScalarType elementType) {}
+
+  /** A matrix type, after the expressions of its two dimensions. */
+  default void onMatrixType(ScalarType elementType) {}
+
+  /* Statements */
+
+  default void enterStatement(int line, int column) {}
+
+  /** The innermost open statement is abandoned after a syntax error. */
+  default void abortStatement() {}
+
+  /** After the type and the value. */
+  default void exitValueDefinition(String name) {}
+
+  /** After the type. */
+  default void exitVariableDeclaration(String name) {}
+
+  /** After the returned value. */
+  default void exitReturn() {}
+
+  /**
+   * After the indices of the assigned element and the value.
+   *
+   * @param name The assigned variable.
+   * @param indices The number of indices of a vector or matrix element.
+   * @param element The assigned record element, or null.
+   */
+  default void exitAssignment(String name, int indices, String element) {}
+
+  /** After the call. */
+  default void exitCallStatement() {}
+
+  /** After the initial value, the condition, the increment and the loop body. */
+  default void exitFor(String variable, String incrementedVariable) {}
+
+  /** The iterator of a foreach loop, after its type. */
+  default void onIteratorDeclaration(int line, int column, boolean variable, String name) {}
+
+  /** After the iterator, the iterated structure and the loop body. */
+  default void exitForEach() {}
+
+  /** After the condition, the statement and the optional else statement. */
+  default void exitIf() {}
+
+  /** After the tested value and the cases. */
+  default void exitSwitch() {}
+
+  /** A case of a switch statement, after the condition and the statement. */
+  default void onCase(int line, int column) {}
+
+  /** The default case of a switch statement, after the statement. */
+  default void onDefault(int line, int column) {}
+
+  /** After the statements. */
+  default void exitCompound() {}
+
+  /* Expressions */
+
+  default void onIntLiteral(int line, int column, int value) {}
+
+  default void onFloatLiteral(int line, int column, float value) {}
+
+  default void onBoolLiteral(int line, int column, boolean value) {}
+
+  default void onStringLiteral(int line, int column, String value) {}
+
+  /** A reference to a variable or value. */
+  default void onIdentifier(int line, int column, String name) {}
+
+  default void onOperator(Operator operator, int line, int column) {}
+
+  /** After the record. */
+  default void onRecordElementSelect(int line, int column, String element) {}
+
+  default void enterCall(int line, int column, String name) {}
+
+  /** After the actual parameters. */
+  default void exitCall() {}
+
+  /**
+   * Starts a structure initializer.
+   *
+   * @param line The line of the initializer.
+   * @param column The column of the initializer.
+   * @param recordName The initialized record type, or null for a vector or matrix.
+   */
+  default void enterStructureInit(int line, int column, String recordName) {}
+
+  /** After the elements. */
+  default void exitStructureInit() {}
+}
@@ -11,20 +11,17 @@
  */
 package mavlc.parser.recursive_descent;
 
-import static mavlc.ast.nodes.expression.Compare.Comparison.*;
 import static mavlc.parser.recursive_descent.Token.TokenType.*;
 
 import java.util.*;
-import mavlc.ast.nodes.expression.*;
-import mavlc.ast.nodes.expression.Compare.Comparison;
-import mavlc.ast.nodes.function.FormalParameter;
+import java.util.function.Supplier;
+import mavlc.ast.flat.FlatAst;
 import mavlc.ast.nodes.function.Function;
 import mavlc.ast.nodes.module.Module;
-import mavlc.ast.nodes.record.RecordElementDeclaration;
-import mavlc.ast.nodes.record.RecordTypeDeclaration;
-import mavlc.ast.nodes.statement.*;
 import mavlc.ast.type.*;
+import mavlc.error_reporting.NestingDepthError;
 import mavlc.error_reporting.SyntaxError;
+import mavlc.parser.recursive_descent.ParseListener.Operator;
 import mavlc.parser.recursive_descent.Token.TokenType;
 
 /* EiCB group number: 43
@@ -34,20 +31,143 @@ import mavlc.parser.recursive_descent.Token.TokenType;
  * - Patrick Elsen (2656300)
  */
 
-/** A recursive-descent parser for MAVL. */
+/**
+ * A recursive-descent parser for MAVL.
+ *
+ * <p>Nested expressions and statements are parsed recursively, so their nesting depth is limited by
+ * the stack of the parsing thread. Nesting deeper than the parser's limit is reported as a {@link
+ * NestingDepthError}, and so is running out of stack before, together with the depth that was
+ * reached. {@link #parseOnDedicatedThread()} parses on a thread whose stack is large enough for the
+ * limit.
+ *
+ * <p>The parser reports the program's structure to a {@link ParseListener}; {@link #parse()} builds
+ * the AST with an {@link ASTBuilder}.
+ *
+ * <p>{@link #parse(List)} recovers from syntax errors in panic mode: after an error in a statement
+ * of a block, the tokens up to the next {@code ;} or the {@code }} that closes the block are
+ * skipped, and after an error elsewhere in a declaration, the tokens up to the next {@code
+ * function} or {@code record} keyword. The statement or declaration in error is left out of the
+ * AST.
+ *
+ * <p>A parser can be reused for many small input programs with {@link #reset(TokenSource)}.
+ */
 public final class Parser {
 
-  private final Deque<Token> tokens;
+  /** The default limit of the nesting depth, which the default thread stack size supports. */
+  public static final int DEFAULT_MAX_DEPTH = 1000;
+
+  /** Stack size per nesting level reserved by {@link #parseOnDedicatedThread()}. */
+  static final long STACK_BYTES_PER_LEVEL = 1024;
+
+  private TokenSource tokens;
+  private PackedTokenBuffer lazyBodies;
+  private final int maxDepth;
+  private int depth;
+  /** The nesting depth at which the stack ran out, or zero. */
+  private int exhaustedDepth;
   private Token currentToken;
+  private ParseListener listener;
+
+  /** The syntax errors recovered from, or null if the parser stops at the first error. */
+  private List<SyntaxError> errors;
+  /** The number of statements that were entered but not completed. */
+  private int openStatements;
+  private SyntaxError lastError;
+  private Token lastErrorToken;
+  /** The builder of {@link #parse()}, which is kept to reuse its buffers. */
+  private ASTBuilder builder;
+  /** The table to share literals and types of {@link #parse()} with, or null. */
+  private NodeInterner interner;
+
+  /**
+   * Constructor.
+   *
+   * @param tokens A token stream, e.g. a {@link Scanner} that tokenizes the input on demand.
+   */
+  public Parser(TokenSource tokens) {
+    this(tokens, DEFAULT_MAX_DEPTH);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param tokens A token stream, e.g. a {@link Scanner} that tokenizes the input on demand.
+   * @param maxDepth The maximal nesting depth of expressions and statements.
+   */
+  public Parser(TokenSource tokens, int maxDepth) {
+    this(tokens, maxDepth, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * <p>With lazy function bodies, the parser only skips over the body of each function by brace
+   * matching. The statements are parsed when {@link Function#getFunctionBody()} is called first, so
+   * syntax errors inside a body are only reported then. The token buffer must not be edited while
+   * bodies are pending.
+   *
+   * @param tokens The tokens of the input program.
+   * @param maxDepth The maximal nesting depth of expressions and statements.
+   * @param lazyBodies Whether function bodies are parsed on demand.
+   */
+  public Parser(PackedTokenBuffer tokens, int maxDepth, boolean lazyBodies) {
+    this(tokens.cursor(0), maxDepth, lazyBodies ? tokens : null);
+  }
+
+  private Parser(TokenSource tokens, int maxDepth, PackedTokenBuffer lazyBodies) {
+    if (maxDepth < 1) throw new IllegalArgumentException("maximal depth " + maxDepth);
+    this.tokens = tokens;
+    this.lazyBodies = lazyBodies;
+    this.maxDepth = maxDepth;
+    currentToken = tokens.next();
+  }
 
   /**
    * Constructor.
    *
-   * @param tokens A token stream that was produced by the {@link Scanner}.
+   * @param tokens A token queue that was produced by {@link Scanner#scan()}.
    */
   public Parser(Deque<Token> tokens) {
+    this(new DequeTokenSource(tokens));
+  }
+
+  /**
+   * Restarts the parser on another token stream, e.g. a {@link Scanner} after {@link
+   * Scanner#reset}, reusing its buffers. The maximal nesting depth is kept; function bodies are
+   * parsed eagerly.
+   *
+   * @param tokens A token stream.
+   */
+  public void reset(TokenSource tokens) {
     this.tokens = tokens;
-    currentToken = tokens.poll();
+    lazyBodies = null;
+    depth = 0;
+    exhaustedDepth = 0;
+    listener = null;
+    errors = null;
+    openStatements = 0;
+    lastError = null;
+    lastErrorToken = null;
+    currentToken = tokens.next();
+  }
+
+  /**
+   * Makes the parser share equal literals and types among the ASTs it builds, see {@link
+   * NodeInterner}. The table is kept by {@link #reset(TokenSource)}, so that it can deduplicate
+   * across input programs.
+   *
+   * @param interner The table to share literals and types with, or null to share none.
+   */
+  public void setInterner(NodeInterner interner) {
+    this.interner = interner;
+  }
+
+  /** @return An empty builder for the AST. */
+  private ASTBuilder builder() {
+    if (builder == null) builder = new ASTBuilder();
+    else builder.reset();
+    builder.setInterner(interner);
+    return builder;
   }
 
   /**
@@ -58,94 +178,361 @@ public final class Parser {
    * @throws SyntaxError to indicate that an unexpected token was encountered.
    */
   public Module parse() throws SyntaxError {
-    Module compilationUnit = new Module(tokens.peek().line, 0);
+    ASTBuilder builder = builder();
+    parse(builder);
+    return builder.getModule();
+  }
+
+  /**
+   * Parses the MAVL grammar's start symbol, Module, into a {@link FlatAst}.
+   *
+   * @return The flat AST representing the tokenized input program, whose root is the module.
+   * @throws SyntaxError to indicate that an unexpected token was encountered.
+   */
+  public FlatAst parseFlat() throws SyntaxError {
+    FlatAstBuilder builder = new FlatAstBuilder();
+    parse(builder);
+    return builder.getAst();
+  }
+
+  /**
+   * Parses the MAVL grammar's start symbol, Module, and reports its structure without building an
+   * AST.
+   *
+   * @param listener The listener to report to.
+   * @throws SyntaxError to indicate that an unexpected token was encountered.
+   */
+  public void parse(ParseListener listener) throws SyntaxError {
+    this.listener = listener;
+    try {
+      parseModule();
+    } catch (StackOverflowError e) {
+      throw stackExhausted();
+    }
+  }
+
+  /**
+   * Parses the MAVL grammar's start symbol, Module, and recovers from syntax errors to report all
+   * of them. Function bodies are parsed even if the parser was created with lazy function bodies.
+   *
+   * @param errors The list to add the syntax errors to, in source order.
+   * @return A {@link Module} node that is the root of the AST of the declarations without errors.
+   */
+  public Module parse(List<SyntaxError> errors) {
+    this.errors = errors;
+    ASTBuilder builder = builder();
+    try {
+      parse(builder);
+    } catch (NestingDepthError e) {
+      // the stack ran out, so the parser state is lost
+      report(e);
+    }
+    return builder.getModule();
+  }
+
+  /**
+   * Parses the MAVL grammar's start symbol, Module, on a new thread whose stack is large enough for
+   * the maximal nesting depth.
+   *
+   * @return A {@link Module} node that is the root of the AST representing the tokenized input
+   *     progam.
+   * @throws SyntaxError to indicate that an unexpected token was encountered.
+   */
+  public Module parseOnDedicatedThread() throws SyntaxError {
+    return onDedicatedThread(this::parse);
+  }
+
+  /**
+   * Parses the MAVL grammar's start symbol, Module, on a new thread whose stack is large enough for
+   * the maximal nesting depth, and recovers from syntax errors to report all of them.
+   *
+   * @param errors The list to add the syntax errors to, in source order.
+   * @return A {@link Module} node that is the root of the AST of the declarations without errors.
+   * @see #parse(List)
+   */
+  public Module parseOnDedicatedThread(List<SyntaxError> errors) {
+    return onDedicatedThread(() -> parse(errors));
+  }
+
+  /**
+   * Runs a parsing task on a new thread whose stack is large enough for the maximal nesting depth.
+   *
+   * @param task The parsing task.
+   * @return The task's result.
+   */
+  <T> T onDedicatedThread(Supplier<T> task) {
+    List<T> result = new ArrayList<>(1);
+    Throwable[] failure = new Throwable[1];
+    Thread thread =
+        new Thread(
+            null,
+            () -> {
+              try {
+                result.add(task.get());
+              } catch (Throwable t) {
+                failure[0] = t;
+              }
+            },
+            "mavlc-parser",
+            (maxDepth + 64) * STACK_BYTES_PER_LEVEL);
+    thread.start();
+    boolean interrupted = false;
+    while (true) {
+      try {
+        thread.join();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) Thread.currentThread().interrupt();
+    if (failure[0] instanceof RuntimeException) throw (RuntimeException) failure[0];
+    if (failure[0] instanceof Error) throw (Error) failure[0];
+    return result.get(0);
+  }
+
+  private void parseModule() throws SyntaxError {
+    listener.enterModule(tokens.peek(0).getLine(), 0);
     while (currentToken.type != EOF) {
-      switch (currentToken.type) {
-        case FUNCTION:
-          Function func = parseFunction();
-          compilationUnit.addFunction(func);
-          break;
-        case RECORD:
-          RecordTypeDeclaration record = parseRecordTypeDeclaration();
-          compilationUnit.addRecord(record);
-          break;
-        default:
-          throw new SyntaxError(currentToken, FUNCTION, RECORD);
+      if (errors == null) {
+        parseDeclaration();
+        continue;
       }
+      try {
+        parseDeclaration();
+      } catch (SyntaxError e) {
+        report(e);
+        listener.abortDeclaration();
+        openStatements = 0;
+        while (currentToken.type != FUNCTION
+            && currentToken.type != RECORD
+            && currentToken.type != EOF) {
+          skip();
+        }
+      }
+    }
+    listener.exitModule();
+  }
+
+  /**
+   * Parses top-level declarations up to a given token, for {@link ParallelParser}.
+   *
+   * @param listener The listener to report to.
+   * @param endOffset Offset of the token at which parsing stops.
+   * @throws SyntaxError to indicate that an unexpected token was encountered.
+   */
+  void parseDeclarations(ParseListener listener, int endOffset) throws SyntaxError {
+    this.listener = listener;
+    try {
+      while (currentToken.type != EOF && currentToken.getOffset() != endOffset) parseDeclaration();
+    } catch (StackOverflowError e) {
+      throw stackExhausted();
+    }
+  }
+
+  private void parseDeclaration() throws SyntaxError {
+    switch (currentToken.type) {
+      case FUNCTION:
+        parseFunction();
+        break;
+      case RECORD:
+        parseRecordTypeDeclaration();
+        break;
+      default:
+        throw new SyntaxError(currentToken, FUNCTION, RECORD);
     }
-    return compilationUnit;
   }
 
   private String accept(TokenType type) throws SyntaxError {
+    return acceptToken(type).getSpelling();
+  }
+
+  /** Enters a nested expression or statement; {@link #depth} must be decremented on leaving it. */
+  private void enter() throws SyntaxError {
+    if (++depth > maxDepth) {
+      depth--;
+      throw new NestingDepthError(currentToken, maxDepth);
+    }
+  }
+
+  /**
+   * Reports that the stack ran out below the maximal nesting depth, at the depth of the innermost
+   * expression or statement that caught the {@link StackOverflowError}.
+   */
+  private NestingDepthError stackExhausted() {
+    int reached = exhaustedDepth;
+    exhaustedDepth = 0;
+    return new NestingDepthError(currentToken, maxDepth, reached);
+  }
+
+  private Token acceptToken(TokenType type) throws SyntaxError {
     Token t = currentToken;
     if (t.type != type) throw new SyntaxError(t, type);
     acceptIt();
-    return t.spelling;
+    return t;
   }
 
   private void acceptIt() {
-    currentToken = tokens.poll();
+    currentToken = tokens.next();
     if (currentToken.type == ERROR) throw new SyntaxError(currentToken);
   }
 
-  private Function parseFunction() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
+  private void parseFunction() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
 
     accept(FUNCTION);
-    Type type = parseType();
+    parseType();
     String name = accept(ID);
 
-    Function function = new Function(line, column, name, type);
+    listener.enterFunction(line, column, name);
 
     accept(LPAREN);
     if (currentToken.type != RPAREN) {
-      function.addParameter(parseFormalParameter());
+      parseFormalParameter();
       while (currentToken.type != RPAREN) {
         accept(COMMA);
-        function.addParameter(parseFormalParameter());
+        parseFormalParameter();
       }
     }
     accept(RPAREN);
 
+    if (lazyBodies != null && errors == null && currentToken.type == LBRACE) {
+      int bodyStart = ((PackedTokenBuffer.Cursor) tokens).skipBlock();
+      if (bodyStart >= 0) {
+        acceptIt();
+        PackedTokenBuffer buffer = lazyBodies;
+        int limit = maxDepth;
+        listener.onSkippedBody(l -> new Parser(buffer.cursor(bodyStart), limit).parseBody(l));
+        accept(RBRACE);
+        listener.exitFunction();
+        return;
+      }
+    }
+
     accept(LBRACE);
-    while (currentToken.type != RBRACE) function.addStatement(parseStatement());
+    parseStatements();
     accept(RBRACE);
 
-    return function;
+    listener.exitFunction();
+  }
+
+  /** Parses the statements of a function body whose left brace has been skipped. */
+  private void parseBody(ParseListener listener) throws SyntaxError {
+    this.listener = listener;
+    try {
+      parseStatements();
+    } catch (StackOverflowError e) {
+      throw stackExhausted();
+    }
+  }
+
+  /**
+   * Parses the statements of a block up to its right brace. When recovering from errors, a
+   * statement in error is skipped up to the next semicolon or up to the end of the block.
+   */
+  private void parseStatements() throws SyntaxError {
+    while (currentToken.type != RBRACE) {
+      if (errors == null) {
+        parseStatement();
+        continue;
+      }
+      int open = openStatements;
+      try {
+        parseStatement();
+      } catch (SyntaxError e) {
+        report(e);
+        for (; openStatements > open; openStatements--) listener.abortStatement();
+        synchronize(e);
+      }
+    }
+  }
+
+  /**
+   * Skips the tokens up to and including the next semicolon or the end of the next block, or up to
+   * the right brace that closes the current block. Semicolons inside of blocks are skipped.
+   *
+   * @param e The error to recover from, which is thrown again if the current declaration ends
+   *     first.
+   */
+  private void synchronize(SyntaxError e) throws SyntaxError {
+    int braces = 0;
+    while (true) {
+      switch (currentToken.type) {
+        case SEMICOLON:
+          if (braces == 0) {
+            skip();
+            return;
+          }
+          break;
+        case LBRACE:
+          braces++;
+          break;
+        case RBRACE:
+          if (braces == 0) return;
+          if (--braces == 0) {
+            // a skipped block ends the statement, unless a semicolon follows
+            skip();
+            if (currentToken.type == SEMICOLON) skip();
+            return;
+          }
+          break;
+        case FUNCTION:
+        case RECORD:
+        case EOF:
+          throw e;
+        default:
+          break;
+      }
+      skip();
+    }
+  }
+
+  /** Skips the current token while recovering, reporting any erroneous token that follows. */
+  private void skip() {
+    currentToken = tokens.next();
+    if (currentToken.type == ERROR) report(new SyntaxError(currentToken));
+  }
+
+  /** Adds an error to the reported errors, unless it was reported before. */
+  private void report(SyntaxError e) {
+    if (e == lastError || currentToken == lastErrorToken) return;
+    errors.add(e);
+    lastError = e;
+    lastErrorToken = currentToken;
   }
 
-  private FormalParameter parseFormalParameter() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
+  private void parseFormalParameter() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
 
-    Type type = parseType();
+    parseType();
     String name = accept(ID);
 
-    return new FormalParameter(line, column, name, type);
+    listener.onFormalParameter(line, column, name);
   }
 
-  private RecordTypeDeclaration parseRecordTypeDeclaration() {
-    int line = currentToken.line;
-    int column = currentToken.column;
+  private void parseRecordTypeDeclaration() {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
 
     accept(RECORD);
     String name = accept(ID);
+    listener.enterRecord(line, column, name);
     accept(LBRACE);
-    List<RecordElementDeclaration> elements = new ArrayList<>();
     // no empty records allowed
-    elements.add(parseRecordElementDeclaration());
+    parseRecordElementDeclaration();
     while (currentToken.type != RBRACE) {
-      elements.add(parseRecordElementDeclaration());
+      parseRecordElementDeclaration();
     }
     accept(RBRACE);
 
-    return new RecordTypeDeclaration(line, column, name, elements);
+    listener.exitRecord();
   }
 
-  private RecordElementDeclaration parseRecordElementDeclaration() {
-    int line = currentToken.line;
-    int column = currentToken.column;
+  private void parseRecordElementDeclaration() {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
 
     boolean isVariable;
     switch (currentToken.type) {
@@ -161,16 +548,16 @@ public final class Parser {
         throw new SyntaxError(currentToken, VAL, VAR);
     }
 
-    Type type = parseType();
+    parseType();
     String name = accept(ID);
     accept(SEMICOLON);
 
-    return new RecordElementDeclaration(line, column, isVariable, type, name);
+    listener.onRecordElement(line, column, isVariable, name);
   }
 
-  private IteratorDeclaration parseIteratorDeclaration() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
+  private void parseIteratorDeclaration() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
 
     boolean isVariable;
     switch (currentToken.type) {
@@ -185,29 +572,34 @@ public final class Parser {
       default:
         throw new SyntaxError(currentToken, VAL, VAR);
     }
-    Type type = parseType();
+    parseType();
     String name = accept(ID);
-    return new IteratorDeclaration(line, column, name, type, isVariable);
+    listener.onIteratorDeclaration(line, column, isVariable, name);
   }
 
-  private Type parseType() throws SyntaxError {
+  private void parseType() throws SyntaxError {
     boolean vector = false;
     switch (currentToken.type) {
       case INT:
         acceptIt();
-        return Type.getIntType();
+        listener.onType(Type.getIntType());
+        return;
       case FLOAT:
         acceptIt();
-        return Type.getFloatType();
+        listener.onType(Type.getFloatType());
+        return;
       case BOOL:
         acceptIt();
-        return Type.getBoolType();
+        listener.onType(Type.getBoolType());
+        return;
       case VOID:
         acceptIt();
-        return Type.getVoidType();
+        listener.onType(Type.getVoidType());
+        return;
       case STRING:
         acceptIt();
-        return Type.getStringType();
+        listener.onType(Type.getStringType());
+        return;
       case VECTOR:
         accept(VECTOR);
         vector = true;
@@ -217,7 +609,8 @@ public final class Parser {
         break;
       case ID:
         String name = accept(ID);
-        return new RecordType(name);
+        listener.onRecordType(name);
+        return;
       default:
         throw new SyntaxError(currentToken, INT, FLOAT, BOOL, VOID, STRING, VECTOR, MATRIX, ID);
     }
@@ -237,53 +630,65 @@ public final class Parser {
     acceptIt();
     accept(RANGLE);
     accept(LBRACKET);
-    Expression x = parseExpr();
+    parseExpr();
     accept(RBRACKET);
 
-    if (vector) return new VectorType(subtype, x);
+    if (vector) {
+      listener.onVectorType(subtype);
+      return;
+    }
 
     accept(LBRACKET);
-    Expression y = parseExpr();
+    parseExpr();
     accept(RBRACKET);
 
-    return new MatrixType(subtype, x, y);
+    listener.onMatrixType(subtype);
   }
 
-  private Statement parseStatement() throws SyntaxError {
-    Statement s = null;
-    switch (currentToken.type) {
-      case VAL:
-        s = parseValueDef();
-        break;
-      case VAR:
-        s = parseVarDecl();
-        break;
-      case RETURN:
-        s = parseReturn();
-        break;
-      case ID:
-        s = parseAssignOrCall();
-        break;
-      case FOR:
-        s = parseFor();
-        break;
-      case FOREACH:
-        s = parseForEach();
-        break;
-      case IF:
-        s = parseIf();
-        break;
-      case SWITCH:
-        s = parseSwitch();
-        break;
-      case LBRACE:
-        s = parseCompound();
-        break;
-      default:
-        throw new SyntaxError(currentToken, VAL, VAR, RETURN, ID, FOR, FOREACH, IF, SWITCH, LBRACE);
+  private void parseStatement() throws SyntaxError {
+    enter();
+    try {
+      listener.enterStatement(currentToken.getLine(), currentToken.getColumn());
+      openStatements++;
+      switch (currentToken.type) {
+        case VAL:
+          parseValueDef();
+          break;
+        case VAR:
+          parseVarDecl();
+          break;
+        case RETURN:
+          parseReturn();
+          break;
+        case ID:
+          parseAssignOrCall();
+          break;
+        case FOR:
+          parseFor();
+          break;
+        case FOREACH:
+          parseForEach();
+          break;
+        case IF:
+          parseIf();
+          break;
+        case SWITCH:
+          parseSwitch();
+          break;
+        case LBRACE:
+          parseCompound();
+          break;
+        default:
+          throw new SyntaxError(
+              currentToken, VAL, VAR, RETURN, ID, FOR, FOREACH, IF, SWITCH, LBRACE);
+      }
+      openStatements--;
+    } catch (StackOverflowError e) {
+      if (exhaustedDepth == 0) exhaustedDepth = depth;
+      throw e;
+    } finally {
+      depth--;
     }
-
-    return s;
   }
 
   /**
@@ -301,21 +706,17 @@ public final class Parser {
    * val float pi = 3.14;
    * </pre>
    *
-   * @return ValueDefinition
    * @throws SyntaxError, if a parsing error occurred.
    */
-  private ValueDefinition parseValueDef() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
+  private void parseValueDef() throws SyntaxError {
     accept(VAL);
-    Type type = parseType();
+    parseType();
     String name = accept(ID);
     accept(ASSIGN);
-    Expression expression = parseExpr();
+    parseExpr();
     accept(SEMICOLON);
 
-    return new ValueDefinition(line, column, type, name, expression);
+    listener.exitValueDefinition(name);
   }
 
   /**
@@ -333,43 +734,38 @@ public final class Parser {
    * var int count;
    * </pre>
    *
-   * @return VariableDeclaration
    * @throws SyntaxError
    */
-  private VariableDeclaration parseVarDecl() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
+  private void parseVarDecl() throws SyntaxError {
     accept(VAR);
-    Type type = parseType();
+    parseType();
     String name = accept(ID);
     accept(SEMICOLON);
 
-    return new VariableDeclaration(line, column, type, name);
+    listener.exitVariableDeclaration(name);
   }
 
-  private ReturnStatement parseReturn() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
+  private void parseReturn() throws SyntaxError {
     accept(RETURN);
-    Expression e = parseExpr();
+    parseExpr();
     accept(SEMICOLON);
 
-    return new ReturnStatement(line, column, e);
+    listener.exitReturn();
   }
 
-  private Statement parseAssignOrCall() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
+  private void parseAssignOrCall() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
 
     String name = accept(ID);
 
-    Statement s;
-    if (currentToken.type != LPAREN) s = parseAssign(name, line, column);
-    else s = new CallStatement(line, column, parseCall(name, line, column));
-    accept(SEMICOLON);
-
-    return s;
+    if (currentToken.type != LPAREN) {
+      parseAssign(name);
+    } else {
+      parseCall(name, line, column);
+      accept(SEMICOLON);
+      listener.exitCallStatement();
+    }
   }
 
   /**
@@ -387,140 +783,121 @@ public final class Parser {
    * my_vector[5] = 9;
    * </pre>
    *
-   * This pases the right part of this, everything after the `ID` except the semicolon.
+   * This pases the right part of this, everything after the `ID`.
    *
    * @see parseAssignOrCall()
    * @param name: Name of the variable that is assigned.
-   * @param line: Line on which the variable is specified.
-   * @param column: Column in which the variable is specified.
-   * @return VariableAssignment
    * @throws SyntaxError
    */
-  private VariableAssignment parseAssign(String name, int line, int column) throws SyntaxError {
-    LeftHandIdentifier lhs;
+  private void parseAssign(String name) throws SyntaxError {
+    int indices = 0;
+    String element = null;
 
     switch (currentToken.type) {
       case LBRACKET:
         // my_vector[1] = 5
         acceptIt();
-        Expression x = parseExpr();
+        parseExpr();
         accept(RBRACKET);
+        indices = 1;
         if (currentToken.type == LBRACKET) {
           // my_matrix[1][3] = 9
           acceptIt();
-          lhs = new MatrixLHSIdentifier(line, column, name, x, parseExpr());
+          parseExpr();
           accept(RBRACKET);
-        } else {
-          lhs = new VectorLHSIdentifier(line, column, name, x);
+          indices = 2;
         }
         break;
       case AT:
         // my_struct@number = 5
         acceptIt();
-        lhs = new RecordLHSIdentifier(line, column, name, accept(ID));
+        element = accept(ID);
         break;
       default:
         // my_variable = 9
-        lhs = new LeftHandIdentifier(line, column, name);
         break;
     }
 
     accept(ASSIGN);
-    Expression expr = parseExpr();
+    parseExpr();
+    accept(SEMICOLON);
 
-    return new VariableAssignment(line, column, lhs, expr);
+    listener.exitAssignment(name, indices, element);
   }
 
-  private CallExpression parseCall(String name, int line, int column) {
-    CallExpression callExpression = new CallExpression(line, column, name);
+  private void parseCall(String name, int line, int column) {
+    listener.enterCall(line, column, name);
     accept(LPAREN);
     if (currentToken.type != RPAREN) {
-      callExpression.addActualParameter(parseExpr());
+      parseExpr();
       while (currentToken.type != RPAREN) {
         accept(COMMA);
-        callExpression.addActualParameter(parseExpr());
+        parseExpr();
       }
     }
     accept(RPAREN);
 
-    return callExpression;
+    listener.exitCall();
   }
 
-  private ForLoop parseFor() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
+  private void parseFor() throws SyntaxError {
     accept(FOR);
     accept(LPAREN);
     String name = accept(ID);
     accept(ASSIGN);
-    Expression a = parseExpr();
+    parseExpr();
     accept(SEMICOLON);
-    Expression b = parseExpr();
+    parseExpr();
     accept(SEMICOLON);
     String inc = accept(ID);
     accept(ASSIGN);
-    Expression c = parseExpr();
+    parseExpr();
     accept(RPAREN);
-    return new ForLoop(line, column, name, a, b, inc, c, parseStatement());
+    parseStatement();
+    listener.exitFor(name, inc);
   }
 
-  private ForEachLoop parseForEach() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
+  private void parseForEach() throws SyntaxError {
     accept(FOREACH);
     accept(LPAREN);
-    IteratorDeclaration param = parseIteratorDeclaration();
+    parseIteratorDeclaration();
     accept(COLON);
-    Expression struct = parseExpr();
+    parseExpr();
     accept(RPAREN);
-    return new ForEachLoop(line, column, param, struct, parseStatement());
+    parseStatement();
+    listener.exitForEach();
   }
 
   /**
    * Parses an if statement.
    *
-   * @return IfStatement
    * @throws SyntaxError
    */
-  private IfStatement parseIf() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
+  private void parseIf() throws SyntaxError {
     accept(IF);
     accept(LPAREN);
-    Expression expr = parseExpr();
+    parseExpr();
     accept(RPAREN);
-    Statement ifStatement = parseStatement();
+    parseStatement();
 
-    // if there is no else statement, we're done here.
-    if (currentToken.type != ELSE) {
-      return new IfStatement(line, column, expr, ifStatement);
+    // parse else statement, if there is one
+    if (currentToken.type == ELSE) {
+      acceptIt();
+      parseStatement();
     }
-
-    // parse else statement
-    acceptIt();
-    Statement elseStatement = parseStatement();
-    return new IfStatement(line, column, expr, ifStatement, elseStatement);
+    listener.exitIf();
   }
 
   /**
    * Parses a switch statement for switch-case.
    *
-   * @return SwitchStatement
    * @throws SyntaxError
    */
-  private SwitchStatement parseSwitch() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    SwitchStatement switchStatement = new SwitchStatement(line, column);
-
+  private void parseSwitch() throws SyntaxError {
     // parse test expression
     accept(SWITCH);
     accept(LPAREN);
-    switchStatement.setTestExpression(parseExpr());
+    parseExpr();
     accept(RPAREN);
     accept(LBRACE);
 
@@ -528,482 +905,337 @@ public final class Parser {
     while (currentToken.type != RBRACE) {
       switch (currentToken.type) {
         case CASE:
-          switchStatement.addCase(parseCase());
+          parseCase();
           break;
         case DEFAULT:
-          switchStatement.addDefault(parseDefault());
+          parseDefault();
           break;
+        default:
+          throw new SyntaxError(currentToken, CASE, DEFAULT, RBRACE);
       }
     }
 
     acceptIt();
-    return switchStatement;
+    listener.exitSwitch();
   }
 
   /**
    * Parses a case for switch-case.
    *
-   * @return Case
    * @throws SyntaxError
    */
-  private Case parseCase() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
+  private void parseCase() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
 
     accept(CASE);
-    Expression expression = parseExpr();
+    parseExpr();
     accept(COLON);
-    Statement statement = parseStatement();
+    parseStatement();
 
-    return new Case(line, column, expression, statement);
+    listener.onCase(line, column);
   }
 
   /**
    * Parses the default case for switch-case.
    *
-   * @return Default
    * @throws SyntaxError
    */
-  private Default parseDefault() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
+  private void parseDefault() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
 
     accept(DEFAULT);
     accept(COLON);
-    Statement statement = parseStatement();
+    parseStatement();
 
-    return new Default(line, column, statement);
+    listener.onDefault(line, column);
   }
 
   /**
    * Parses a compound statement.
    *
-   * @return CompoundStatement
    * @throws SyntaxError
    */
-  private CompoundStatement parseCompound() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-    CompoundStatement compoundStatement = new CompoundStatement(line, column);
+  private void parseCompound() throws SyntaxError {
     accept(LBRACE);
 
     // read statements
-    while (currentToken.type != RBRACE) {
-      compoundStatement.addStatement(parseStatement());
-    }
+    parseStatements();
 
     // accept right closing brace
     acceptIt();
-    return compoundStatement;
+    listener.exitCompound();
   }
 
-  private Expression parseExpr() throws SyntaxError {
-    return parseSelect();
-  }
-
-  private Expression parseSelect() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression cond = parseOr();
-    if (currentToken.type == QMARK) {
-      acceptIt();
-      Expression trueCase = parseOr();
-      accept(COLON);
-      Expression falseCase = parseOr();
-      return new SelectExpression(line, column, cond, trueCase, falseCase);
-    }
-    return cond;
+  /*
+   * Expressions are parsed by precedence climbing: parseExpr(level) parses an operand and then
+   * applies all following operators that bind at least as strongly as the given level. The levels
+   * below reproduce the original one-method-per-level grammar, from the loosest to the tightest:
+   *
+   *   select      or ('?' or ':' or)?                      at most once
+   *   or          and ('|' and)*
+   *   and         not ('&' not)*
+   *   not         '!' compare | compare                    prefix
+   *   compare     addSub (('<' | '>' | ...) addSub)*
+   *   addSub      mulDiv (('+' | '-') mulDiv)*
+   *   mulDiv      unaryMinus (('*' | '/') unaryMinus)*
+   *   unaryMinus  '-' exponentiation | exponentiation      prefix
+   *   exp         dim ('^' exp)?                           right-associative
+   *   dim         dotProd ('.dimension' | ...)?            postfix, at most once
+   *   dotProd     matrixMul ('.*' matrixMul)*
+   *   matrixMul   subrange ('#' subrange)*
+   *   subrange    elementSelect ('{' ... '}' ('{' ... '}')?)?  postfix, at most once
+   *   element     recordSelect ('[' expr ']')*             postfix
+   *   record      atom ('@' ID)?                           postfix, at most once
+   *
+   * Every node is positioned at the first token of the operand it was built from, just like the
+   * original grammar, which read the position when entering each level.
+   */
+  private static final int SELECT_LEVEL = 1;
+  private static final int OR_LEVEL = 2;
+  private static final int AND_LEVEL = 3;
+  private static final int NOT_LEVEL = 4;
+  private static final int COMPARE_LEVEL = 5;
+  private static final int ADD_SUB_LEVEL = 6;
+  private static final int MUL_DIV_LEVEL = 7;
+  private static final int UNARY_MINUS_LEVEL = 8;
+  private static final int EXP_LEVEL = 9;
+  private static final int DIM_LEVEL = 10;
+  private static final int DOT_PROD_LEVEL = 11;
+  private static final int MATRIX_MUL_LEVEL = 12;
+  private static final int SUBRANGE_LEVEL = 13;
+  private static final int ELEMENT_LEVEL = 14;
+  private static final int RECORD_LEVEL = 15;
+
+  /** Level of the infix or postfix operator starting with a token type, or 0 if there is none. */
+  private static final byte[] operatorLevels = new byte[TokenType.values().length];
+
+  /** Whether an operator of a level can directly follow another one of the same level. */
+  private static final boolean[] repeatable = new boolean[RECORD_LEVEL + 1];
+
+  static {
+    setLevel(SELECT_LEVEL, false, QMARK);
+    setLevel(OR_LEVEL, true, OR);
+    setLevel(AND_LEVEL, true, AND);
+    setLevel(COMPARE_LEVEL, true, RANGLE, LANGLE, CMPLE, CMPGE, CMPEQ, CMPNE);
+    setLevel(ADD_SUB_LEVEL, true, ADD, SUB);
+    setLevel(MUL_DIV_LEVEL, true, MULT, DIV);
+    setLevel(EXP_LEVEL, false, EXP);
+    setLevel(DIM_LEVEL, false, XDIM, YDIM, DIM);
+    setLevel(DOT_PROD_LEVEL, true, DOTPROD);
+    setLevel(MATRIX_MUL_LEVEL, true, MATMULT);
+    setLevel(SUBRANGE_LEVEL, false, LBRACE);
+    setLevel(ELEMENT_LEVEL, true, LBRACKET);
+    setLevel(RECORD_LEVEL, false, AT);
   }
 
-  private Expression parseOr() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression x = parseAnd();
-    while (currentToken.type == OR) {
-      acceptIt();
-      x = new Or(line, column, x, parseAnd());
-    }
-    return x;
+  /** The operators of the binary infix operators' token types. */
+  private static final Operator[] binaryOperators = new Operator[TokenType.values().length];
+
+  static {
+    binaryOperators[OR.ordinal()] = Operator.OR;
+    binaryOperators[AND.ordinal()] = Operator.AND;
+    binaryOperators[RANGLE.ordinal()] = Operator.GREATER;
+    binaryOperators[LANGLE.ordinal()] = Operator.LESS;
+    binaryOperators[CMPLE.ordinal()] = Operator.LESS_EQUAL;
+    binaryOperators[CMPGE.ordinal()] = Operator.GREATER_EQUAL;
+    binaryOperators[CMPEQ.ordinal()] = Operator.EQUAL;
+    binaryOperators[CMPNE.ordinal()] = Operator.NOT_EQUAL;
+    binaryOperators[ADD.ordinal()] = Operator.ADD;
+    binaryOperators[SUB.ordinal()] = Operator.SUB;
+    binaryOperators[MULT.ordinal()] = Operator.MUL;
+    binaryOperators[DIV.ordinal()] = Operator.DIV;
+    binaryOperators[DOTPROD.ordinal()] = Operator.DOT_PRODUCT;
+    binaryOperators[MATMULT.ordinal()] = Operator.MATRIX_MULTIPLICATION;
   }
 
-  private Expression parseAnd() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression x = parseNot();
-    while (currentToken.type == AND) {
-      acceptIt();
-      x = new And(line, column, x, parseNot());
-    }
-    return x;
+  private static void setLevel(int level, boolean repeat, TokenType... operators) {
+    for (TokenType operator : operators) operatorLevels[operator.ordinal()] = (byte) level;
+    repeatable[level] = repeat;
   }
 
-  private Expression parseNot() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    // create a negation if there is a NOT operator
-    if (currentToken.type == NOT) {
-      acceptIt();
-      return new BoolNot(line, column, parseCompare());
-    }
-
-    return parseCompare();
+  private void parseExpr() throws SyntaxError {
+    parseExpr(SELECT_LEVEL);
   }
 
   /**
-   * Parses a compare expression
-   *
-   * <p>Parses an expression of the form:
-   *
-   * <pre>
-   * addSub (( '&gt;' | '&lt;' | '&lt;=' | '&gt;=' | '==' | '!=' ) addSub)*
-   * </pre>
+   * Parses an expression whose operators bind at least as strongly as the given level.
    *
-   * <p>Example:
-   *
-   * <pre>
-   * 5 &lt; 3 == true
-   * </pre>
-   *
-   * @return Expression
+   * @param minLevel The lowest operator level to parse.
    * @throws SyntaxError
    */
-  private Expression parseCompare() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression expression = parseAddSub();
-    Comparison type;
-    out:
-    while (true) {
-      // find out what type of comparison this is.
-      switch (currentToken.type) {
-        case RANGLE:
-          type = GREATER;
-          break;
-        case LANGLE:
-          type = LESS;
-          break;
-        case CMPLE:
-          type = LESS_EQUAL;
-          break;
-        case CMPGE:
-          type = GREATER_EQUAL;
-          break;
-        case CMPEQ:
-          type = EQUAL;
-          break;
-        case CMPNE:
-          type = NOT_EQUAL;
-          break;
-          // well, shit, if this isn't a comparison at all we're done.
-        default:
-          break out;
-      }
-
-      // this is a comparison of `type`, so we update the expression.
-      acceptIt();
-      expression = new Compare(line, column, expression, parseAddSub(), type);
+  private void parseExpr(int minLevel) throws SyntaxError {
+    enter();
+    try {
+      parseOperand(minLevel);
+    } catch (StackOverflowError e) {
+      if (exhaustedDepth == 0) exhaustedDepth = depth;
+      throw e;
+    } finally {
+      depth--;
     }
-
-    return expression;
   }
 
-  /**
-   * Parses an addition / subtraction expression.
-   *
-   * <p>Addition and subtraction expressions have the form:
-   *
-   * <pre>
-   * mulDiv (('+' | '-') mulDiv)*
-   * </pre>
-   *
-   * Ein Beispiel für einen solchen Ausdruck ist
-   *
-   * <pre>
-   * 2 + 18 - 5;
-   * </pre>
-   *
-   * @return Expression
-   * @throws SyntaxError
-   */
-  private Expression parseAddSub() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-    Expression expression = parseMulDiv();
-
-    out:
-    while (true) {
-      switch (currentToken.type) {
-        case ADD:
-          acceptIt();
-          expression = new Addition(line, column, expression, parseMulDiv());
-          break;
-        case SUB:
-          acceptIt();
-          expression = new Subtraction(line, column, expression, parseMulDiv());
-          break;
-        default:
-          break out;
-      }
+  private void parseOperand(int minLevel) throws SyntaxError {
+    Token start = currentToken;
+    int maxLevel;
+    if (start.type == NOT && minLevel <= NOT_LEVEL) {
+      acceptIt();
+      parseExpr(COMPARE_LEVEL);
+      listener.onOperator(Operator.NOT, start.getLine(), start.getColumn());
+      maxLevel = NOT_LEVEL - 1;
+    } else if (start.type == SUB && minLevel <= UNARY_MINUS_LEVEL) {
+      acceptIt();
+      parseExpr(EXP_LEVEL);
+      listener.onOperator(Operator.UNARY_MINUS, start.getLine(), start.getColumn());
+      maxLevel = UNARY_MINUS_LEVEL - 1;
+    } else {
+      parseAtom();
+      maxLevel = RECORD_LEVEL;
     }
 
-    return expression;
-  }
-
-  /**
-   * Parses a multiplication / division expression.
-   *
-   * <p>These expressions have the form:
-   *
-   * <pre>
-   * unaryMinus (('*' | '/') unaryMinus)*
-   * </pre>
-   *
-   * An example of such an expression is
-   *
-   * <pre>
-   * 5 * 9 / 2
-   * </pre>
-   *
-   * @return Expression
-   * @throws SyntaxError
-   */
-  private Expression parseMulDiv() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-    Expression expression = parseUnaryMinus();
-
-    out:
     while (true) {
-      switch (currentToken.type) {
-        case MULT:
-          acceptIt();
-          expression = new Multiplication(line, column, expression, parseUnaryMinus());
-          break;
-        case DIV:
-          acceptIt();
-          expression = new Division(line, column, expression, parseUnaryMinus());
-          break;
-        default:
-          break out;
-      }
+      int level = operatorLevels[currentToken.type.ordinal()];
+      if (level < minLevel || level > maxLevel) return;
+      parseOperation(start, level);
+      maxLevel = repeatable[level] ? level : level - 1;
     }
-
-    return expression;
-  }
-
-  private Expression parseUnaryMinus() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    if (currentToken.type != SUB) {
-      return parseExponentiation();
-    }
-
-    acceptIt();
-    return new UnaryMinus(line, column, parseExponentiation());
   }
 
   /**
-   * Parses an exponentiation expression.
-   *
-   * <p>Exponentiation expressions have the form
+   * Parses an infix or postfix operator and its further operands.
    *
-   * <pre>
-   * dim ('^' dim)*
-   * </pre>
-   *
-   * An example of such an expression would be
-   *
-   * <pre>
-   * 2^4.5^9
-   * </pre>
-   *
-   * The important bit is that they are right-associative.
-   *
-   * @return Expression
+   * @param start The first token of the left operand.
+   * @param level The operator's level.
    * @throws SyntaxError
    */
-  private Expression parseExponentiation() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression dim = parseDim();
-
-    if (currentToken.type != EXP) {
-      return dim;
-    }
-
+  private void parseOperation(Token start, int level) throws SyntaxError {
+    TokenType operator = currentToken.type;
     acceptIt();
-    return new Exponentiation(line, column, dim, parseExponentiation());
-  }
 
-  private Expression parseDim() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression x = parseDotProd();
-    switch (currentToken.type) {
+    Operator op;
+    switch (operator) {
+      case QMARK:
+        parseExpr(OR_LEVEL);
+        accept(COLON);
+        parseExpr(OR_LEVEL);
+        op = Operator.SELECT;
+        break;
+      case EXP:
+        // right-associative
+        parseExpr(level);
+        op = Operator.EXP;
+        break;
       case XDIM:
-        acceptIt();
-        return new MatrixXDimension(line, column, x);
+        op = Operator.X_DIMENSION;
+        break;
       case YDIM:
-        acceptIt();
-        return new MatrixYDimension(line, column, x);
+        op = Operator.Y_DIMENSION;
+        break;
       case DIM:
-        acceptIt();
-        return new VectorDimension(line, column, x);
+        op = Operator.DIMENSION;
+        break;
+      case LBRACE:
+        op = parseSubrange();
+        break;
+      case LBRACKET:
+        parseExpr();
+        accept(RBRACKET);
+        op = Operator.ELEMENT_SELECT;
+        break;
+      case AT:
+        listener.onRecordElementSelect(start.getLine(), start.getColumn(), accept(ID));
+        return;
       default:
-        return x;
+        parseExpr(level + 1);
+        op = binaryOperators[operator.ordinal()];
     }
-  }
-
-  private Expression parseDotProd() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression x = parseMatrixMul();
-    while (currentToken.type == DOTPROD) {
-      acceptIt();
-      x = new DotProduct(line, column, x, parseMatrixMul());
-    }
-
-    return x;
-  }
-
-  private Expression parseMatrixMul() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression x = parseSubrange();
-    while (currentToken.type == MATMULT) {
-      acceptIt();
-      x = new MatrixMultiplication(line, column, x, parseSubrange());
-    }
-    return x;
+    listener.onOperator(op, start.getLine(), start.getColumn());
   }
 
   /**
-   * Parses a sub vector / sub matrix expression.
+   * Parses a sub vector / sub matrix expression after its first opening brace.
    *
-   * @return Expression
+   * @return The operator, {@link Operator#SUB_VECTOR} or {@link Operator#SUB_MATRIX}.
    * @throws SyntaxError
    */
-  private Expression parseSubrange() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression expression = parseElementSelect();
+  private Operator parseSubrange() throws SyntaxError {
+    parseExpr();
+    accept(COLON);
+    parseExpr();
+    accept(COLON);
+    parseExpr();
+    accept(RBRACE);
 
     if (currentToken.type == LBRACE) {
       acceptIt();
-      Expression start1 = parseExpr();
+      parseExpr();
       accept(COLON);
-      Expression base1 = parseExpr();
+      parseExpr();
       accept(COLON);
-      Expression end1 = parseExpr();
+      parseExpr();
       accept(RBRACE);
-
-      if (currentToken.type == LBRACE) {
-        acceptIt();
-        Expression start2 = parseExpr();
-        accept(COLON);
-        Expression base2 = parseExpr();
-        accept(COLON);
-        Expression end2 = parseExpr();
-        accept(RBRACE);
-        return new SubMatrix(line, column, expression, base1, start1, end1, base2, start2, end2);
-      } else {
-        return new SubVector(line, column, expression, base1, start1, end1);
-      }
-    }
-
-    return expression;
-  }
-
-  private Expression parseElementSelect() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression x = parseRecordElementSelect();
-
-    while (currentToken.type == LBRACKET) {
-      acceptIt();
-      Expression idx = parseExpr();
-      accept(RBRACKET);
-      x = new ElementSelect(line, column, x, idx);
+      return Operator.SUB_MATRIX;
+    } else {
+      return Operator.SUB_VECTOR;
     }
-
-    return x;
   }
 
-  private Expression parseRecordElementSelect() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
-
-    Expression x = parseAtom();
-
-    if (currentToken.type == AT) {
-      accept(AT);
-      String elementName = accept(ID);
-      x = new RecordElementSelect(line, column, x, elementName);
-    }
-
-    return x;
-  }
-
-  private Expression parseAtom() throws SyntaxError {
-    int line = currentToken.line;
-    int column = currentToken.column;
+  private void parseAtom() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
 
     switch (currentToken.type) {
       case INTLIT:
-        return new IntValue(line, column, parseIntLit());
+        listener.onIntLiteral(line, column, parseIntLit());
+        return;
       case FLOATLIT:
-        return new FloatValue(line, column, parseFloatLit());
+        listener.onFloatLiteral(line, column, parseFloatLit());
+        return;
       case BOOLLIT:
-        return new BoolValue(line, column, parseBoolLit());
+        listener.onBoolLiteral(line, column, parseBoolLit());
+        return;
       case STRINGLIT:
-        return new StringValue(line, column, accept(STRINGLIT));
+        listener.onStringLiteral(line, column, accept(STRINGLIT));
+        return;
       default: /* check other cases below */
     }
 
     if (currentToken.type == ID) {
       String name = accept(ID);
       if (currentToken.type != LPAREN) {
-        return new IdentifierReference(line, column, name);
+        listener.onIdentifier(line, column, name);
 
       } else {
-        return parseCall(name, line, column);
+        parseCall(name, line, column);
       }
+      return;
     }
 
     if (currentToken.type == LPAREN) {
       acceptIt();
-      Expression x = parseExpr();
+      parseExpr();
       accept(RPAREN);
-      return x;
+      return;
     }
 
-    StructureInit s = new StructureInit(line, column);
+    String recordName = null;
     if (currentToken.type == AT) {
       acceptIt();
-      String name = accept(ID);
-      s = new RecordInit(line, column, name);
+      recordName = accept(ID);
     }
     if (currentToken.type == LBRACKET) {
       acceptIt();
-      s.addElement(parseExpr());
+      listener.enterStructureInit(line, column, recordName);
+      parseExpr();
       while (currentToken.type == COMMA) {
         accept(COMMA);
-        s.addElement(parseExpr());
+        parseExpr();
       }
       accept(RBRACKET);
-      return s;
+      listener.exitStructureInit();
+      return;
     }
 
     throw new SyntaxError(
@@ -1011,12 +1243,11 @@ public final class Parser {
   }
 
   private int parseIntLit() throws SyntaxError {
-    String s = accept(INTLIT);
-    return Integer.parseInt(s);
+    return acceptToken(INTLIT).getIntValue();
   }
 
   private float parseFloatLit() throws SyntaxError {
-    return Float.parseFloat(accept(FLOATLIT));
+    return acceptToken(FLOATLIT).getFloatValue();
   }
 
   private boolean parseBoolLit() throws SyntaxError {
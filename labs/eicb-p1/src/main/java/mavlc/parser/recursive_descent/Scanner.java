@@ -14,26 +14,55 @@ package mavlc.parser.recursive_descent;
 import static mavlc.parser.recursive_descent.Token.TokenType.*;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
-import java.util.List;
 
-/** A simple scanner for MAVL. */
-public final class Scanner {
+/**
+ * A simple scanner for MAVL. Tokens are produced on demand, so a {@link Parser} reading from the
+ * scanner only ever holds the tokens of its lookahead in memory.
+ *
+ * <p>The scanner only tracks offsets. It records the offsets of the newlines it passes in a {@link
+ * SourcePositions} index, from which the line and column of a token are resolved when they are
+ * requested.
+ *
+ * <p>Indentation, comments and string literals are skipped with bulk searches for the character
+ * that ends them (see {@link CharSearch}). Setting the system property {@value #SCALAR_PROPERTY}
+ * to {@code true} disables this, so that every character is stepped through individually.
+ *
+ * <p>A scanner can be reused for many small input programs with {@link #reset(CharSequence)}, which
+ * keeps its symbol table, newline index and lookahead buffer.
+ */
+public final class Scanner implements TokenSource {
 
-  private int currentLine = 1, currentColumn = 0;
-  private int lastLine = 1, lastColumn = 0;
-  private int currentChar;
-  private StringBuilder currentSpelling;
-  private FileInputStream fileInputStream;
+  /** Files of at least this many bytes are memory-mapped instead of being read onto the heap. */
+  static final long MAPPING_THRESHOLD = 1 << 20;
 
-  private static final List<Token.TokenType> keywords =
-      Arrays.asList(
-          INT, FLOAT, BOOL, VOID, STRING, MATRIX, VECTOR, VAL, VAR, FOR, IF, ELSE, RETURN, FUNCTION,
-          SWITCH, CASE, DEFAULT, FOREACH, RECORD);
+  static final String SCALAR_PROPERTY = "mavlc.scanner.scalar";
+
+  private static final boolean BULK_SKIP = !Boolean.getBoolean(SCALAR_PROPERTY);
+
+  private int tokenStart;
+  private int currentChar;
+  private CharSequence source;
+  private int sourceLength;
+  private int position;
+  private final Token[] lookahead = new Token[MAX_LOOKAHEAD];
+  private int lookaheadStart, lookaheadCount;
+  private final SymbolTable symbols = new SymbolTable();
+  private final SourcePositions positions;
+  private final boolean recordNewlines;
+  /** Offset of the next newline that {@link #skipTo} has not passed yet, if not behind position. */
+  private int nextNewline = -1;
+  /** The decoded value of the last number literal, see {@link NumberLiterals#decode}. */
+  private long literalValue;
 
   /**
    * Constructor.
@@ -42,8 +71,112 @@ public final class Scanner {
    * @throws IOException in case an error occurs while accessing the given file.
    */
   public Scanner(File file) throws IOException {
-    fileInputStream = new FileInputStream(file);
-    currentChar = fileInputStream.read();
+    this(file.toPath());
+  }
+
+  /**
+   * Constructor. Small files are read into memory at once, files of at least {@link
+   * #MAPPING_THRESHOLD} bytes are memory-mapped.
+   *
+   * @param path The input program to tokenize.
+   * @throws IOException in case an error occurs while accessing the given file.
+   */
+  public Scanner(Path path) throws IOException {
+    this(read(path));
+  }
+
+  /**
+   * Constructor. Every byte between the buffer's position and limit is interpreted as one
+   * ISO-8859-1 character; the buffer itself is neither copied nor modified.
+   *
+   * @param buffer The input program to tokenize.
+   */
+  public Scanner(ByteBuffer buffer) {
+    this(new ByteCharSequence(buffer));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param source The input program to tokenize.
+   */
+  public Scanner(CharSequence source) {
+    this(source, 0, new SourcePositions(source.length()), true);
+  }
+
+  /**
+   * Constructor for a scanner starting in the middle of the input program.
+   *
+   * @param source The input program to tokenize.
+   * @param offset The offset at which scanning starts; must not be inside a token or comment.
+   * @param positions The index of all newlines of the input program.
+   */
+  Scanner(CharSequence source, int offset, SourcePositions positions) {
+    this(source, offset, positions, false);
+  }
+
+  private Scanner(
+      CharSequence source, int offset, SourcePositions positions, boolean recordNewlines) {
+    this.source = source;
+    sourceLength = source.length();
+    position = offset;
+    currentChar = offset < sourceLength ? source.charAt(offset) : -1;
+    this.positions = positions;
+    this.recordNewlines = recordNewlines;
+  }
+
+  /**
+   * Restarts the scanner on another input program, reusing its buffers as if it was newly
+   * constructed.
+   *
+   * <p>The symbol table and newline index are emptied, so tokens and token buffers obtained before
+   * must not be used anymore. The positions of tokens that were requested before the reset stay
+   * valid.
+   *
+   * @param source The input program to tokenize.
+   * @throws IllegalStateException if the scanner started in the middle of an input program.
+   */
+  public void reset(CharSequence source) {
+    if (!recordNewlines) throw new IllegalStateException("the newline index is not the scanner's");
+    this.source = source;
+    sourceLength = source.length();
+    position = 0;
+    tokenStart = 0;
+    currentChar = sourceLength > 0 ? source.charAt(0) : -1;
+    Arrays.fill(lookahead, null);
+    lookaheadStart = 0;
+    lookaheadCount = 0;
+    symbols.clear();
+    positions.reset(sourceLength);
+    nextNewline = -1;
+    literalValue = 0;
+  }
+
+  static CharSequence read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(
+            String.format("%s is too large to be scanned (%d bytes)", path, size));
+      }
+      if (size < MAPPING_THRESHOLD) {
+        return new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1);
+      }
+      return new ByteCharSequence(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  /** @return The table of all identifiers scanned so far. */
+  public SymbolTable getSymbols() {
+    return symbols;
+  }
+
+  /**
+   * @return The index of the newlines scanned so far, which covers the positions of all tokens
+   *     returned so far.
+   */
+  public SourcePositions getPositions() {
+    return positions;
   }
 
   /**
@@ -53,24 +186,121 @@ public final class Scanner {
    */
   public Deque<Token> scan() {
     ArrayDeque<Token> result = new ArrayDeque<>();
+    Token token;
+    do {
+      token = next();
+      result.add(token);
+    } while (token.type != EOF);
+    return result;
+  }
+
+  @Override
+  public Token next() {
+    if (lookaheadCount == 0) return scanNext();
+    Token token = lookahead[lookaheadStart];
+    lookahead[lookaheadStart] = null;
+    lookaheadStart = (lookaheadStart + 1) % MAX_LOOKAHEAD;
+    lookaheadCount--;
+    return token;
+  }
+
+  @Override
+  public Token peek(int k) {
+    if (k < 0 || k >= MAX_LOOKAHEAD) throw new IllegalArgumentException("lookahead " + k);
+    while (lookaheadCount <= k) {
+      lookahead[(lookaheadStart + lookaheadCount) % MAX_LOOKAHEAD] = scanNext();
+      lookaheadCount++;
+    }
+    return lookahead[(lookaheadStart + k) % MAX_LOOKAHEAD];
+  }
+
+  /**
+   * Scans the rest of the input program into a packed buffer.
+   *
+   * @return A buffer containing the tokenized representation of the (remaining) input program.
+   */
+  public PackedTokenBuffer scanPacked() {
+    if (lookaheadCount > 0) throw new IllegalStateException("tokens have already been peeked");
+    PackedTokenBuffer result = new PackedTokenBuffer(source, symbols, positions);
+    scanPacked(result, sourceLength);
+    result.trim();
+    return result;
+  }
+
+  /**
+   * Scans tokens into a packed buffer up to and including the first token that starts at or after
+   * the given offset, which is EOF at the latest. Identifiers are interned in the {@link
+   * SymbolTable} of the buffer.
+   *
+   * @param result The buffer to append the tokens to.
+   * @param limit The offset up to which tokens are scanned.
+   */
+  void scanPacked(PackedTokenBuffer result, int limit) {
+    SymbolTable table = result.getSymbols();
+    Token.TokenType type;
+    do {
+      type = scanNextType();
+      int value = 0;
+      if (type == ID) value = table.intern(source, tokenStart, position);
+      else if (type == INTLIT || type == FLOATLIT) value = (int) literalValue;
+      int start = spellingStart(type);
+      result.add(type, start, spellingEnd(type) - start, value);
+    } while (type != EOF && tokenStart < limit);
+  }
+
+  /**
+   * Scans the next token of the input program.
+   *
+   * @return The next token, or an EOF token if the whole input has been consumed.
+   */
+  private Token scanNext() {
+    Token.TokenType type = scanNextType();
+    if (type.hasFixedSpelling()) return new Token(type, type.pattern, positions, tokenStart);
+    if (type == ID) {
+      int symbol = symbols.intern(source, tokenStart, position);
+      return new Token(symbols.name(symbol), symbol, positions, tokenStart);
+    }
+    int value = type == INTLIT || type == FLOATLIT ? (int) literalValue : 0;
+    return new Token(
+        type, source, spellingStart(type), spellingEnd(type), value, positions, tokenStart);
+  }
+
+  // the spelling of a string literal does not include the quotes
+  private int spellingStart(Token.TokenType type) {
+    return type == STRINGLIT ? tokenStart + 1 : tokenStart;
+  }
+
+  private int spellingEnd(Token.TokenType type) {
+    return type == STRINGLIT ? position - 1 : position;
+  }
+
+  /**
+   * Scans the next token of the input program. Its offset is left in {@link #tokenStart}, its
+   * spelling ends at {@link #position}.
+   *
+   * @return The type of the next token, or EOF if the whole input has been consumed.
+   */
+  private Token.TokenType scanNextType() {
     while (currentChar != -1) {
 
       /* Skip all whitespaces immediately */
       while (currentChar == ' '
           || currentChar == '\n'
           || currentChar == '\r'
-          || currentChar == '\t') skipIt();
+          || currentChar == '\t') {
+        if (BULK_SKIP && currentChar == ' ') skipTo(CharSearch.skip(source, ' ', position));
+        else skipIt();
+      }
 
-      currentSpelling = new StringBuilder(16);
-      lastLine = this.currentLine;
-      lastColumn = this.currentColumn;
+      tokenStart = position;
 
       /* Deal with line and block comments */
       if (currentChar == '/') {
-        takeIt();
+        skipIt();
 
         // Line comments
         if (currentChar == '/') {
+          if (BULK_SKIP) skipTo(find('\n'));
           while (currentChar != '\n') skipIt();
           continue;
         }
@@ -79,6 +309,7 @@ public final class Scanner {
         if (currentChar == '*') {
           skipIt();
           while (true) {
+            if (BULK_SKIP) skipTo(find('*'));
             if (currentChar == '*') {
               skipIt();
               if (currentChar == '/') {
@@ -93,86 +324,93 @@ public final class Scanner {
         }
 
         // is actually operator
-        result.add(new Token(DIV, currentSpelling.toString(), lastLine, lastColumn));
-        continue;
+        return DIV;
       }
 
-      if (currentChar != -1) {
-        Token.TokenType type = scanToken();
-        result.add(new Token(type, currentSpelling.toString(), lastLine, lastColumn));
-      }
+      if (currentChar != -1) return scanToken();
     }
 
-    result.add(new Token(EOF, EOF.pattern, currentLine, currentColumn));
-    return result;
-  }
-
-  private void takeIt() {
-    currentSpelling.append((char) currentChar);
-    skipIt();
+    tokenStart = position;
+    return EOF;
   }
 
   private void skipIt() {
-    if ((char) currentChar == '\n') {
-      currentLine++;
-      currentColumn = 0;
-    } else {
-      currentColumn++;
+    if (currentChar == '\n' && recordNewlines) positions.add(position);
+    int old = currentChar;
+    currentChar = ++position < sourceLength ? source.charAt(position) : -1;
+    if (old == -1 && currentChar == -1) {
+      throw new RuntimeException(
+          String.format(
+              "Reached EOF while scanning, Token started at line %d, column %d",
+              positions.lineOf(tokenStart), positions.columnOf(tokenStart)));
     }
-    try {
-      int old = currentChar;
-      currentChar = fileInputStream.read();
-      if (old == -1 && currentChar == -1) {
-        throw new RuntimeException(
-            String.format(
-                "Reached EOF while scanning, Token started at line %d, column %d",
-                lastLine, lastColumn));
+  }
+
+  /**
+   * Skips all characters up to the given offset at once. The character at the offset becomes the
+   * current character; if the offset is the end of the input, the next {@link #skipIt()} fails just
+   * as if the characters had been skipped one by one.
+   *
+   * @param target Offset of the next character to look at, at or after the current position.
+   */
+  private void skipTo(int target) {
+    if (recordNewlines) {
+      if (nextNewline < position) nextNewline = find('\n');
+      while (nextNewline < target) {
+        positions.add(nextNewline);
+        nextNewline = CharSearch.indexOf(source, '\n', nextNewline + 1);
       }
-    } catch (IOException e) {
-      e.printStackTrace();
     }
+    position = target;
+    currentChar = target < sourceLength ? source.charAt(target) : -1;
   }
 
-  private Token.TokenType scanIdentifierLikeToken() {
-    takeIt();
-    while (isLetter(currentChar) || isDigit(currentChar) || currentChar == '_') takeIt();
-
-    String spelling = currentSpelling.toString();
-
-    if ("true".equals(spelling) || "false".equals(spelling)) return BOOLLIT;
+  /** @return Offset of the next occurrence of the given character, or the end of the input. */
+  private int find(char c) {
+    return CharSearch.indexOf(source, c, position);
+  }
 
-    for (Token.TokenType keyword : keywords)
-      if (keyword.pattern.equals(currentSpelling.toString())) return keyword;
+  private Token.TokenType scanIdentifierLikeToken() {
+    skipIt();
+    while (isLetter(currentChar) || isDigit(currentChar) || currentChar == '_') skipIt();
 
-    return ID;
+    Token.TokenType keyword = Keywords.lookup(source, tokenStart, position);
+    return keyword != null ? keyword : ID;
   }
 
   private Token.TokenType scanIntOrFloat() {
-    takeIt();
-    while (isDigit(currentChar) || currentChar == '.') takeIt();
-    return currentSpelling.toString().contains(".") ? FLOATLIT : INTLIT;
+    boolean dot = false;
+    skipIt();
+    while (isDigit(currentChar) || currentChar == '.') {
+      dot |= currentChar == '.';
+      skipIt();
+    }
+    literalValue = NumberLiterals.decode(source, tokenStart, position);
+    if (literalValue == NumberLiterals.MALFORMED) return ERROR;
+    return dot ? FLOATLIT : INTLIT;
   }
 
   private Token.TokenType scanString() {
     skipIt();
-    while (currentChar != '"') takeIt();
+    if (BULK_SKIP) skipTo(find('"'));
+    while (currentChar != '"') skipIt();
     skipIt();
     return STRINGLIT;
   }
 
   private Token.TokenType scanDot() {
-    takeIt();
+    skipIt();
 
     if (currentChar == '*') {
-      takeIt();
+      skipIt();
       return DOTPROD;
     }
 
-    while (isLetter(currentChar)) takeIt();
+    while (isLetter(currentChar)) skipIt();
 
-    if (currentSpelling.toString().equals(DIM.pattern)) return DIM;
-    if (currentSpelling.toString().equals(XDIM.pattern)) return XDIM;
-    if (currentSpelling.toString().equals(YDIM.pattern)) return YDIM;
+    if (spelledAs(DIM.pattern)) return DIM;
+    if (spelledAs(XDIM.pattern)) return XDIM;
+    if (spelledAs(YDIM.pattern)) return YDIM;
 
     return ERROR;
   }
@@ -188,95 +426,109 @@ public final class Scanner {
 
     switch (currentChar) {
       case ';':
-        takeIt();
+        skipIt();
         return SEMICOLON;
       case ',':
-        takeIt();
+        skipIt();
         return COMMA;
       case '(':
-        takeIt();
+        skipIt();
         return LPAREN;
       case ')':
-        takeIt();
+        skipIt();
         return RPAREN;
       case '[':
-        takeIt();
+        skipIt();
         return LBRACKET;
       case ']':
-        takeIt();
+        skipIt();
         return RBRACKET;
       case '{':
-        takeIt();
+        skipIt();
         return LBRACE;
       case '}':
-        takeIt();
+        skipIt();
         return RBRACE;
       case '*':
-        takeIt();
+        skipIt();
         return MULT;
       case '/':
-        takeIt();
+        skipIt();
         return DIV;
       case '+':
-        takeIt();
+        skipIt();
         return ADD;
       case '-':
-        takeIt();
+        skipIt();
         return SUB;
       case ':':
-        takeIt();
+        skipIt();
         return COLON;
       case '#':
-        takeIt();
+        skipIt();
         return MATMULT;
       case '?':
-        takeIt();
+        skipIt();
         return QMARK;
       case '&':
-        takeIt();
+        skipIt();
         return AND;
       case '|':
-        takeIt();
+        skipIt();
         return OR;
       case '@':
-        takeIt();
+        skipIt();
         return AT;
       case '^':
-        takeIt();
+        skipIt();
         return EXP;
       case '<':
-        takeIt();
+        skipIt();
         if (currentChar == '=') {
-          takeIt();
+          skipIt();
           return CMPLE;
         }
         return LANGLE;
       case '>':
-        takeIt();
+        skipIt();
         if (currentChar == '=') {
-          takeIt();
+          skipIt();
           return CMPGE;
         }
         return RANGLE;
       case '=':
-        takeIt();
+        skipIt();
         if (currentChar == '=') {
-          takeIt();
+          skipIt();
           return CMPEQ;
         }
         return ASSIGN;
       case '!':
-        takeIt();
+        skipIt();
         if (currentChar == '=') {
-          takeIt();
+          skipIt();
           return CMPNE;
         }
         return NOT;
     }
-    takeIt();
+    skipIt();
     return ERROR;
   }
 
+  /**
+   * Compares the spelling of the current token with the given string without copying it.
+   *
+   * @param spelling The expected spelling.
+   * @return Whether the characters scanned since {@link #tokenStart} equal the given string.
+   */
+  private boolean spelledAs(String spelling) {
+    int length = position - tokenStart;
+    if (length != spelling.length()) return false;
+    for (int i = 0; i < length; i++)
+      if (source.charAt(tokenStart + i) != spelling.charAt(i)) return false;
+    return true;
+  }
+
   private boolean isLetter(int c) {
     return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
   }
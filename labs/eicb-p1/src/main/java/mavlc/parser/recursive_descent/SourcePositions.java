@@ -0,0 +1,203 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import java.util.Arrays;
+
+/**
+ * Index of the newlines of a source text, which maps character offsets to line numbers and columns.
+ *
+ * <p>Lines are numbered from 1 and columns from 0, just like {@link Token#getLine()} and {@link
+ * Token#getColumn()}. Only the offsets of the newline characters are stored; a position is resolved
+ * by a binary search, or in constant time if it is in the line of the previously resolved position,
+ * the line after it, or the last line that has been indexed so far.
+ *
+ * <p>Like {@link PackedTokenBuffer}, the offsets are stored in a gap buffer, so an edit of the
+ * source text only touches the newlines near the edit. The offsets behind the gap are stored
+ * relative to the end of the source text.
+ */
+public final class SourcePositions {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private int[] newlines = new int[INITIAL_CAPACITY];
+
+  /** The offsets are stored at [0, gapStart) and [gapEnd, capacity) of the array. */
+  private int gapStart, gapEnd = INITIAL_CAPACITY;
+
+  /** Length of the source text, which the offsets behind the gap refer to. */
+  private int sourceLength;
+
+  /** Result of the previous {@link #newlinesBefore} call, which is the next one's first guess. */
+  private int hint;
+
+  /**
+   * Constructor for an empty index, to be filled by {@link #add(int)}.
+   *
+   * @param sourceLength Length of the source text.
+   */
+  SourcePositions(int sourceLength) {
+    this.sourceLength = sourceLength;
+  }
+
+  /**
+   * Empties the index for another source text, keeping its capacity unless it grew large.
+   *
+   * @param sourceLength Length of the new source text.
+   */
+  void reset(int sourceLength) {
+    if (newlines.length > INITIAL_CAPACITY * 16) newlines = new int[INITIAL_CAPACITY];
+    gapStart = 0;
+    gapEnd = newlines.length;
+    hint = 0;
+    this.sourceLength = sourceLength;
+  }
+
+  /**
+   * Indexes the whole source text.
+   *
+   * @param source The source text.
+   * @return The index of the newlines of the source text.
+   */
+  public static SourcePositions of(CharSequence source) {
+    SourcePositions result = new SourcePositions(source.length());
+    for (int i = 0; i < source.length(); i++) if (source.charAt(i) == '\n') result.add(i);
+    return result;
+  }
+
+  /**
+   * Appends the offset of a newline, or inserts it in front of the gap.
+   *
+   * @param offset Offset of the newline; must be greater than all offsets in front of the gap.
+   */
+  void add(int offset) {
+    if (gapStart == gapEnd) grow(1);
+    newlines[gapStart++] = offset;
+  }
+
+  /**
+   * Appends the offsets of several newlines.
+   *
+   * @param offsets Array containing the offsets, in ascending order.
+   * @param count Number of offsets to append from the start of the array.
+   */
+  void addAll(int[] offsets, int count) {
+    if (gapEnd - gapStart < count) grow(count);
+    System.arraycopy(offsets, 0, newlines, gapStart, count);
+    gapStart += count;
+  }
+
+  private void grow(int minGap) {
+    int count = count();
+    int capacity = Math.max(count + minGap, count + (count >> 1));
+    int tail = newlines.length - gapEnd;
+    int[] result = Arrays.copyOf(newlines, capacity);
+    System.arraycopy(newlines, gapEnd, result, capacity - tail, tail);
+    newlines = result;
+    gapEnd = capacity - tail;
+  }
+
+  /** @return The number of newlines. */
+  public int count() {
+    return gapStart + newlines.length - gapEnd;
+  }
+
+  /**
+   * @param index Index of a newline.
+   * @return The offset of the newline.
+   */
+  private int newline(int index) {
+    return index < gapStart ? newlines[index] : newlines[index + gapEnd - gapStart] + sourceLength;
+  }
+
+  /** @return The number of newlines in front of the given offset. */
+  private int newlinesBefore(int offset) {
+    int count = count();
+    if (count == 0 || newline(count - 1) < offset) return count;
+    // positions are mostly resolved in ascending order
+    int guess = Math.min(hint, count - 1);
+    if (guess == 0 || newline(guess - 1) < offset) {
+      if (newline(guess) >= offset) return guess;
+      if (guess + 1 < count && newline(guess + 1) >= offset) return hint = guess + 1;
+    }
+    int low = 0, high = count - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (newline(mid) < offset) low = mid + 1;
+      else high = mid - 1;
+    }
+    return hint = low;
+  }
+
+  /**
+   * @param offset Offset of a character in the source text.
+   * @return The line number of the character.
+   */
+  public int lineOf(int offset) {
+    return newlinesBefore(offset) + 1;
+  }
+
+  /**
+   * @param offset Offset of a character in the source text.
+   * @return The column of the character in its line.
+   */
+  public int columnOf(int offset) {
+    return columnOf(offset, newlinesBefore(offset));
+  }
+
+  private int columnOf(int offset, int newlinesBefore) {
+    return newlinesBefore == 0 ? offset : offset - newline(newlinesBefore - 1) - 1;
+  }
+
+  /**
+   * Resolves a line number and column at once.
+   *
+   * @param offset Offset of a character in the source text.
+   * @return The line number of the character in the upper and its column in the lower 32 bits.
+   */
+  long positionOf(int offset) {
+    int before = newlinesBefore(offset);
+    return (long) (before + 1) << 32 | columnOf(offset, before);
+  }
+
+  /**
+   * Applies an edit of the source text.
+   *
+   * @param edited The edited source text.
+   * @param offset Offset of the edit in the source text.
+   * @param removedLength Number of characters removed at the offset.
+   * @param insertedLength Number of characters inserted at the offset.
+   */
+  void edit(CharSequence edited, int offset, int removedLength, int insertedLength) {
+    moveGap(newlinesBefore(offset));
+    while (gapEnd < newlines.length && newlines[gapEnd] + sourceLength < offset + removedLength)
+      gapEnd++;
+    for (int i = offset; i < offset + insertedLength; i++) if (edited.charAt(i) == '\n') add(i);
+    sourceLength = edited.length();
+  }
+
+  private void moveGap(int index) {
+    if (index < gapStart) {
+      int count = gapStart - index;
+      System.arraycopy(newlines, index, newlines, gapEnd - count, count);
+      gapStart = index;
+      gapEnd -= count;
+      for (int i = gapEnd; i < gapEnd + count; i++) newlines[i] -= sourceLength;
+    } else if (index > gapStart) {
+      int count = index - gapStart;
+      System.arraycopy(newlines, gapEnd, newlines, gapStart, count);
+      for (int i = gapStart; i < index; i++) newlines[i] += sourceLength;
+      gapStart = index;
+      gapEnd += count;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+import java.util.Arrays;
+
+/**
+ * Interning table for identifiers. Every distinct identifier is stored once and numbered densely
+ * from zero in the order of its first occurrence, so later stages can compare names by identity or
+ * symbol number and index arrays by symbol number.
+ *
+ * <p>Lookups hash the identifier directly in the source text; a {@link String} is only allocated
+ * for the first occurrence of an identifier.
+ */
+public final class SymbolTable {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  /** Open addressing hash table of symbol numbers plus one; zero marks a free slot. */
+  private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+  private String[] names = new String[INITIAL_CAPACITY];
+
+  private int[] hashes = new int[INITIAL_CAPACITY];
+
+  private int size;
+
+  private int occurrences;
+
+  private long repeatedChars;
+
+  /**
+   * Removes all identifiers, so that numbering starts from zero again. Tables that grew large are
+   * shrunk to their initial capacity.
+   */
+  void clear() {
+    if (names.length > INITIAL_CAPACITY * 16) {
+      slots = new int[INITIAL_CAPACITY * 2];
+      names = new String[INITIAL_CAPACITY];
+      hashes = new int[INITIAL_CAPACITY];
+    } else {
+      Arrays.fill(slots, 0);
+      Arrays.fill(names, 0, size, null);
+    }
+    size = 0;
+    occurrences = 0;
+    repeatedChars = 0;
+  }
+
+  /**
+   * Interns an identifier.
+   *
+   * @param name The identifier.
+   * @return The identifier's symbol number.
+   */
+  public int intern(CharSequence name) {
+    return intern(name, 0, name.length());
+  }
+
+  /**
+   * Interns the identifier spelled by a range of the source text.
+   *
+   * @param source The source text.
+   * @param start Offset of the first character of the identifier.
+   * @param end Offset after the last character of the identifier.
+   * @return The identifier's symbol number.
+   */
+  int intern(CharSequence source, int start, int end) {
+    occurrences++;
+    int hash = hash(source, start, end);
+    int slot = probe(source, start, end, hash);
+    int id = slots[slot] - 1;
+    if (id >= 0) {
+      repeatedChars += end - start;
+      return id;
+    }
+    slots[slot] = size + 1;
+    return add(source.subSequence(start, end).toString(), hash);
+  }
+
+  /**
+   * Counts further occurrences of identifiers that are interned already, e.g. when the symbols of
+   * another table are merged into this one with {@link #intern(CharSequence)}.
+   *
+   * @param count The number of occurrences.
+   * @param chars The total length of the occurrences.
+   */
+  void countRepeated(int count, long chars) {
+    occurrences += count;
+    repeatedChars += chars;
+  }
+
+  /**
+   * @param symbol A symbol number handed out by this table.
+   * @return The canonical spelling of the symbol.
+   */
+  public String name(int symbol) {
+    return names[symbol];
+  }
+
+  /** @return The number of distinct identifiers. */
+  public int size() {
+    return size;
+  }
+
+  /** @return The number of identifier occurrences interned so far. */
+  public int occurrences() {
+    return occurrences;
+  }
+
+  /**
+   * Estimates the heap that interning saved, assuming that each occurrence of an identifier would
+   * otherwise have become a separate {@link String} (object header, hash and array reference plus a
+   * character array with its own header).
+   *
+   * @return The estimated number of bytes saved.
+   */
+  public long bytesSaved() {
+    long repeated = occurrences - size;
+    return repeated * (24 + 16) + repeatedChars * 2;
+  }
+
+  private int add(String name, int hash) {
+    if (size == names.length) {
+      names = Arrays.copyOf(names, size * 2);
+      hashes = Arrays.copyOf(hashes, size * 2);
+    }
+    names[size] = name;
+    hashes[size] = hash;
+    size++;
+    if (size * 2 > slots.length) rehash();
+    return size - 1;
+  }
+
+  private void rehash() {
+    slots = new int[slots.length * 2];
+    int mask = slots.length - 1;
+    for (int id = 0; id < size; id++) {
+      int slot = mix(hashes[id]) & mask;
+      while (slots[slot] != 0) slot = (slot + 1) & mask;
+      slots[slot] = id + 1;
+    }
+  }
+
+  /** @return The slot containing the given identifier, or the free slot where it belongs. */
+  private int probe(CharSequence source, int start, int end, int hash) {
+    int mask = slots.length - 1;
+    for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+      int id = slots[slot] - 1;
+      if (id < 0 || (hashes[id] == hash && equals(names[id], source, start, end))) return slot;
+    }
+  }
+
+  private static int hash(CharSequence source, int start, int end) {
+    int hash = 0;
+    for (int i = start; i < end; i++) hash = 31 * hash + source.charAt(i);
+    return hash;
+  }
+
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean equals(String name, CharSequence source, int start, int end) {
+    if (name.length() != end - start) return false;
+    for (int i = 0; i < name.length(); i++)
+      if (name.charAt(i) != source.charAt(start + i)) return false;
+    return true;
+  }
+}
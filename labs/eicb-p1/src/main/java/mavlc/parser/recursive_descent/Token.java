@@ -17,7 +17,11 @@ public final class Token {
   /** The token's {@link Token.TokenType type}, e.g., INTLIT or LBRACE. */
   public final TokenType type;
 
-  /** The token's spelling, e.g., "foobar_42" for an ID token. */
+  /**
+   * The token's spelling, e.g., "foobar_42" for an ID token. Keywords and punctuation share their
+   * type's pattern and identifiers the canonical spelling of their symbol; only literals are copied
+   * from the source text.
+   */
   public final String spelling;
 
   /** The line number in the source file where this token was found. */
@@ -26,6 +30,18 @@ public final class Token {
   /** The column in the line where this token starts. */
   public final int column;
 
+  /** The symbol number of an ID token in its scanner's {@link SymbolTable}, -1 otherwise. */
+  private final transient int symbol;
+
+  /**
+   * The value of an INTLIT token or the bits of the value of a FLOATLIT token, decoded by the
+   * scanner. Unused if the spelling was given explicitly; it is parsed on demand then.
+   */
+  private final transient int value;
+
+  /** The offset of the token in the source text, or -1 if the spelling was given explicitly. */
+  private final transient int offset;
+
   /**
    * Constructor.
    *
@@ -35,17 +51,139 @@ public final class Token {
    * @param column The column in the line where this token starts.
    */
   public Token(final TokenType type, final String spelling, final int line, final int column) {
+    this(type, spelling, -1, 0, ((long) line << 32) | column, -1);
+  }
+
+  /**
+   * Constructor for a token whose position is resolved from the newline index.
+   *
+   * @param type The token's {@link Token.TokenType type}, e.g., INTLIT or LBRACE.
+   * @param spelling The token's spelling, e.g., "foobar_42" for an ID token.
+   * @param positions The index of the source text's newlines.
+   * @param offset The offset of the token in the source text.
+   */
+  Token(TokenType type, String spelling, SourcePositions positions, int offset) {
+    this(type, spelling, -1, 0, positions.positionOf(offset), offset);
+  }
+
+  /**
+   * Constructor for an ID token.
+   *
+   * @param spelling The identifier's canonical spelling.
+   * @param symbol The identifier's symbol number.
+   * @param positions The index of the source text's newlines.
+   * @param offset The offset of the token in the source text.
+   */
+  Token(String spelling, int symbol, SourcePositions positions, int offset) {
+    this(TokenType.ID, spelling, symbol, 0, positions.positionOf(offset), offset);
+  }
+
+  /**
+   * Constructor for a token whose spelling is a range of the source text.
+   *
+   * @param type The token's {@link Token.TokenType type}, e.g., INTLIT or LBRACE.
+   * @param source The source text.
+   * @param start Offset of the first character of the spelling in the source text.
+   * @param end Offset after the last character of the spelling in the source text.
+   * @param value The decoded value of a number literal (see {@link NumberLiterals#decode}), or 0.
+   * @param positions The index of the source text's newlines.
+   * @param offset The offset of the token in the source text.
+   */
+  Token(
+      TokenType type,
+      CharSequence source,
+      int start,
+      int end,
+      int value,
+      SourcePositions positions,
+      int offset) {
+    this(
+        type,
+        source.subSequence(start, end).toString(),
+        -1,
+        value,
+        positions.positionOf(offset),
+        offset);
+  }
+
+  private Token(
+      TokenType type,
+      String spelling,
+      int symbol,
+      int value,
+      long position,
+      int offset) {
     this.type = type;
     this.spelling = spelling;
-    this.line = line;
-    this.column = column;
+    this.line = (int) (position >>> 32);
+    this.column = (int) position;
+    this.symbol = symbol;
+    this.value = value;
+    this.offset = offset;
+  }
+
+  /** @return The offset of a token created by a scanner in the source text, -1 otherwise. */
+  int getOffset() {
+    return offset;
+  }
+
+  /** @return The line number in the source file where this token was found. */
+  public int getLine() {
+    return line;
+  }
+
+  /** @return The column in the line where this token starts. */
+  public int getColumn() {
+    return column;
+  }
+
+  /** @return The token's spelling, e.g., "foobar_42" for an ID token. */
+  public String getSpelling() {
+    return spelling;
+  }
+
+  /**
+   * Get the token's spelling as a character sequence.
+   *
+   * @return The token's spelling.
+   */
+  public CharSequence getText() {
+    return spelling;
+  }
+
+  /**
+   * @return The symbol number of an ID token in the {@link SymbolTable} of the scanner that
+   *     produced it, or -1 for other tokens and tokens that were not produced by a scanner.
+   */
+  public int getSymbol() {
+    return symbol;
+  }
+
+  /**
+   * @return The value of an INTLIT token.
+   * @throws NumberFormatException if the token was not produced by a scanner and its spelling is
+   *     not a valid int.
+   */
+  public int getIntValue() {
+    if (type != TokenType.INTLIT) throw new IllegalStateException(this + " is no int literal");
+    return offset >= 0 ? value : Integer.parseInt(spelling);
+  }
+
+  /**
+   * @return The value of a FLOATLIT token.
+   * @throws NumberFormatException if the token was not produced by a scanner and its spelling is
+   *     not a valid float.
+   */
+  public float getFloatValue() {
+    if (type != TokenType.FLOATLIT) throw new IllegalStateException(this + " is no float literal");
+    return offset >= 0 ? Float.intBitsToFloat(value) : Float.parseFloat(spelling);
   }
 
   /* (non-Javadoc)
    * @see java.lang.Object#toString()
    */
   public String toString() {
-    return String.format("<%s %s>", type.name(), spelling);
+    return String.format("<%s %s>", type.name(), getSpelling());
   }
 
   /* (non-Javadoc)
@@ -55,7 +193,7 @@ public final class Token {
   public boolean equals(Object obj) {
     return obj instanceof Token
         && type.equals(((Token) obj).type)
-        && spelling.equals(((Token) obj).spelling);
+        && getSpelling().equals(((Token) obj).getSpelling());
   }
 
   /** Enumerates token types used in MAVL. */
@@ -124,5 +262,20 @@ public final class Token {
     private TokenType(String pattern) {
       this.pattern = pattern;
     }
+
+    /** @return Whether every token of this type is spelled exactly like the type's pattern. */
+    boolean hasFixedSpelling() {
+      switch (this) {
+        case ID:
+        case INTLIT:
+        case FLOATLIT:
+        case BOOLLIT:
+        case STRINGLIT:
+        case ERROR:
+          return false;
+        default:
+          return true;
+      }
+    }
   }
 }
@@ -0,0 +1,38 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.parser.recursive_descent;
+
+/**
+ * A pull-based stream of tokens with bounded lookahead. The last token of every stream is an EOF
+ * token, which is returned again by every further call to {@link #next()}.
+ */
+public interface TokenSource {
+
+  /** The number of upcoming tokens that can be inspected with {@link #peek(int)}. */
+  int MAX_LOOKAHEAD = 2;
+
+  /**
+   * Removes the next token from the stream.
+   *
+   * @return The next token.
+   */
+  Token next();
+
+  /**
+   * Inspects an upcoming token without removing it from the stream.
+   *
+   * @param k Distance of the token, 0 being the token that the next call to {@link #next()} will
+   *     return. Must be less than {@link #MAX_LOOKAHEAD}.
+   * @return The k-th upcoming token.
+   */
+  Token peek(int k);
+}
@@ -42,6 +42,11 @@ public class ASTTestWrapper extends ASTNode {
     return AST.dump();
   }
 
+  @Override
+  protected long computeStructuralHash() {
+    return mix(mix(mix(kindHash(), AST), onlySyntax), testFile);
+  }
+
   /** @return the AST */
   public Module getAST() {
     return AST;
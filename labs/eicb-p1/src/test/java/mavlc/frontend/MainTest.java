@@ -0,0 +1,68 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import mavlc.Main;
+import org.junit.Test;
+
+/** Runs the compiler driver with the command line options that do not end the JVM. */
+public class MainTest {
+
+  private static final String INPUT =
+      String.join(
+          File.separator,
+          "src",
+          "test",
+          "testcases",
+          "trees",
+          "P1",
+          "private",
+          "parse_assign",
+          "parse_assign_record.mavl");
+
+  private static final String OUTPUT_DIR = "build" + File.separator + "test-output";
+
+  @Test
+  public void testOptions() throws IOException {
+    byte[] expected = compile("plain");
+    String[][] variants = {
+      {"-syn"},
+      {"--max-depth", "50"},
+      {"-max-depth", "50"},
+      {"-maxdepth", "50", "-stats"},
+      {"-parallel", "-recover"},
+      {"-parallel"},
+      {"-recover", "--max-depth", "50"}
+    };
+    for (String[] options : variants) {
+      assertArrayEquals(String.join(" ", options), expected, compile("options", options));
+    }
+  }
+
+  /** @return The output of the driver for the input file and the given options. */
+  private static byte[] compile(String name, String... options) throws IOException {
+    new File(OUTPUT_DIR).mkdirs();
+    File output = new File(OUTPUT_DIR, "main-" + name + ".xml");
+    String[] args = new String[options.length + 3];
+    System.arraycopy(options, 0, args, 0, options.length);
+    args[options.length] = "-o";
+    args[options.length + 1] = output.getPath();
+    args[options.length + 2] = INPUT;
+    Main.main(args);
+    return Files.readAllBytes(output.toPath());
+  }
+}
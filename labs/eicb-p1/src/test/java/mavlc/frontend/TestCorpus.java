@@ -0,0 +1,46 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+
+/** Access to the MAVL programs of the test case directory. */
+public final class TestCorpus {
+
+  private TestCorpus() {}
+
+  /** @return All MAVL source files below src/test/testcases, in a stable order. */
+  public static List<File> sourceFiles() {
+    List<File> result =
+        getAllSourceFiles(
+            new File("src" + File.separator + "test" + File.separator + "testcases"));
+    result.sort(null);
+    return result;
+  }
+
+  private static List<File> getAllSourceFiles(File directory) {
+    List<File> result = new LinkedList<>();
+    File[] listOfFiles = directory.listFiles();
+    for (File entry : listOfFiles) {
+      if (entry.isFile()) {
+        if (entry.getName().endsWith(".mavl")) {
+          result.add(entry);
+        }
+      } else if (entry.isDirectory()) {
+        result.addAll(getAllSourceFiles(entry));
+      }
+    }
+    return result;
+  }
+}
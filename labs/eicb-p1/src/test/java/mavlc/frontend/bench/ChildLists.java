@@ -0,0 +1,78 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import mavlc.ast.nodes.ASTNode;
+import mavlc.ast.nodes.NodeList;
+import mavlc.ast.nodes.expression.StructureInit;
+import mavlc.ast.nodes.function.Function;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.nodes.record.RecordTypeDeclaration;
+
+/** Reflective access to the lists of child nodes of an AST. */
+public final class ChildLists {
+
+  private ChildLists() {}
+
+  /** Visits a list of child nodes and returns the list to store instead. */
+  public interface ListVisitor {
+    List<?> visit(Class<?> owner, List<?> list);
+  }
+
+  /**
+   * Visits every list of child nodes below a node, after the nodes in it. Lazily parsed function
+   * bodies are parsed.
+   *
+   * @param node The root of the AST.
+   * @param visitor The visitor, which may replace the lists.
+   * @return The number of nodes.
+   * @throws IllegalAccessException if a field cannot be accessed.
+   */
+  public static int walk(ASTNode node, ListVisitor visitor) throws IllegalAccessException {
+    int nodes = 1;
+    if (node instanceof Function) ((Function) node).getFunctionBody();
+    for (Class<?> type = node.getClass(); type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        if ((field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0) continue;
+        field.setAccessible(true);
+        Object value = field.get(node);
+        if (value instanceof ASTNode) {
+          nodes += walk((ASTNode) value, visitor);
+        } else if (value instanceof List) {
+          List<?> list = (List<?>) value;
+          for (Object child : list) nodes += walk((ASTNode) child, visitor);
+          List<?> replacement = visitor.visit(type, list);
+          if (replacement != list) field.set(node, replacement);
+        }
+      }
+    }
+    return nodes;
+  }
+
+  /**
+   * @param owner The class declaring the field of the list.
+   * @param list A list of child nodes.
+   * @return A copy of the list in the collection that the field used before {@link NodeList}.
+   */
+  public static List<?> legacyCopy(Class<?> owner, List<?> list) {
+    if (owner == Module.class || owner == StructureInit.class) return new LinkedList<>(list);
+    if (owner == RecordTypeDeclaration.class) return new ArrayList<>(list);
+    List<Object> copy = new ArrayList<>();
+    for (Object element : list) copy.add(element);
+    return copy;
+  }
+}
@@ -0,0 +1,53 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import mavlc.ast.nodes.module.Module;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+
+/**
+ * Compares the cost of a full-module walk with double dispatch through {@code accept} and with
+ * {@link mavlc.ast.visitor.SwitchDispatchVisitor}, using the same visit-methods of a {@link
+ * NodeCounter}.
+ *
+ * <p>Run with {@code java -cp <test classpath> mavlc.frontend.bench.DispatchBenchmark [megabytes]}.
+ */
+public class DispatchBenchmark {
+
+  private static final int ROUNDS = 10;
+
+  private static final int WALKS = 10;
+
+  public static void main(String[] args) {
+    int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    String source = MavlGenerator.generateAtLeast(megabytes << 20, 25);
+    Module module = new Parser(new Scanner(source)).parse();
+    NodeCounter accept = new NodeCounter(false);
+    NodeCounter tableswitch = new NodeCounter(true);
+    int nodes = accept.count(module);
+    if (tableswitch.count(module) != nodes) throw new AssertionError("different node counts");
+    System.out.println(nodes + " nodes");
+    // alternate, so that both walks are compiled with the profile of the other present
+    for (int round = 0; round < ROUNDS; round++) {
+      report("accept", nodes, accept, module);
+      report("switch on kind", nodes, tableswitch, module);
+    }
+  }
+
+  private static void report(String name, int nodes, NodeCounter counter, Module module) {
+    long start = System.nanoTime();
+    for (int i = 0; i < WALKS; i++) counter.count(module);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%-16s %6.2f ns/node%n", name, seconds * 1e9 / WALKS / nodes);
+  }
+}
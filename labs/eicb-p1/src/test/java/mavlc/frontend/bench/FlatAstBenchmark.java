@@ -0,0 +1,75 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import static mavlc.ast.flat.FlatAst.NONE;
+
+import mavlc.ast.flat.FlatAst;
+import mavlc.ast.nodes.module.Module;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+
+/**
+ * Compares the heap footprint and full-tree traversal speed of the object AST and the {@link
+ * FlatAst} of the same generated module.
+ *
+ * <p>Run with {@code java -cp <test classpath> mavlc.frontend.bench.FlatAstBenchmark [megabytes]}.
+ */
+public class FlatAstBenchmark {
+
+  private static final int WALKS = 20;
+
+  public static void main(String[] args) {
+    int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    String source = MavlGenerator.generateAtLeast(megabytes << 20, 22);
+
+    long before = HeapUsage.used();
+    Module module = new Parser(new Scanner(source)).parse();
+    long objectBytes = HeapUsage.used() - before;
+    before = HeapUsage.used();
+    FlatAst ast = new Parser(new Scanner(source)).parseFlat();
+    long flatBytes = HeapUsage.used() - before;
+
+    NodeCounter counter = new NodeCounter();
+    int nodes = counter.count(module);
+    if (count(ast, ast.root()) != nodes) throw new AssertionError("different node counts");
+    System.out.printf(
+        "%d nodes: objects %.1f bytes/node, flat %.1f bytes/node (%d nodes with types)%n",
+        nodes, objectBytes / (double) nodes, flatBytes / (double) nodes, ast.size());
+
+    report("objects, visitor", nodes, () -> counter.count(module));
+    report("flat, child links", nodes, () -> count(ast, ast.root()));
+  }
+
+  /** @return The number of nodes in the subtree of the given node, excluding types. */
+  private static int count(FlatAst ast, int node) {
+    if (ast.kind(node).isType()) return 0;
+    int count = 1;
+    for (int child = ast.firstChild(node); child != NONE; child = ast.nextSibling(child)) {
+      count += count(ast, child);
+    }
+    return count;
+  }
+
+  /** A full-tree walk. */
+  private interface Walk {
+    int run();
+  }
+
+  private static void report(String name, int nodes, Walk walk) {
+    for (int i = 0; i < WALKS; i++) walk.run();
+    long start = System.nanoTime();
+    for (int i = 0; i < WALKS; i++) walk.run();
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%-20s %8.1f ns/node%n", name, seconds * 1e9 / WALKS / nodes);
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import java.util.Deque;
+import mavlc.ast.nodes.module.Module;
+import mavlc.parser.recursive_descent.NodeInterner;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import mavlc.parser.recursive_descent.Token;
+
+/**
+ * Compares the retained heap of alternative token and AST representations of the same generated
+ * module.
+ *
+ * <p>Run with {@code java -cp <test classpath> mavlc.frontend.bench.FootprintBenchmark
+ * [megabytes]}.
+ */
+public class FootprintBenchmark {
+
+  public static void main(String[] args) throws IllegalAccessException {
+    int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    String source = MavlGenerator.generateAtLeast(megabytes << 20, 7);
+    tokens(source);
+    childLists(source);
+    interning(source);
+  }
+
+  private static void tokens(String source) {
+    long before = HeapUsage.used();
+    Deque<Token> deque = new Scanner(source).scan();
+    long dequeBytes = HeapUsage.used() - before;
+    int tokens = deque.size();
+    deque = null;
+
+    before = HeapUsage.used();
+    PackedTokenBuffer packed = new Scanner(source).scanPacked();
+    long packedBytes = HeapUsage.used() - before;
+    if (packed.size() != tokens) throw new AssertionError("different token counts");
+
+    System.out.printf(
+        "%d tokens: Deque<Token> %.1f bytes/token, PackedTokenBuffer %.1f bytes/token%n",
+        tokens, dequeBytes / (double) tokens, packedBytes / (double) tokens);
+  }
+
+  private static void childLists(String source) throws IllegalAccessException {
+    long before = HeapUsage.used();
+    Module compact = new Parser(new Scanner(source)).parse();
+    long compactBytes = HeapUsage.used() - before;
+    int nodes = ChildLists.walk(compact, (owner, list) -> list);
+
+    before = HeapUsage.used();
+    Module linked = new Parser(new Scanner(source)).parse();
+    ChildLists.walk(linked, ChildLists::legacyCopy);
+    long linkedBytes = HeapUsage.used() - before;
+
+    System.out.printf(
+        "%d nodes: LinkedList/ArrayList %.1f bytes/node, NodeList %.1f bytes/node%n",
+        nodes, linkedBytes / (double) nodes, compactBytes / (double) nodes);
+  }
+
+  private static void interning(String source) {
+    long before = HeapUsage.used();
+    Module plain = new Parser(new Scanner(source)).parse();
+    long plainBytes = HeapUsage.used() - before;
+
+    NodeInterner interner = new NodeInterner();
+    before = HeapUsage.used();
+    Parser parser = new Parser(new Scanner(source));
+    parser.setInterner(interner);
+    Module shared = parser.parse();
+    String report = interner.report();
+    interner.clear();
+    long sharedBytes = HeapUsage.used() - before;
+    if (shared.getFunctions().size() != plain.getFunctions().size()) {
+      throw new AssertionError("different function counts");
+    }
+
+    System.out.printf(
+        "separate nodes %d bytes, shared literals and types %d bytes, %s%n",
+        plainBytes, sharedBytes, report.substring(report.lastIndexOf('\n') + 1));
+  }
+}
@@ -0,0 +1,30 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+/**
+ * Heap measurements for the benchmarks. The numbers depend on the collector actually running when
+ * asked to, so they are only reported, never asserted on in tests.
+ */
+public final class HeapUsage {
+
+  private static final int COLLECTIONS = 3;
+
+  private HeapUsage() {}
+
+  /** @return The number of bytes in use on the heap, after requesting garbage collections. */
+  public static long used() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < COLLECTIONS; i++) System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
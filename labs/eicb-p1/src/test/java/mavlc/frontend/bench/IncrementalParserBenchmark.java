@@ -0,0 +1,78 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import mavlc.parser.recursive_descent.IncrementalParser;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+
+/**
+ * Measures the time to parse a large module again after an edit of a single function, compared to
+ * scanning and parsing the edited module from scratch.
+ *
+ * <p>Run with {@code java -cp <test classpath> mavlc.frontend.bench.IncrementalParserBenchmark
+ * [functions]}. The default of 800 functions is about 25000 lines.
+ */
+public class IncrementalParserBenchmark {
+
+  private static final int WARMUP_ROUNDS = 50;
+
+  private static final int MEASURED_ROUNDS = 200;
+
+  /** Counts the edits, to spread them over several functions. */
+  private static int round;
+
+  public static void main(String[] args) {
+    int functions = args.length > 0 ? Integer.parseInt(args[0]) : 800;
+    String source = MavlGenerator.generate(functions, 42);
+    PackedTokenBuffer tokens = new Scanner(source).scanPacked();
+    System.out.printf(
+        "input: %d lines, %d tokens%n", source.split("\n", -1).length, tokens.size());
+    IncrementalParser parser = new IncrementalParser(tokens);
+    parser.parse();
+
+    report("full scan and parse", () -> new Parser(new Scanner(source)).parse(), null);
+    report(
+        "edit within a line",
+        () -> edit(parser, tokens, functions, "acc = 0;", "acc = 1;"),
+        parser);
+    report(
+        "edit adding a line",
+        () -> edit(parser, tokens, functions, "acc = 0;", "acc = 0;\n"),
+        parser);
+  }
+
+  /** Applies an edit to the middle function and reverts it, parsing after both. */
+  private static void edit(
+      IncrementalParser parser, PackedTokenBuffer tokens, int functions, String from, String to) {
+    String source = tokens.getSource().toString();
+    int function = source.indexOf("function int kernel" + (functions / 2 + round++ % 8) + "(");
+    int offset = source.indexOf(from, function);
+    parser.edit(offset, from.length(), to);
+    parser.edit(offset, to.length(), from);
+  }
+
+  private static void report(String name, Runnable action, IncrementalParser parser) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) action.run();
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) action.run();
+    double millis = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+    if (parser == null) {
+      System.out.printf("%-22s %8.3f ms per parse%n", name, millis);
+    } else {
+      System.out.printf(
+          "%-22s %8.3f ms per edit, %d declarations parsed%n",
+          name, millis / 2, parser.getReparsedDeclarations());
+    }
+  }
+}
@@ -0,0 +1,45 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import java.io.IOException;
+import java.util.Random;
+import mavlc.parser.recursive_descent.Scanner;
+
+/**
+ * Measures scanner throughput on input consisting only of identifiers and keywords, which stresses
+ * keyword recognition.
+ *
+ * <p>Run with {@code java -cp <test classpath> mavlc.frontend.bench.KeywordBenchmark [megabytes]}.
+ */
+public class KeywordBenchmark {
+
+  private static final String[] WORDS = {
+    "int", "float", "bool", "void", "string", "matrix", "vector", "val", "var", "for", "if", "else",
+    "return", "function", "switch", "case", "default", "foreach", "record", "true", "false", "i",
+    "acc", "value", "result", "forward", "iffy", "vals", "recording", "counter", "x1", "matrix_a"
+  };
+
+  public static void main(String[] args) throws IOException {
+    int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+    Random random = new Random(42);
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < megabytes << 20) {
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+      sb.append(random.nextInt(8) == 0 ? '\n' : ' ');
+    }
+    String source = sb.toString();
+    System.out.printf("input: %.1f MB%n", source.length() / (double) (1 << 20));
+    ScannerBenchmark.report(
+        "identifiers and keywords", () -> new Scanner(source).scanPacked().size());
+  }
+}
@@ -0,0 +1,183 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import java.util.Random;
+
+/**
+ * Generates large, syntactically valid MAVL modules resembling the output of our code generators:
+ * many small functions with numeric expressions, loops, comments and string literals.
+ */
+public final class MavlGenerator {
+
+  private final Random random;
+
+  private final StringBuilder sb = new StringBuilder();
+
+  private MavlGenerator(long seed) {
+    random = new Random(seed);
+  }
+
+  /**
+   * Generates a module with the given number of functions (plus one record per ten functions).
+   *
+   * @param functions Number of functions to generate.
+   * @param seed Seed for the pseudo-random choices.
+   * @return MAVL source code.
+   */
+  public static String generate(int functions, long seed) {
+    MavlGenerator generator = new MavlGenerator(seed);
+    for (int i = 0; i < functions; i++) {
+      if (i % 10 == 0) generator.record(i);
+      generator.function(i);
+    }
+    return generator.sb.toString();
+  }
+
+  /**
+   * Generates a module of at least the given size.
+   *
+   * @param bytes Minimal number of characters.
+   * @param seed Seed for the pseudo-random choices.
+   * @return MAVL source code.
+   */
+  public static String generateAtLeast(int bytes, long seed) {
+    MavlGenerator generator = new MavlGenerator(seed);
+    for (int i = 0; generator.sb.length() < bytes; i++) {
+      if (i % 10 == 0) generator.record(i);
+      generator.function(i);
+    }
+    return generator.sb.toString();
+  }
+
+  private void record(int i) {
+    sb.append("record Rec").append(i).append(" {\n");
+    sb.append("  var int count;\n");
+    sb.append("  val float scale;\n");
+    sb.append("  var vector<float>[4] values;\n");
+    sb.append("}\n\n");
+  }
+
+  private void function(int i) {
+    sb.append("/* Generated kernel number ").append(i).append(".\n");
+    sb.append(" * Computes a few values that nobody will ever look at. */\n");
+    sb.append("function int kernel").append(i).append("(int n, float f, matrix<int>[3][3] m) {\n");
+    sb.append("  var int acc;\n");
+    sb.append("  var vector<float>[4] v;\n");
+    sb.append("  val float pi = 3.1415;\n");
+    sb.append("  acc = 0;\n");
+    int statements = 4 + random.nextInt(6);
+    for (int s = 0; s < statements; s++) statement(1);
+    sb.append("  return acc;\n");
+    sb.append("}\n\n");
+  }
+
+  private void statement(int depth) {
+    indent(depth);
+    switch (depth < 3 ? random.nextInt(8) : random.nextInt(4)) {
+      case 0:
+        sb.append("acc = ");
+        expression(3);
+        sb.append(";\n");
+        break;
+      case 1:
+        sb.append("v[").append(random.nextInt(4)).append("] = ");
+        sb.append(random.nextInt(100)).append('.').append(random.nextInt(100));
+        sb.append(" * f;\n");
+        break;
+      case 2:
+        sb.append("printString(\"value of the accumulator: \");\n");
+        break;
+      case 3:
+        sb.append("// keep the accumulator in range\n");
+        indent(depth);
+        sb.append("acc = acc - m[1][2] * n;\n");
+        break;
+      case 4:
+        sb.append("for (acc = 0; acc < n; acc = acc + 1) {\n");
+        statement(depth + 1);
+        statement(depth + 1);
+        indent(depth);
+        sb.append("}\n");
+        break;
+      case 5:
+        sb.append("if (acc > ").append(random.nextInt(1000)).append(" & n != 0) {\n");
+        statement(depth + 1);
+        indent(depth);
+        sb.append("} else {\n");
+        statement(depth + 1);
+        indent(depth);
+        sb.append("}\n");
+        break;
+      case 6:
+        sb.append("foreach (val float e : v) {\n");
+        statement(depth + 1);
+        indent(depth);
+        sb.append("}\n");
+        break;
+      default:
+        sb.append("acc = (n ^ 2) + (m # m)[0][0] + v.dimension;\n");
+        break;
+    }
+  }
+
+  private void expression(int depth) {
+    if (depth == 0) {
+      switch (random.nextInt(4)) {
+        case 0:
+          sb.append(random.nextInt(100000));
+          break;
+        case 1:
+          sb.append("acc");
+          break;
+        case 2:
+          sb.append("n");
+          break;
+        default:
+          sb.append("m[").append(random.nextInt(3)).append("][").append(random.nextInt(3));
+          sb.append(']');
+          break;
+      }
+      return;
+    }
+    switch (random.nextInt(5)) {
+      case 0:
+        expression(depth - 1);
+        sb.append(" + ");
+        expression(depth - 1);
+        break;
+      case 1:
+        expression(depth - 1);
+        sb.append(" * ");
+        expression(depth - 1);
+        break;
+      case 2:
+        sb.append('(');
+        expression(depth - 1);
+        sb.append(" - ");
+        expression(depth - 1);
+        sb.append(')');
+        break;
+      case 3:
+        sb.append("-");
+        expression(0);
+        break;
+      default:
+        expression(0);
+        break;
+    }
+  }
+
+  private void indent(int depth) {
+    for (int i = 0; i < depth; i++) sb.append("  ");
+  }
+}
@@ -0,0 +1,225 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import java.util.List;
+import mavlc.ast.nodes.ASTNode;
+import mavlc.ast.nodes.expression.BinaryExpression;
+import mavlc.ast.nodes.expression.CallExpression;
+import mavlc.ast.nodes.expression.ElementSelect;
+import mavlc.ast.nodes.expression.RecordElementSelect;
+import mavlc.ast.nodes.expression.SelectExpression;
+import mavlc.ast.nodes.expression.StructureInit;
+import mavlc.ast.nodes.expression.SubMatrix;
+import mavlc.ast.nodes.expression.SubVector;
+import mavlc.ast.nodes.expression.UnaryExpression;
+import mavlc.ast.nodes.function.Function;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.nodes.record.RecordTypeDeclaration;
+import mavlc.ast.nodes.statement.CallStatement;
+import mavlc.ast.nodes.statement.Case;
+import mavlc.ast.nodes.statement.CompoundStatement;
+import mavlc.ast.nodes.statement.Default;
+import mavlc.ast.nodes.statement.ForEachLoop;
+import mavlc.ast.nodes.statement.ForLoop;
+import mavlc.ast.nodes.statement.IfStatement;
+import mavlc.ast.nodes.statement.MatrixLHSIdentifier;
+import mavlc.ast.nodes.statement.ReturnStatement;
+import mavlc.ast.nodes.statement.SwitchStatement;
+import mavlc.ast.nodes.statement.ValueDefinition;
+import mavlc.ast.nodes.statement.VariableAssignment;
+import mavlc.ast.nodes.statement.VectorLHSIdentifier;
+import mavlc.ast.visitor.SwitchDispatchVisitor;
+
+/** Walks a whole AST and counts its nodes, dispatching on node kinds or with double dispatch. */
+public class NodeCounter extends SwitchDispatchVisitor<Integer, Void> {
+
+  private final boolean switchDispatch;
+
+  /** Constructor for a counter with double dispatch. */
+  public NodeCounter() {
+    this(false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param switchDispatch True to dispatch with {@link #visit}, false for {@link ASTNode#accept}.
+   */
+  public NodeCounter(boolean switchDispatch) {
+    this.switchDispatch = switchDispatch;
+  }
+
+  /** @return The number of nodes in the subtree of the given node. */
+  public int count(ASTNode node) {
+    return switchDispatch ? visit(node, null) : node.accept(this, null);
+  }
+
+  private int count(List<? extends ASTNode> nodes) {
+    int count = 0;
+    for (ASTNode node : nodes) count += count(node);
+    return count;
+  }
+
+  @Override
+  protected Integer defaultOperation(ASTNode node, Void obj) {
+    return 1;
+  }
+
+  @Override
+  public Integer visitModule(Module module, Void obj) {
+    return 1 + count(module.getRecords()) + count(module.getFunctions());
+  }
+
+  @Override
+  public Integer visitFunction(Function function, Void obj) {
+    return 1 + count(function.getParameters()) + count(function.getFunctionBody());
+  }
+
+  @Override
+  public Integer visitRecordTypeDeclaration(RecordTypeDeclaration record, Void obj) {
+    return 1 + count(record.getElements());
+  }
+
+  @Override
+  public Integer visitValueDefinition(ValueDefinition valueDefinition, Void obj) {
+    return 1 + count(valueDefinition.getValue());
+  }
+
+  @Override
+  public Integer visitVariableAssignment(VariableAssignment assignment, Void obj) {
+    return 1 + count(assignment.getIdentifier()) + count(assignment.getValue());
+  }
+
+  @Override
+  public Integer visitVectorLHSIdentifier(VectorLHSIdentifier identifier, Void obj) {
+    return 1 + count(identifier.getIndex());
+  }
+
+  @Override
+  public Integer visitMatrixLHSIdentifier(MatrixLHSIdentifier identifier, Void obj) {
+    return 1 + count(identifier.getXIndex()) + count(identifier.getYIndex());
+  }
+
+  @Override
+  public Integer visitForLoop(ForLoop forLoop, Void obj) {
+    return 1
+        + count(forLoop.getInitValue())
+        + count(forLoop.getCheck())
+        + count(forLoop.getIncrementExpr())
+        + count(forLoop.getLoopBody());
+  }
+
+  @Override
+  public Integer visitForEachLoop(ForEachLoop forEachLoop, Void obj) {
+    return 1
+        + count(forEachLoop.getIteratorDeclaration())
+        + count(forEachLoop.getStructExpr())
+        + count(forEachLoop.getLoopBody());
+  }
+
+  @Override
+  public Integer visitIfStatement(IfStatement ifStatement, Void obj) {
+    int count = 1 + count(ifStatement.getTestExpression()) + count(ifStatement.getThenStatement());
+    if (ifStatement.hasElseStatement()) count += count(ifStatement.getElseStatement());
+    return count;
+  }
+
+  @Override
+  public Integer visitCallStatement(CallStatement callStatement, Void obj) {
+    return 1 + count(callStatement.getCall());
+  }
+
+  @Override
+  public Integer visitReturnStatement(ReturnStatement returnStatement, Void obj) {
+    return 1 + count(returnStatement.getReturnValue());
+  }
+
+  @Override
+  public Integer visitCompoundStatement(CompoundStatement compoundStatement, Void obj) {
+    return 1 + count(compoundStatement.getStatements());
+  }
+
+  @Override
+  public Integer visitSwitchStatement(SwitchStatement switchStatement, Void obj) {
+    return 1
+        + count(switchStatement.getTestExpression())
+        + count(switchStatement.getCases())
+        + count(switchStatement.getDefaultCases());
+  }
+
+  @Override
+  public Integer visitCase(Case aCase, Void obj) {
+    return 1 + count(aCase.getConditionExpression()) + count(aCase.getStatement());
+  }
+
+  @Override
+  public Integer visitDefault(Default defCase, Void obj) {
+    return 1 + count(defCase.getStatement());
+  }
+
+  @Override
+  public Integer visitBinaryExpression(BinaryExpression binaryExpression, Void obj) {
+    return 1 + count(binaryExpression.getLeftOp()) + count(binaryExpression.getRightOp());
+  }
+
+  @Override
+  public Integer visitUnaryExpression(UnaryExpression unaryExpression, Void obj) {
+    return 1 + count(unaryExpression.getOperand());
+  }
+
+  @Override
+  public Integer visitCallExpression(CallExpression callExpression, Void obj) {
+    return 1 + count(callExpression.getActualParameters());
+  }
+
+  @Override
+  public Integer visitElementSelect(ElementSelect elementSelect, Void obj) {
+    return 1 + count(elementSelect.getStruct()) + count(elementSelect.getIndex());
+  }
+
+  @Override
+  public Integer visitRecordElementSelect(RecordElementSelect recordElementSelect, Void obj) {
+    return 1 + count(recordElementSelect.getRecord());
+  }
+
+  @Override
+  public Integer visitSubMatrix(SubMatrix subMatrix, Void obj) {
+    return 1
+        + count(subMatrix.getStruct())
+        + count(subMatrix.getXStartIndex())
+        + count(subMatrix.getXBaseIndex())
+        + count(subMatrix.getXEndIndex())
+        + count(subMatrix.getYStartIndex())
+        + count(subMatrix.getYBaseIndex())
+        + count(subMatrix.getYEndIndex());
+  }
+
+  @Override
+  public Integer visitSubVector(SubVector subVector, Void obj) {
+    return 1
+        + count(subVector.getStruct())
+        + count(subVector.getStartIndex())
+        + count(subVector.getBaseIndex())
+        + count(subVector.getEndIndex());
+  }
+
+  @Override
+  public Integer visitStructureInit(StructureInit structureInit, Void obj) {
+    return 1 + count(structureInit.getElements());
+  }
+
+  @Override
+  public Integer visitSelectExpression(SelectExpression expr, Void obj) {
+    return 1 + count(expr.getCondition()) + count(expr.getTrueCase()) + count(expr.getFalseCase());
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import mavlc.parser.recursive_descent.DfaScanner;
+import mavlc.parser.recursive_descent.ParallelScanner;
+import mavlc.parser.recursive_descent.Scanner;
+
+/**
+ * Measures scanner throughput in tokens per second on a generated multi-megabyte module.
+ *
+ * <p>Run with {@code java -cp <test classpath> mavlc.frontend.bench.ScannerBenchmark [megabytes]}.
+ */
+public class ScannerBenchmark {
+
+  private static final int WARMUP_ROUNDS = 5;
+
+  private static final int MEASURED_ROUNDS = 10;
+
+  public static void main(String[] args) throws IOException {
+    int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+    String source = MavlGenerator.generateAtLeast(megabytes << 20, 42);
+    Path file = Files.createTempFile("scanner-benchmark", ".mavl");
+    try {
+      Files.write(file, source.getBytes(StandardCharsets.ISO_8859_1));
+      System.out.printf("input: %.1f MB%n", source.length() / (double) (1 << 20));
+      report("Scanner(Path)", () -> new Scanner(file).scan().size());
+      report("Scanner(CharSequence)", () -> new Scanner(source).scan().size());
+      report("DfaScanner(CharSequence)", () -> new DfaScanner(source).scan().size());
+      report("Scanner.scanPacked()", () -> new Scanner(source).scanPacked().size());
+      report("ParallelScanner.scan()", () -> new ParallelScanner(source).scan().size());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /** A benchmarked action, returning the number of tokens it produced. */
+  interface TokenCount {
+    int run() throws IOException;
+  }
+
+  static void report(String name, TokenCount action) throws IOException {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) action.run();
+    long tokens = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) tokens += action.run();
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf(
+        "%-28s %12.0f tokens/s (%d tokens per round)%n",
+        name, tokens / seconds, tokens / MEASURED_ROUNDS);
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import mavlc.parser.recursive_descent.Scanner;
+
+/**
+ * Measures scanner throughput on input dominated by block comments, string literals and deep
+ * indentation, which the scanner skips with bulk searches.
+ *
+ * <p>Run with {@code java -cp <test classpath> mavlc.frontend.bench.SkipBenchmark [megabytes]}, and
+ * once more with {@code -Dmavlc.scanner.scalar=true} to compare against the character-by-character
+ * loop. Inputs from files are memory-mapped, so that both bulk search implementations are measured.
+ */
+public class SkipBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+    System.out.println(
+        Boolean.getBoolean("mavlc.scanner.scalar") ? "scalar skipping" : "bulk skipping");
+    run("comments", generate(megabytes << 20, SkipBenchmark::appendComment));
+    run("strings", generate(megabytes << 20, SkipBenchmark::appendString));
+  }
+
+  private static void run(String name, String source) throws IOException {
+    Path file = Files.createTempFile("skip-benchmark", ".mavl");
+    try {
+      Files.write(file, source.getBytes(StandardCharsets.ISO_8859_1));
+      ScannerBenchmark.report(name + ", String", () -> new Scanner(source).scanPacked().size());
+      ScannerBenchmark.report(name + ", mapped", () -> new Scanner(file).scanPacked().size());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /** Appends one statement-sized chunk of input. */
+  private interface Chunk {
+    void append(StringBuilder sb, Random random);
+  }
+
+  private static String generate(int bytes, Chunk chunk) {
+    Random random = new Random(42);
+    StringBuilder sb = new StringBuilder(bytes + 1024);
+    while (sb.length() < bytes) {
+      for (int i = 4 + random.nextInt(12); i > 0; i--) sb.append("    ");
+      chunk.append(sb, random);
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static void appendComment(StringBuilder sb, Random random) {
+    sb.append("/* ");
+    for (int i = random.nextInt(8); i >= 0; i--) {
+      sb.append("This line explains what the next statement does, at length.\n");
+      for (int j = random.nextInt(6); j > 0; j--) sb.append("    ");
+      sb.append(" * ");
+    }
+    sb.append("*/ acc = acc + 1;");
+  }
+
+  private static void appendString(StringBuilder sb, Random random) {
+    sb.append("printString(\"");
+    for (int i = random.nextInt(8); i >= 0; i--) sb.append("a rather long message text ");
+    sb.append("\");");
+  }
+}
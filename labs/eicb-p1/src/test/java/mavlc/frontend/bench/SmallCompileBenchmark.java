@@ -0,0 +1,66 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.bench;
+
+import java.lang.management.ManagementFactory;
+import mavlc.CompilerContext;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+
+/**
+ * Measures the allocation rate and throughput of parsing many one-line programs, with new
+ * components for every program and with the reused components of a {@link CompilerContext}.
+ *
+ * <p>Run with {@code java -cp <test classpath> mavlc.frontend.bench.SmallCompileBenchmark}.
+ */
+public class SmallCompileBenchmark {
+
+  private static final int PROGRAMS = 1 << 20;
+
+  private static final String[] SOURCES = new String[1024];
+
+  static {
+    for (int i = 0; i < SOURCES.length; i++) {
+      SOURCES[i] = "function int rule" + i + "(int a) { return a * " + i + " + 1; }";
+    }
+  }
+
+  /** A compile of one program. */
+  private interface Compile {
+    Object run(String source);
+  }
+
+  public static void main(String[] args) {
+    report("new Scanner, Deque", source -> new Parser(new Scanner(source).scan()).parse());
+    report("new Scanner", source -> new Parser(new Scanner(source)).parse());
+    report("CompilerContext", source -> CompilerContext.current().parse(source));
+  }
+
+  private static void report(String name, Compile compile) {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    run(compile);
+    long bytes = threads.getThreadAllocatedBytes(thread);
+    long start = System.nanoTime();
+    run(compile);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+    System.out.printf(
+        "%-20s %8.0f bytes per program, %10.0f programs/s%n",
+        name, bytes / (double) PROGRAMS, PROGRAMS / seconds);
+  }
+
+  private static void run(Compile compile) {
+    for (int i = 0; i < PROGRAMS; i++) compile.run(SOURCES[i & (SOURCES.length - 1)]);
+  }
+}
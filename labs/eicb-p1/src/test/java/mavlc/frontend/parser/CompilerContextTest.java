@@ -0,0 +1,106 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import mavlc.CompilerContext;
+import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.frontend.TestCorpus;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import mavlc.parser.recursive_descent.Token;
+import org.junit.Test;
+
+public class CompilerContextTest {
+
+  @Test
+  public void testCorpus() throws IOException {
+    List<String> sources = new ArrayList<>();
+    for (File file : TestCorpus.sourceFiles())
+      sources.add(new String(Files.readAllBytes(file.toPath()), "ISO-8859-1"));
+    sources.addAll(new ArrayList<>(sources));
+    Collections.reverse(sources.subList(sources.size() / 2, sources.size()));
+    CompilerContext context = CompilerContext.current();
+    for (String source : sources) assertEquals(parse(source), serialize(context, source));
+  }
+
+  @Test
+  public void testReuseAfterError() {
+    CompilerContext context = CompilerContext.current();
+    String broken = "function void f() {\n  x = ;\n}";
+    for (int n = 0; n < 2; n++) {
+      assertEquals(parse(broken), serialize(context, broken));
+      String valid = "function int g(int a) { return a * " + n + "; }";
+      assertEquals(parse(valid), serialize(context, valid));
+    }
+  }
+
+  @Test
+  public void testScannerReset() {
+    String[] sources = {
+      "function void f() { x = 1.5; }", "", "record R {\n  var int r;\n}\n// end\n", "\"str\" r x"
+    };
+    Scanner reused = CompilerContext.current().scanner("");
+    for (String source : sources) {
+      reused.reset(source);
+      Scanner fresh = new Scanner(source);
+      Token expected, actual;
+      do {
+        expected = fresh.next();
+        actual = reused.next();
+        assertEquals(source, expected.toString(), actual.toString());
+        assertEquals(source, expected.getLine(), actual.getLine());
+        assertEquals(source, expected.getColumn(), actual.getColumn());
+      } while (expected.type != Token.TokenType.EOF);
+      assertEquals(fresh.getSymbols().size(), reused.getSymbols().size());
+    }
+  }
+
+  @Test
+  public void testContextPerThread() throws InterruptedException {
+    CompilerContext context = CompilerContext.current();
+    assertSame(context, CompilerContext.current());
+    AtomicReference<CompilerContext> other = new AtomicReference<>();
+    Thread thread = new Thread(() -> other.set(CompilerContext.current()));
+    thread.start();
+    thread.join();
+    assertNotSame(context, other.get());
+  }
+
+  private static String serialize(CompilerContext context, String source) {
+    try {
+      return context.getSerialization().serialize(context.parse(source));
+    } catch (SyntaxError e) {
+      return e.getMessage();
+    }
+  }
+
+  /** @return The serialized AST of a fresh parser, or the message of its syntax error. */
+  private static String parse(String source) {
+    try {
+      return new ASTXMLSerialization().serialize(new Parser(new Scanner(source)).parse());
+    } catch (SyntaxError e) {
+      return e.getMessage();
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+public class ErrorRecoveryTest {
+
+  private static final String[] ERRONEOUS = {
+    "x = ;", "var int 3;", "if (x +) { y = 1; }", "foo(1,);", "{ return 1 }", "x = 1..2;"
+  };
+
+  /** What remains of the erroneous statements after recovery. */
+  private static final String[] RECOVERED = {"", "", "", "", "{          }", ""};
+
+  @Test
+  public void testAllErrorsAndPartialModule() {
+    StringBuilder source = new StringBuilder();
+    StringBuilder valid = new StringBuilder();
+    source.append("record R { var int a; }\n");
+    valid.append("record R { var int a; }\n");
+    for (int i = 0; i < ERRONEOUS.length; i++) {
+      String header = "function void f" + i + "() {\n  var int x;\n  ";
+      String footer = "\n  x = " + i + ";\n}\n";
+      source.append(header).append(ERRONEOUS[i]).append(footer);
+      String recovered = RECOVERED[i] + blank(ERRONEOUS[i].substring(RECOVERED[i].length()));
+      valid.append(header).append(recovered).append(footer);
+    }
+
+    List<SyntaxError> errors = new ArrayList<>();
+    Module module = new Parser(new Scanner(source.toString())).parse(errors);
+    assertEquals(ERRONEOUS.length, errors.size());
+    assertEquals(message(source.toString()), errors.get(0).getMessage());
+    for (int i = 0; i < ERRONEOUS.length; i++) {
+      String line = "Syntax error in line " + (4 + 5 * i) + ",";
+      assertTrue(errors.get(i).getMessage(), errors.get(i).getMessage().startsWith(line));
+    }
+    ASTXMLSerialization serialization = new ASTXMLSerialization();
+    Module expected = new Parser(new Scanner(valid.toString())).parse();
+    assertEquals(serialization.serialize(expected), serialization.serialize(module));
+  }
+
+  @Test
+  public void testErrorsOutsideStatements() {
+    String source =
+        "function int (int a) { return a; }\n"
+            + "record R { var int; }\n"
+            + "function void g() { }\n"
+            + "x y z\n"
+            + "function void h() { x = 1;";
+    List<SyntaxError> errors = new ArrayList<>();
+    Module module = new Parser(new Scanner(source)).parse(errors);
+    assertEquals(4, errors.size());
+    assertEquals(1, module.getFunctions().size());
+    assertEquals("g", module.getFunctions().get(0).getName());
+    assertTrue(module.getRecords().isEmpty());
+  }
+
+  @Test
+  public void testSwitchWithoutCase() {
+    String source = "function void f() { switch (x) { y = 1; } }";
+    try {
+      new Parser(new Scanner(source)).parse();
+      fail("expected a SyntaxError");
+    } catch (SyntaxError e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("CASE, DEFAULT, RBRACE"));
+    }
+  }
+
+  @Test
+  public void testRandomCorruptions() {
+    String program = MavlGenerator.generate(10, 25);
+    String[] insertions = {";", "}", "{", "(", "function", "record", "x", "1..2", "= ="};
+    Random random = new Random(26);
+    for (int n = 0; n < 500; n++) {
+      StringBuilder sb = new StringBuilder(program);
+      for (int k = 1 + random.nextInt(4); k > 0; k--) {
+        int offset = random.nextInt(sb.length());
+        if (isDelimiter(sb.charAt(offset)) || offset > 0 && isDelimiter(sb.charAt(offset - 1)))
+          continue;
+        sb.insert(offset, " " + insertions[random.nextInt(insertions.length)] + " ");
+      }
+      String source = sb.toString();
+      List<SyntaxError> errors = new ArrayList<>();
+      new Parser(new Scanner(source)).parse(errors);
+      String expected = message(source);
+      if (expected == null) {
+        assertTrue(errors.isEmpty());
+      } else {
+        assertFalse(errors.isEmpty());
+        assertEquals(source, expected, errors.get(0).getMessage());
+      }
+    }
+  }
+
+  /** @return Whether inserting next to the character could break a comment or a string. */
+  private static boolean isDelimiter(char c) {
+    return c == '/' || c == '*' || c == '"';
+  }
+
+  private static String blank(String text) {
+    return text.replaceAll(".", " ");
+  }
+
+  /** @return The message of the first syntax error, or null if the source has none. */
+  private static String message(String source) {
+    try {
+      new Parser(new Scanner(source)).parse();
+      return null;
+    } catch (SyntaxError e) {
+      return e.getMessage();
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import mavlc.ast.flat.FlatAst;
+import mavlc.ast.flat.FlatAst.Kind;
+import mavlc.ast.flat.FlatNode;
+import mavlc.ast.nodes.expression.Compare;
+import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.frontend.TestCorpus;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+public class FlatAstTest {
+
+  @Test
+  public void testCorpus() throws IOException {
+    ASTXMLSerialization serialization = new ASTXMLSerialization();
+    for (File file : TestCorpus.sourceFiles()) {
+      String source = new String(Files.readAllBytes(file.toPath()), "ISO-8859-1");
+      String expected, actual;
+      try {
+        expected = serialization.serialize(new Parser(new Scanner(source)).parse());
+      } catch (SyntaxError e) {
+        expected = e.getMessage();
+      }
+      try {
+        actual = serialization.serialize(flat(source).getRoot().toNode());
+      } catch (SyntaxError e) {
+        actual = e.getMessage();
+      }
+      assertEquals(file.getName(), expected, actual);
+    }
+  }
+
+  @Test
+  public void testGeneratedModule() {
+    String source = MavlGenerator.generate(200, 22);
+    PackedTokenBuffer tokens = new Scanner(source).scanPacked();
+    String expected = new Parser(tokens.cursor()).parse().dump();
+    assertEquals(expected, flat(source).getRoot().toNode().dump());
+    FlatAst lazy = new Parser(tokens, Parser.DEFAULT_MAX_DEPTH, true).parseFlat();
+    assertEquals(expected, lazy.getRoot().toNode().dump());
+  }
+
+  @Test
+  public void testViews() {
+    String source =
+        "record R { var int a; }\n"
+            + "function int f(int x, float y) {\n"
+            + "  val vector<int>[2] v = [x, 1];\n"
+            + "  v[0] = x + v[1] * 2;\n"
+            + "  if (x < 3) return -x;\n"
+            + "  return v@x;\n"
+            + "}\n";
+    FlatNode module = flat(source).getRoot();
+    assertEquals(Kind.MODULE, module.getKind());
+    assertEquals("R", module.getRecords().get(0).getName());
+    FlatNode element = module.getRecords().get(0).getElements().get(0);
+    assertEquals("a", element.getName());
+    assertEquals(true, element.isVariable());
+
+    FlatNode function = module.getFunctions().get(0);
+    assertEquals("f", function.getName());
+    assertEquals(Kind.INT_TYPE, function.getReturnType().getKind());
+    assertEquals(2, function.getParameters().size());
+    assertEquals("y", function.getParameters().get(1).getName());
+    assertEquals(Kind.FLOAT_TYPE, function.getParameters().get(1).getType().getKind());
+    List<FlatNode> body = function.getFunctionBody();
+    assertEquals(4, body.size());
+
+    FlatNode definition = body.get(0);
+    assertEquals(Kind.VALUE_DEFINITION, definition.getKind());
+    assertEquals(3, definition.getSrcLine());
+    assertEquals(Kind.VECTOR_TYPE, definition.getType().getKind());
+    assertEquals(2, definition.getValue().getElements().size());
+
+    FlatNode assignment = body.get(1);
+    assertEquals("v", assignment.getIdentifier().getName());
+    assertEquals(0, assignment.getIdentifier().getIndex().getIntValue());
+    FlatNode sum = assignment.getValue();
+    assertEquals(Kind.ADDITION, sum.getKind());
+    assertEquals("x", sum.getLeftOp().getIdentifierName());
+    assertEquals(Kind.ELEMENT_SELECT, sum.getRightOp().getLeftOp().getKind());
+    assertEquals(2, sum.getRightOp().getRightOp().getIntValue());
+
+    FlatNode ifStatement = body.get(2);
+    assertEquals(Compare.Comparison.LESS, ifStatement.getTestExpression().getComparator());
+    assertEquals(Kind.UNARY_MINUS, ifStatement.getThenStatement().getReturnValue().getKind());
+    assertNull(ifStatement.getElseStatement());
+    assertFalse(ifStatement.hasElseStatement());
+    assertEquals("x", body.get(3).getReturnValue().getElementName());
+
+    try {
+      sum.getOperand();
+      fail("expected an UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+      assertEquals("expected a unary expression but the node is ADDITION", e.getMessage());
+    }
+    assertEquals(sum, assignment.getValue());
+    assertEquals("x + v[1] * 2", sum.toNode().dump());
+  }
+
+  private static FlatAst flat(String source) {
+    return new Parser(new Scanner(source)).parseFlat();
+  }
+}
@@ -0,0 +1,185 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.IncrementalParser;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+public class IncrementalParserTest {
+
+  @Test
+  public void testEditInsideFunction() {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(40, 20)).scanPacked();
+    IncrementalParser parser = new IncrementalParser(tokens);
+    Module before = parser.parse();
+    int declarations = before.getFunctions().size() + before.getRecords().size();
+    assertEquals(declarations, parser.getReparsedDeclarations());
+
+    int offset = tokens.getSource().toString().indexOf("acc = 0;", indexOfKernel(tokens, 17));
+    Module after = parser.edit(offset + 6, 1, "7");
+    assertEquals(1, parser.getReparsedDeclarations());
+    assertEquals(serialize(new Parser(tokens.cursor()).parse()), serialize(after));
+    for (int i = 0; i < before.getFunctions().size(); i++) {
+      if (i == 17) assertNotSame(before.getFunctions().get(i), after.getFunctions().get(i));
+      else assertSame(before.getFunctions().get(i), after.getFunctions().get(i));
+    }
+    assertSame(before.getRecords().get(1), after.getRecords().get(1));
+  }
+
+  @Test
+  public void testEditsAddingLines() {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(40, 21)).scanPacked();
+    IncrementalParser parser = new IncrementalParser(tokens);
+    Module before = parser.parse();
+    Module after = parser.edit(indexOfKernel(tokens, 30), 0, "\n\n");
+    assertSame(before.getFunctions().get(29), after.getFunctions().get(29));
+    assertNotSame(before.getFunctions().get(30), after.getFunctions().get(30));
+    assertEquals(serialize(new Parser(tokens.cursor()).parse()), serialize(after));
+  }
+
+  @Test
+  public void testEditOfTokens() {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(20, 26)).scanPacked();
+    IncrementalParser parser = new IncrementalParser(tokens);
+    Module before = parser.parse();
+    assertSame(before.getFunctions().get(3), parser.parse().getFunctions().get(3));
+    assertEquals(0, parser.getReparsedDeclarations());
+
+    // the parser does not know which text changed, so it compares all declarations
+    int offset = tokens.getSource().toString().indexOf("acc = 0;", indexOfKernel(tokens, 12));
+    tokens.relex(offset + 6, 1, "5");
+    Module after = parser.parse();
+    assertEquals(1, parser.getReparsedDeclarations());
+    assertEquals(serialize(new Parser(tokens.cursor()).parse()), serialize(after));
+    assertSame(before.getFunctions().get(13), after.getFunctions().get(13));
+  }
+
+  @Test
+  public void testRandomEdits() {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(8, 22)).scanPacked();
+    IncrementalParser parser = new IncrementalParser(tokens);
+    parser.parse();
+    Random random = new Random(23);
+    String[] insertions = {"", " ", "\n", "1", "x", "}", "function void f() {}", "/* */"};
+    for (int n = 0; n < 100; n++) {
+      int length = tokens.getSource().length();
+      int offset = random.nextInt(length);
+      int removed = random.nextInt(Math.min(4, length - offset));
+      String inserted = insertions[random.nextInt(insertions.length)];
+      if (touchesDelimiter(tokens.getSource(), offset, removed)) continue;
+      String removedText = tokens.getSource().subSequence(offset, offset + removed).toString();
+      String edited = edit(parser, offset, removed, inserted);
+      assertEquals("edit " + n, parseAll(tokens), edited);
+      String undone = edit(parser, offset, inserted.length(), removedText);
+      assertEquals("undo " + n, parseAll(tokens), undone);
+    }
+  }
+
+  @Test
+  public void testRecoveryFromError() {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(20, 24)).scanPacked();
+    IncrementalParser parser = new IncrementalParser(tokens);
+    Module before = parser.parse();
+    int offset = indexOfKernel(tokens, 5);
+    try {
+      parser.edit(offset, 0, "{");
+      fail("expected a SyntaxError");
+    } catch (SyntaxError e) {
+      assertEquals(parseAll(tokens), e.getMessage());
+    }
+    Module after = parser.edit(offset, 1, "");
+    assertEquals(0, parser.getReparsedDeclarations());
+    assertSame(before.getFunctions().get(5), after.getFunctions().get(5));
+  }
+
+  @Test
+  public void testUnterminatedComment() {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(20, 25)).scanPacked();
+    IncrementalParser parser = new IncrementalParser(tokens);
+    Module before = parser.parse();
+    String source = tokens.getSource().toString();
+    String unchanged = parseAll(tokens);
+    // no comment follows, so the opened one stays unterminated
+    int comment = indexOfKernel(tokens, 19);
+    assertUnscannable(parser, comment, "/*");
+    assertEquals(source, tokens.getSource().toString());
+    assertEquals(unchanged, parseAll(tokens));
+
+    // the following edits refer to the edited text, in front of and inside the comment
+    assertUnscannable(parser, 0, " ");
+    assertUnscannable(parser, comment + 3, "x");
+    Module after = parser.edit(comment + 4, 0, "*/");
+    String edited = " " + source.substring(0, comment) + "/*x*/" + source.substring(comment);
+    assertEquals(edited, tokens.getSource().toString());
+    assertEquals(serialize(new Parser(new Scanner(edited)).parse()), serialize(after));
+    assertSame(before.getFunctions().get(10), after.getFunctions().get(10));
+    assertNotSame(before.getFunctions().get(19), after.getFunctions().get(19));
+  }
+
+  private static void assertUnscannable(IncrementalParser parser, int offset, String inserted) {
+    try {
+      parser.edit(offset, 0, inserted);
+      fail("expected the comment to be unterminated");
+    } catch (SyntaxError e) {
+      throw e;
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Reached EOF while scanning"));
+    }
+  }
+
+  private static String edit(IncrementalParser parser, int offset, int removed, String inserted) {
+    try {
+      return serialize(parser.edit(offset, removed, inserted));
+    } catch (SyntaxError e) {
+      return e.getMessage();
+    }
+  }
+
+  /** @return Whether an edit could leave a comment or a string literal unterminated. */
+  private static boolean touchesDelimiter(CharSequence source, int offset, int removed) {
+    for (int i = Math.max(0, offset - 1); i <= offset + removed && i < source.length(); i++) {
+      if ("\"/*".indexOf(source.charAt(i)) >= 0) return true;
+    }
+    return false;
+  }
+
+  private static int indexOfKernel(PackedTokenBuffer tokens, int k) {
+    return tokens.getSource().toString().indexOf("function int kernel" + k + "(");
+  }
+
+  private static String serialize(Module module) {
+    return new ASTXMLSerialization().serialize(module);
+  }
+
+  /** @return The serialized AST of a sequential parse, or the message of its syntax error. */
+  private static String parseAll(PackedTokenBuffer tokens) {
+    try {
+      return serialize(new Parser(tokens.cursor()).parse());
+    } catch (SyntaxError e) {
+      return e.getMessage();
+    }
+  }
+}
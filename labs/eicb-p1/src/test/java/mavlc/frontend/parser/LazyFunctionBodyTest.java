@@ -0,0 +1,141 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import mavlc.ast.nodes.function.Function;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.nodes.statement.Statement;
+import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.frontend.TestCorpus;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+public class LazyFunctionBodyTest {
+
+  @Test
+  public void testCorpus() throws IOException {
+    for (File file : TestCorpus.sourceFiles()) {
+      String source = new String(Files.readAllBytes(file.toPath()), "ISO-8859-1");
+      PackedTokenBuffer tokens = new Scanner(source).scanPacked();
+      String expected = serialize(() -> new Parser(tokens.cursor()).parse());
+      String actual = serialize(() -> parseBodies(lazy(tokens).parse()));
+      assertEquals(file.getName(), expected, actual);
+    }
+  }
+
+  @Test
+  public void testSignaturesWithoutBodies() {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(50, 16)).scanPacked();
+    Module eager = new Parser(tokens.cursor()).parse();
+    Module lazy = lazy(tokens).parse();
+    assertEquals(eager.getFunctions().size(), lazy.getFunctions().size());
+    for (int i = 0; i < eager.getFunctions().size(); i++) {
+      Function function = lazy.getFunctions().get(i);
+      assertTrue(function.isBodyPending());
+      assertEquals(eager.getFunctions().get(i).getSignature(), function.getSignature());
+      assertTrue(function.isBodyPending());
+    }
+    assertEquals(eager.dump(), lazy.dump());
+  }
+
+  @Test
+  public void testErrorInBody() {
+    String source = "function void f() { x = ; }\nfunction void g() { }";
+    Module module = lazy(new Scanner(source).scanPacked()).parse();
+    assertEquals("f", module.getFunctions().get(0).getName());
+    assertEquals("g", module.getFunctions().get(1).getName());
+    for (int n = 0; n < 2; n++) {
+      try {
+        module.getFunctions().get(0).getFunctionBody();
+        fail("expected a SyntaxError");
+      } catch (SyntaxError e) {
+        assertEquals(serialize(() -> new Parser(new Scanner(source)).parse()), e.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(200, 17)).scanPacked();
+    Module eager = new Parser(tokens.cursor()).parse();
+    Module lazy = lazy(tokens).parse();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<List<List<Statement>>>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  List<List<Statement>> bodies = new ArrayList<>();
+                  for (Function function : lazy.getFunctions())
+                    bodies.add(function.getFunctionBody());
+                  return bodies;
+                }));
+      }
+      start.countDown();
+      List<List<Statement>> first = results.get(0).get();
+      for (Future<List<List<Statement>>> result : results) {
+        List<List<Statement>> bodies = result.get();
+        for (int i = 0; i < bodies.size(); i++) {
+          assertSame(first.get(i), bodies.get(i));
+          assertFalse(lazy.getFunctions().get(i).isBodyPending());
+          assertEquals(eager.getFunctions().get(i).dump(), lazy.getFunctions().get(i).dump());
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static Parser lazy(PackedTokenBuffer tokens) {
+    return new Parser(tokens, Parser.DEFAULT_MAX_DEPTH, true);
+  }
+
+  private static Module parseBodies(Module module) {
+    for (Function function : module.getFunctions()) function.getFunctionBody();
+    return module;
+  }
+
+  /** A parse of the whole input program. */
+  interface Parse {
+    Module run();
+  }
+
+  private static String serialize(Parse parse) {
+    try {
+      return new ASTXMLSerialization().serialize(parse.run());
+    } catch (SyntaxError e) {
+      return e.getMessage();
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import mavlc.ast.nodes.module.Module;
+import mavlc.error_reporting.NestingDepthError;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+public class NestingDepthTest {
+
+  private static final int DEPTH = 100000;
+
+  @Test
+  public void testDeepParenthesesOnDedicatedThread() {
+    Parser parser = new Parser(new Scanner(parentheses(DEPTH)), DEPTH + 10);
+    Module module = parser.parseOnDedicatedThread();
+    assertEquals(1, module.getFunctions().size());
+  }
+
+  @Test
+  public void testDeepStatementsOnDedicatedThread() {
+    StringBuilder sb = new StringBuilder("function void main() { var int x; ");
+    for (int i = 0; i < DEPTH; i++) sb.append("if (true) ");
+    sb.append("x = 1; }");
+    Module module = new Parser(new Scanner(sb), DEPTH + 10).parseOnDedicatedThread();
+    assertEquals(1, module.getFunctions().size());
+  }
+
+  @Test
+  public void testDepthLimit() {
+    expectNestingDepthError(new Parser(new Scanner(parentheses(DEPTH)), 500), 500);
+  }
+
+  @Test
+  public void testDefaultLimit() {
+    // must not end in a StackOverflowError on the default stack
+    expectNestingDepthError(new Parser(new Scanner(parentheses(DEPTH))), Parser.DEFAULT_MAX_DEPTH);
+  }
+
+  @Test
+  public void testStackOverflow() throws InterruptedException {
+    NestingDepthError[] error = new NestingDepthError[1];
+    Runnable parse =
+        () -> {
+          try {
+            new Parser(new Scanner(parentheses(DEPTH)), Integer.MAX_VALUE).parse();
+          } catch (NestingDepthError e) {
+            error[0] = e;
+          }
+        };
+    Thread thread = new Thread(null, parse, "small-stack", 256 * 1024);
+    thread.start();
+    thread.join();
+    assertEquals(Integer.MAX_VALUE, error[0].getLimit());
+    int depth = error[0].getDepth();
+    assertTrue(depth > 0 && depth < DEPTH);
+    assertTrue(error[0].getMessage().contains("Stack exhausted at nesting depth " + depth + ","));
+  }
+
+  private static void expectNestingDepthError(Parser parser, int limit) {
+    try {
+      parser.parse();
+      fail("expected a NestingDepthError");
+    } catch (NestingDepthError e) {
+      assertEquals(limit, e.getLimit());
+      assertEquals(limit + 1, e.getDepth());
+    }
+  }
+
+  private static String parentheses(int depth) {
+    StringBuilder sb = new StringBuilder("function void main() { val int x = ");
+    for (int i = 0; i < depth; i++) sb.append('(');
+    sb.append('1');
+    for (int i = 0; i < depth; i++) sb.append(')');
+    return sb.append("; }").toString();
+  }
+}
@@ -0,0 +1,187 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import mavlc.ast.nodes.ASTNode;
+import mavlc.ast.nodes.expression.BinaryExpression;
+import mavlc.ast.nodes.expression.ElementSelect;
+import mavlc.ast.nodes.function.Function;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.nodes.statement.Statement;
+import mavlc.ast.nodes.statement.ValueDefinition;
+import mavlc.ast.nodes.statement.VariableAssignment;
+import mavlc.ast.nodes.statement.VariableDeclaration;
+import mavlc.ast.nodes.statement.VectorLHSIdentifier;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.NodeInterner;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+public class NodeInternerTest {
+
+  @Test
+  public void testSharing() {
+    String source =
+        "record R { var int a; }\n"
+            + "function void f(int i) {\n"
+            + "  var vector<int>[4] v;\n"
+            + "  var vector<int>[4] w;\n"
+            + "  var R r;\n"
+            + "  val R s = r;\n"
+            + "  v[i + 1] = v[i + 1] * 2;\n"
+            + "  w[i + 1] = v[i + 2] * 2;\n"
+            + "  var matrix<float>[i][2] m;\n"
+            + "  var matrix<float>[i][2] n;\n"
+            + "}\n";
+    NodeInterner interner = new NodeInterner();
+    List<Statement> body = parse(source, interner).getFunctions().get(0).getFunctionBody();
+
+    VariableDeclaration v = (VariableDeclaration) body.get(0);
+    VariableDeclaration w = (VariableDeclaration) body.get(1);
+    assertSame(v.getType(), w.getType());
+    // record types are linked to the declaration of their module
+    VariableDeclaration r = (VariableDeclaration) body.get(2);
+    assertNotSame(r.getType(), ((ValueDefinition) body.get(3)).getType());
+
+    VariableAssignment first = (VariableAssignment) body.get(4);
+    VariableAssignment second = (VariableAssignment) body.get(5);
+    ElementSelect select = (ElementSelect) ((BinaryExpression) first.getValue()).getLeftOp();
+    // expressions containing identifier references are linked to declarations of their scope
+    BinaryExpression index = (BinaryExpression) select.getIndex();
+    BinaryExpression target =
+        (BinaryExpression) ((VectorLHSIdentifier) second.getIdentifier()).getIndex();
+    assertNotSame(((VectorLHSIdentifier) first.getIdentifier()).getIndex(), index);
+    assertNotSame(index, target);
+    assertNotSame(index.getLeftOp(), target.getLeftOp());
+    assertSame(index.getRightOp(), target.getRightOp());
+    assertSame(
+        ((BinaryExpression) first.getValue()).getRightOp(),
+        ((BinaryExpression) second.getValue()).getRightOp());
+
+    VariableDeclaration m = (VariableDeclaration) body.get(6);
+    assertNotSame(m.getType(), ((VariableDeclaration) body.get(7)).getType());
+    assertTrue(interner.report(), interner.report().contains("VectorType: 1 of 2 shared"));
+    assertFalse(interner.report(), interner.report().contains("MatrixType"));
+  }
+
+  @Test
+  public void testOnlyLiteralsShared() throws IllegalAccessException {
+    String source = MavlGenerator.generate(100, 23);
+    NodeInterner interner = new NodeInterner();
+    Module module = parse(source, interner);
+    Set<ASTNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    Set<ASTNode> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+    collect(module, seen, shared);
+    assertFalse(shared.isEmpty());
+    for (ASTNode node : shared) {
+      String name = node.getClass().getSimpleName();
+      assertTrue(name, name.endsWith("Value"));
+    }
+  }
+
+  @Test
+  public void testSameStructure() {
+    String source = MavlGenerator.generate(100, 23);
+    NodeInterner interner = new NodeInterner();
+    Module shared = parse(source, interner);
+    assertEquals(parse(source, null).dump(), shared.dump());
+    assertTrue(interner.occurrences() > 2 * interner.size());
+  }
+
+  @Test
+  public void testConcurrentLazyBodies() throws Exception {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(200, 29)).scanPacked();
+    NodeInterner sequential = new NodeInterner();
+    Module expected = lazy(tokens, sequential).parse();
+    for (Function function : expected.getFunctions()) function.getFunctionBody();
+
+    NodeInterner interner = new NodeInterner();
+    Module module = lazy(tokens, interner).parse();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        // every thread parses the bodies in another order, so that they intern concurrently
+        List<Function> functions = new ArrayList<>(module.getFunctions());
+        Collections.shuffle(functions, new Random(t));
+        results.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (Function function : functions) function.getFunctionBody();
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> result : results) result.get();
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(expected.dump(), module.dump());
+    assertEquals(sequential.occurrences(), interner.occurrences());
+    assertEquals(sequential.size(), interner.size());
+    assertEquals(sequential.report(), interner.report());
+  }
+
+  private static Module parse(String source, NodeInterner interner) {
+    Parser parser = new Parser(new Scanner(source));
+    parser.setInterner(interner);
+    return parser.parse();
+  }
+
+  private static Parser lazy(PackedTokenBuffer tokens, NodeInterner interner) {
+    Parser parser = new Parser(tokens, Parser.DEFAULT_MAX_DEPTH, true);
+    parser.setInterner(interner);
+    return parser;
+  }
+
+  /** Adds every node below the given one to seen, and those reached a second time to shared. */
+  private static void collect(ASTNode node, Set<ASTNode> seen, Set<ASTNode> shared)
+      throws IllegalAccessException {
+    if (!seen.add(node)) {
+      shared.add(node);
+      return;
+    }
+    for (Class<?> type = node.getClass(); type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        if ((field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0) continue;
+        field.setAccessible(true);
+        Object value = field.get(node);
+        if (value instanceof ASTNode) collect((ASTNode) value, seen, shared);
+        else if (value instanceof List) {
+          for (Object child : (List<?>) value) collect((ASTNode) child, seen, shared);
+        }
+      }
+    }
+  }
+}
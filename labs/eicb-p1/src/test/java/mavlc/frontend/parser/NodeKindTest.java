@@ -0,0 +1,61 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import mavlc.ast.nodes.NodeKind;
+import mavlc.ast.nodes.expression.Addition;
+import mavlc.ast.nodes.expression.IntValue;
+import mavlc.ast.nodes.module.Module;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.frontend.bench.NodeCounter;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import mavlc.test_wrapper.ASTTestWrapper;
+import org.junit.Test;
+
+public class NodeKindTest {
+
+  @Test
+  public void testKinds() {
+    for (NodeKind kind : NodeKind.values()) assertEquals(kind, NodeKind.of(kind.getNodeClass()));
+    Addition addition = new Addition(1, 2, new IntValue(1, 2, 3), new IntValue(1, 4, 5));
+    assertEquals(NodeKind.ADDITION, addition.getKind());
+    assertEquals(NodeKind.INT_VALUE, addition.getLeftOp().getKind());
+    // subclasses have the kind of their node class
+    assertEquals(NodeKind.INT_VALUE, new DerivedIntValue().getKind());
+    try {
+      new ASTTestWrapper(null, true, "test").getKind();
+      fail("expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("no kind of AST-node: " + ASTTestWrapper.class.getName(), e.getMessage());
+    }
+  }
+
+  @Test
+  public void testSwitchDispatch() {
+    Module module = new Parser(new Scanner(MavlGenerator.generate(100, 25))).parse();
+    assertEquals(new NodeCounter(false).count(module), new NodeCounter(true).count(module));
+  }
+
+  private static final class DerivedIntValue extends IntValue {
+
+    /** */
+    private static final long serialVersionUID = 6817351947213389456L;
+
+    DerivedIntValue() {
+      super(1, 2, 3);
+    }
+  }
+}
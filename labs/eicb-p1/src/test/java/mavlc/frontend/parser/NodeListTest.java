@@ -0,0 +1,90 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import mavlc.ast.nodes.NodeList;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.frontend.bench.ChildLists;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.ParallelParser;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+public class NodeListTest {
+
+  @Test
+  public void testChildListsAreFrozen() throws IllegalAccessException {
+    String source = MavlGenerator.generate(40, 21);
+    PackedTokenBuffer tokens = new Scanner(source).scanPacked();
+    Module[] modules = {
+      new Parser(new Scanner(source)).parse(),
+      new Parser(tokens, Parser.DEFAULT_MAX_DEPTH, true).parse(),
+      new ParallelParser(tokens, 100, 4).parse()
+    };
+    for (Module module : modules) {
+      int[] lists = new int[1];
+      ChildLists.walk(
+          module,
+          (owner, list) -> {
+            assertTrue(list.getClass().getName(), list instanceof NodeList);
+            assertTrue(((NodeList<?>) list).isFrozen());
+            try {
+              list.add(null);
+              fail("expected a frozen list");
+            } catch (UnsupportedOperationException e) {
+              lists[0]++;
+            }
+            return list;
+          });
+      assertTrue(lists[0] > 0);
+    }
+  }
+
+  @Test
+  public void testXmlForm() throws IOException {
+    String source =
+        "record R { var int a; }\n"
+            + "function void f(int i) {\n"
+            + "  var vector<int>[2] v;\n"
+            + "  v = [i, 2];\n"
+            + "  g(@R[i]);\n"
+            + "}\n";
+    Module module = new Parser(new Scanner(source)).parse();
+    ASTXMLSerialization serialization = new ASTXMLSerialization();
+    String xml = serialization.serialize(module);
+    // the fields that were linked lists before keep their class attribute, the others have none
+    assertTrue(xml, xml.contains("<records class=\"linked-list\">"));
+    assertTrue(xml, xml.contains("<elements class=\"linked-list\">"));
+    assertTrue(xml, xml.contains("<parameters>"));
+    assertTrue(xml, xml.contains("<actualParameters>"));
+    assertFalse(xml, xml.contains("NodeList"));
+
+    Path file = Files.createTempFile("node-list", ".xml");
+    try {
+      serialization.serialize(module, file.toString());
+      assertEquals(module.dump(), serialization.deserialize(file.toString()).dump());
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
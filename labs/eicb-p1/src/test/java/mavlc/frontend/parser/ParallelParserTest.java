@@ -0,0 +1,90 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.frontend.TestCorpus;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.ParallelParser;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+public class ParallelParserTest {
+
+  private static final String[] CORRUPTIONS = {"}", "{", ";", "function", "record", "(", "x"};
+
+  @Test
+  public void testCorpus() throws IOException {
+    for (File file : TestCorpus.sourceFiles()) {
+      String source = new String(Files.readAllBytes(file.toPath()), "ISO-8859-1");
+      assertSameModule(file.getName(), source, 1);
+    }
+  }
+
+  @Test
+  public void testGeneratedModule() {
+    String source = MavlGenerator.generate(300, 15);
+    for (int sliceTokens : new int[] {1, 50, 1000, 1 << 20})
+      assertSameModule("generated", source, sliceTokens);
+  }
+
+  @Test
+  public void testErrorsInSeveralSlices() {
+    Random random = new Random(15);
+    String source = MavlGenerator.generate(40, 15);
+    for (int n = 0; n < 200; n++) {
+      StringBuilder sb = new StringBuilder(source);
+      for (int i = 1 + random.nextInt(3); i > 0; i--) {
+        int offset = random.nextInt(sb.length() + 1);
+        sb.insert(offset, " " + CORRUPTIONS[random.nextInt(CORRUPTIONS.length)] + " ");
+      }
+      assertSameModule(sb.toString(), sb.toString(), 1 + random.nextInt(100));
+    }
+  }
+
+  private static void assertSameModule(String name, String source, int sliceTokens) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      PackedTokenBuffer tokens = new Scanner(source).scanPacked();
+      String expected = parse(() -> new Parser(tokens.cursor()).parse());
+      ParallelParser parser = new ParallelParser(tokens, Parser.DEFAULT_MAX_DEPTH, sliceTokens);
+      String actual = parse(() -> parser.parse(pool));
+      assertEquals(name, expected, actual);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** A parse of the whole input program. */
+  interface Parse {
+    Module run();
+  }
+
+  private static String parse(Parse parse) {
+    try {
+      return new ASTXMLSerialization().serialize(parse.run());
+    } catch (SyntaxError e) {
+      return e.getMessage();
+    }
+  }
+}
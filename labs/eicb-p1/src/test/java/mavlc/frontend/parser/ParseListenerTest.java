@@ -0,0 +1,219 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.ast.type.ScalarType;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.ASTBuilder;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.ParseListener;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+public class ParseListenerTest {
+
+  @Test
+  public void testBuilderMatchesParse() {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(100, 18)).scanPacked();
+    ASTBuilder builder = new ASTBuilder();
+    new Parser(tokens.cursor()).parse(builder);
+    ASTXMLSerialization serialization = new ASTXMLSerialization();
+    assertEquals(
+        serialization.serialize(new Parser(tokens.cursor()).parse()),
+        serialization.serialize(builder.getModule()));
+  }
+
+  @Test
+  public void testEventsAreBalanced() {
+    PackedTokenBuffer tokens = new Scanner(MavlGenerator.generate(100, 19)).scanPacked();
+    Module module = new Parser(tokens.cursor()).parse();
+    Counter counter = new Counter();
+    new Parser(tokens.cursor()).parse(counter);
+    assertEquals(module.getFunctions().size(), counter.functions);
+    assertEquals(module.getRecords().size(), counter.records);
+    assertTrue(counter.statements > 0);
+    assertEquals(0, counter.openStatements);
+    assertEquals(0, counter.operands);
+    assertTrue(counter.calls.isEmpty());
+  }
+
+  @Test
+  public void testEventsBeforeError() {
+    String source = "function void f() { }\nfunction void g() { x = ; }";
+    Counter counter = new Counter();
+    try {
+      new Parser(new Scanner(source)).parse(counter);
+      fail("expected a SyntaxError");
+    } catch (SyntaxError e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Syntax error in line 2,"));
+    }
+    assertEquals(1, counter.functions);
+  }
+
+  /** Checks the nesting of statements and the operands of expressions. */
+  private static class Counter implements ParseListener {
+    int functions, records, statements, openStatements, operands;
+    final Deque<Integer> calls = new ArrayDeque<>();
+
+    @Override
+    public void exitFunction() {
+      functions++;
+    }
+
+    @Override
+    public void exitRecord() {
+      records++;
+    }
+
+    @Override
+    public void enterStatement(int line, int column) {
+      statements++;
+      openStatements++;
+    }
+
+    @Override
+    public void exitValueDefinition(String name) {
+      exitStatement(1);
+    }
+
+    @Override
+    public void exitVariableDeclaration(String name) {
+      exitStatement(0);
+    }
+
+    @Override
+    public void exitReturn() {
+      exitStatement(1);
+    }
+
+    @Override
+    public void exitAssignment(String name, int indices, String element) {
+      exitStatement(indices + 1);
+    }
+
+    @Override
+    public void exitCallStatement() {
+      exitStatement(1);
+    }
+
+    @Override
+    public void exitFor(String variable, String incrementedVariable) {
+      exitStatement(3);
+    }
+
+    @Override
+    public void exitForEach() {
+      exitStatement(1);
+    }
+
+    @Override
+    public void exitIf() {
+      exitStatement(1);
+    }
+
+    @Override
+    public void exitSwitch() {
+      exitStatement(1);
+    }
+
+    @Override
+    public void onCase(int line, int column) {
+      use(1);
+    }
+
+    @Override
+    public void exitCompound() {
+      exitStatement(0);
+    }
+
+    private void exitStatement(int expressions) {
+      assertTrue(--openStatements >= 0);
+      use(expressions);
+    }
+
+    private void use(int expressions) {
+      operands -= expressions;
+      assertTrue(operands >= 0);
+    }
+
+    @Override
+    public void onVectorType(ScalarType elementType) {
+      use(1);
+    }
+
+    @Override
+    public void onMatrixType(ScalarType elementType) {
+      use(2);
+    }
+
+    @Override
+    public void onIntLiteral(int line, int column, int value) {
+      operands++;
+    }
+
+    @Override
+    public void onFloatLiteral(int line, int column, float value) {
+      operands++;
+    }
+
+    @Override
+    public void onBoolLiteral(int line, int column, boolean value) {
+      operands++;
+    }
+
+    @Override
+    public void onStringLiteral(int line, int column, String value) {
+      operands++;
+    }
+
+    @Override
+    public void onIdentifier(int line, int column, String name) {
+      operands++;
+    }
+
+    @Override
+    public void onOperator(Operator operator, int line, int column) {
+      use(operator.operands);
+      operands++;
+    }
+
+    @Override
+    public void enterCall(int line, int column, String name) {
+      calls.push(operands);
+    }
+
+    @Override
+    public void exitCall() {
+      operands = calls.pop() + 1;
+    }
+
+    @Override
+    public void enterStructureInit(int line, int column, String recordName) {
+      calls.push(operands);
+    }
+
+    @Override
+    public void exitStructureInit() {
+      operands = calls.pop() + 1;
+    }
+  }
+}
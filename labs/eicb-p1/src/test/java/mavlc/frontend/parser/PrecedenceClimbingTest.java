@@ -0,0 +1,269 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Random;
+import mavlc.ast.nodes.ASTNode;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.nodes.statement.ReturnStatement;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+/**
+ * Compares the precedence-climbing expression parser with {@link RecursiveExpressionParser} on
+ * random expressions, both valid and invalid ones.
+ */
+public class PrecedenceClimbingTest {
+
+  private static final int EXPRESSIONS = 20000;
+
+  private static final String[] COMPARATORS = {"<", ">", "<=", ">=", "==", "!="};
+
+  private static final String[] DIMENSIONS = {".dimension", ".xDimension", ".yDimension"};
+
+  private static final String[] ATOMS = {"1", "42", "2.5", "true", "false", "\"s\"", "a", "b2"};
+
+  private final Random random = new Random(13);
+
+  private final StringBuilder sb = new StringBuilder();
+
+  @Test
+  public void testSameAsRecursiveDescent() throws IllegalAccessException {
+    int valid = 0;
+    for (int n = 0; n < EXPRESSIONS; n++) {
+      sb.setLength(0);
+      expression(select(), 3);
+      String expression = random.nextBoolean() ? mutate(sb.toString()) : sb.toString();
+      String source = "function int f() {\n  return " + expression + ";\n}\n";
+
+      String expected;
+      try {
+        expected = dump(new RecursiveExpressionParser(source).parseReturnValue());
+        valid++;
+      } catch (SyntaxError e) {
+        expected = e.getMessage();
+      }
+      String actual;
+      try {
+        Module module = new Parser(new Scanner(source)).parse();
+        ReturnStatement statement =
+            (ReturnStatement) module.getFunctions().get(0).getFunctionBody().get(0);
+        actual = dump(statement.getReturnValue());
+      } catch (SyntaxError e) {
+        actual = e.getMessage();
+      }
+      assertEquals(expression, expected, actual);
+    }
+    // both outcomes must be covered well
+    assertTrue(valid + " valid", valid > EXPRESSIONS / 4 && valid < EXPRESSIONS * 3 / 4);
+  }
+
+  /*
+   * The generator follows the levels of the old grammar, from the select expression down to atoms,
+   * so that unmutated expressions are valid. Operands of lower levels only occur in parentheses.
+   */
+
+  private static final int SELECT = 0, OR = 1, AND = 2, NOT = 3, COMPARE = 4, ADD_SUB = 5;
+
+  private static final int MUL_DIV = 6, UNARY_MINUS = 7, EXP = 8, DIM = 9, DOT_PROD = 10;
+
+  private static final int MATRIX_MUL = 11, SUBRANGE = 12, ELEMENT = 13, RECORD = 14, ATOM = 15;
+
+  /** @return A random level; high levels are more likely, so that operators mix. */
+  private int select() {
+    return random.nextInt(3) == 0 ? SELECT : random.nextInt(ATOM + 1);
+  }
+
+  /** @return Whether to apply an operator of the current level. */
+  private boolean operator() {
+    return random.nextInt(6) == 0;
+  }
+
+  private void expression(int level, int depth) {
+    if (depth == 0) level = ATOM;
+    switch (level) {
+      case SELECT:
+        expression(OR, depth);
+        if (operator()) {
+          token("?");
+          expression(OR, depth - 1);
+          token(":");
+          expression(OR, depth - 1);
+        }
+        break;
+      case OR:
+        list(AND, depth, "|");
+        break;
+      case AND:
+        list(NOT, depth, "&");
+        break;
+      case NOT:
+        if (random.nextBoolean()) token("!");
+        expression(COMPARE, depth);
+        break;
+      case COMPARE:
+        list(ADD_SUB, depth, COMPARATORS);
+        break;
+      case ADD_SUB:
+        list(MUL_DIV, depth, "+", "-");
+        break;
+      case MUL_DIV:
+        list(UNARY_MINUS, depth, "*", "/");
+        break;
+      case UNARY_MINUS:
+        if (random.nextBoolean()) token("-");
+        expression(EXP, depth);
+        break;
+      case EXP:
+        // right-associative
+        expression(DIM, depth);
+        if (operator()) {
+          token("^");
+          expression(EXP, depth - 1);
+        }
+        break;
+      case DIM:
+        expression(DOT_PROD, depth);
+        if (operator()) token(DIMENSIONS[random.nextInt(DIMENSIONS.length)]);
+        break;
+      case DOT_PROD:
+        list(MATRIX_MUL, depth, ".*");
+        break;
+      case MATRIX_MUL:
+        list(SUBRANGE, depth, "#");
+        break;
+      case SUBRANGE:
+        expression(ELEMENT, depth);
+        if (operator()) {
+          range(depth - 1);
+          if (random.nextBoolean()) range(depth - 1);
+        }
+        break;
+      case ELEMENT:
+        expression(RECORD, depth);
+        while (operator()) {
+          token("[");
+          expression(SELECT, depth - 1);
+          token("]");
+        }
+        break;
+      case RECORD:
+        expression(ATOM, depth);
+        if (operator()) token("@x");
+        break;
+      default:
+        atom(depth);
+    }
+  }
+
+  private void atom(int depth) {
+    int choice = depth == 0 ? 0 : random.nextInt(6);
+    switch (choice) {
+      case 1:
+        token("(");
+        expression(select(), depth - 1);
+        token(")");
+        break;
+      case 2:
+        token("g(");
+        for (int i = random.nextInt(3); i > 0; i--) {
+          expression(select(), depth - 1);
+          if (i > 1) token(",");
+        }
+        token(")");
+        break;
+      case 3:
+        token(random.nextBoolean() ? "[" : "@R [");
+        expression(select(), depth - 1);
+        if (random.nextBoolean()) {
+          token(",");
+          expression(select(), depth - 1);
+        }
+        token("]");
+        break;
+      default:
+        token(ATOMS[random.nextInt(ATOMS.length)]);
+    }
+  }
+
+  private void list(int level, int depth, String... operators) {
+    expression(level, depth);
+    while (operator()) {
+      token(operators[random.nextInt(operators.length)]);
+      expression(level, depth - 1);
+    }
+  }
+
+  private void range(int depth) {
+    token("{");
+    expression(select(), depth);
+    token(":");
+    expression(select(), depth);
+    token(":");
+    expression(select(), depth);
+    token("}");
+  }
+
+  private void token(String token) {
+    if (sb.length() > 0) sb.append(random.nextInt(8) == 0 ? "\n " : " ");
+    sb.append(token);
+  }
+
+  /**
+   * @return The expression with one of its tokens removed, repeated, or replaced by a prefix
+   *     operator.
+   */
+  private String mutate(String expression) {
+    String[] tokens = expression.split(" ");
+    int i = random.nextInt(tokens.length);
+    StringBuilder mutated = new StringBuilder();
+    for (int k = 0; k < tokens.length; k++) {
+      if (k == i) {
+        int kind = random.nextInt(3);
+        if (kind == 0) continue;
+        if (kind == 1) mutated.append(tokens[k]).append(' ');
+        else tokens[k] = random.nextBoolean() ? "-" : "!";
+      }
+      mutated.append(tokens[k]).append(' ');
+    }
+    return mutated.toString().trim();
+  }
+
+  /** @return The class, source position and fields of the node and all nodes below it. */
+  private static String dump(Object value) throws IllegalAccessException {
+    if (value instanceof List) {
+      StringBuilder sb = new StringBuilder("[");
+      for (Object element : (List<?>) value) sb.append(dump(element)).append(' ');
+      return sb.append(']').toString();
+    }
+    if (!(value instanceof ASTNode)) return String.valueOf(value);
+    ASTNode node = (ASTNode) value;
+    StringBuilder sb = new StringBuilder(node.getClass().getSimpleName());
+    sb.append('@').append(node.getSrcLine()).append(':').append(node.getSrcColumn()).append('(');
+    for (Class<?> type = node.getClass(); type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        if ((field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0) continue;
+        field.setAccessible(true);
+        sb.append(field.getName()).append('=').append(dump(field.get(node))).append(' ');
+      }
+    }
+    return sb.append(')').toString();
+  }
+}
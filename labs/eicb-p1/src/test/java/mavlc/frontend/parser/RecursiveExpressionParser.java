@@ -0,0 +1,378 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static mavlc.ast.nodes.expression.Compare.Comparison.*;
+import static mavlc.parser.recursive_descent.Token.TokenType.*;
+
+import java.util.Iterator;
+import mavlc.ast.nodes.expression.*;
+import mavlc.ast.nodes.expression.Compare.Comparison;
+import mavlc.error_reporting.SyntaxError;
+import mavlc.parser.recursive_descent.Scanner;
+import mavlc.parser.recursive_descent.Token;
+import mavlc.parser.recursive_descent.Token.TokenType;
+
+/**
+ * The expression grammar as the parser implemented it before precedence climbing, with one method
+ * per precedence level. It is the reference that {@link PrecedenceClimbingTest} compares the
+ * parser with, so it must not be changed along with the parser.
+ */
+final class RecursiveExpressionParser {
+
+  private final Iterator<Token> tokens;
+
+  private Token currentToken;
+
+  /**
+   * Constructor.
+   *
+   * @param source Source text containing exactly one return statement.
+   */
+  RecursiveExpressionParser(String source) {
+    tokens = new Scanner(source).scan().iterator();
+    currentToken = tokens.next();
+  }
+
+  /**
+   * Parses the value of the return statement. Like the parser, it requires the value to be
+   * followed by a semicolon.
+   *
+   * @return The value.
+   * @throws SyntaxError to indicate that an unexpected token was encountered.
+   */
+  Expression parseReturnValue() throws SyntaxError {
+    while (currentToken.type != RETURN) acceptIt();
+    acceptIt();
+    Expression value = parseExpr();
+    accept(SEMICOLON);
+    return value;
+  }
+
+  private String accept(TokenType type) throws SyntaxError {
+    Token t = currentToken;
+    if (t.type != type) throw new SyntaxError(t, type);
+    acceptIt();
+    return t.getSpelling();
+  }
+
+  private void acceptIt() {
+    currentToken = tokens.next();
+    if (currentToken.type == ERROR) throw new SyntaxError(currentToken);
+  }
+
+  private Expression parseExpr() throws SyntaxError {
+    return parseSelect();
+  }
+
+  private Expression parseSelect() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression cond = parseOr();
+    if (currentToken.type == QMARK) {
+      acceptIt();
+      Expression trueCase = parseOr();
+      accept(COLON);
+      Expression falseCase = parseOr();
+      return new SelectExpression(line, column, cond, trueCase, falseCase);
+    }
+    return cond;
+  }
+
+  private Expression parseOr() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression x = parseAnd();
+    while (currentToken.type == OR) {
+      acceptIt();
+      x = new Or(line, column, x, parseAnd());
+    }
+    return x;
+  }
+
+  private Expression parseAnd() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression x = parseNot();
+    while (currentToken.type == AND) {
+      acceptIt();
+      x = new And(line, column, x, parseNot());
+    }
+    return x;
+  }
+
+  private Expression parseNot() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    if (currentToken.type == NOT) {
+      acceptIt();
+      return new BoolNot(line, column, parseCompare());
+    }
+    return parseCompare();
+  }
+
+  private Expression parseCompare() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression expression = parseAddSub();
+    while (true) {
+      Comparison type;
+      switch (currentToken.type) {
+        case RANGLE:
+          type = GREATER;
+          break;
+        case LANGLE:
+          type = LESS;
+          break;
+        case CMPLE:
+          type = LESS_EQUAL;
+          break;
+        case CMPGE:
+          type = GREATER_EQUAL;
+          break;
+        case CMPEQ:
+          type = EQUAL;
+          break;
+        case CMPNE:
+          type = NOT_EQUAL;
+          break;
+        default:
+          return expression;
+      }
+      acceptIt();
+      expression = new Compare(line, column, expression, parseAddSub(), type);
+    }
+  }
+
+  private Expression parseAddSub() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression expression = parseMulDiv();
+    while (true) {
+      switch (currentToken.type) {
+        case ADD:
+          acceptIt();
+          expression = new Addition(line, column, expression, parseMulDiv());
+          break;
+        case SUB:
+          acceptIt();
+          expression = new Subtraction(line, column, expression, parseMulDiv());
+          break;
+        default:
+          return expression;
+      }
+    }
+  }
+
+  private Expression parseMulDiv() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression expression = parseUnaryMinus();
+    while (true) {
+      switch (currentToken.type) {
+        case MULT:
+          acceptIt();
+          expression = new Multiplication(line, column, expression, parseUnaryMinus());
+          break;
+        case DIV:
+          acceptIt();
+          expression = new Division(line, column, expression, parseUnaryMinus());
+          break;
+        default:
+          return expression;
+      }
+    }
+  }
+
+  private Expression parseUnaryMinus() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    if (currentToken.type != SUB) return parseExponentiation();
+    acceptIt();
+    return new UnaryMinus(line, column, parseExponentiation());
+  }
+
+  private Expression parseExponentiation() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression dim = parseDim();
+    if (currentToken.type != EXP) return dim;
+    acceptIt();
+    return new Exponentiation(line, column, dim, parseExponentiation());
+  }
+
+  private Expression parseDim() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression x = parseDotProd();
+    switch (currentToken.type) {
+      case XDIM:
+        acceptIt();
+        return new MatrixXDimension(line, column, x);
+      case YDIM:
+        acceptIt();
+        return new MatrixYDimension(line, column, x);
+      case DIM:
+        acceptIt();
+        return new VectorDimension(line, column, x);
+      default:
+        return x;
+    }
+  }
+
+  private Expression parseDotProd() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression x = parseMatrixMul();
+    while (currentToken.type == DOTPROD) {
+      acceptIt();
+      x = new DotProduct(line, column, x, parseMatrixMul());
+    }
+    return x;
+  }
+
+  private Expression parseMatrixMul() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression x = parseSubrange();
+    while (currentToken.type == MATMULT) {
+      acceptIt();
+      x = new MatrixMultiplication(line, column, x, parseSubrange());
+    }
+    return x;
+  }
+
+  private Expression parseSubrange() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression expression = parseElementSelect();
+    if (currentToken.type != LBRACE) return expression;
+
+    acceptIt();
+    Expression start1 = parseExpr();
+    accept(COLON);
+    Expression base1 = parseExpr();
+    accept(COLON);
+    Expression end1 = parseExpr();
+    accept(RBRACE);
+    if (currentToken.type != LBRACE) {
+      return new SubVector(line, column, expression, base1, start1, end1);
+    }
+
+    acceptIt();
+    Expression start2 = parseExpr();
+    accept(COLON);
+    Expression base2 = parseExpr();
+    accept(COLON);
+    Expression end2 = parseExpr();
+    accept(RBRACE);
+    return new SubMatrix(line, column, expression, base1, start1, end1, base2, start2, end2);
+  }
+
+  private Expression parseElementSelect() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression x = parseRecordElementSelect();
+    while (currentToken.type == LBRACKET) {
+      acceptIt();
+      Expression idx = parseExpr();
+      accept(RBRACKET);
+      x = new ElementSelect(line, column, x, idx);
+    }
+    return x;
+  }
+
+  private Expression parseRecordElementSelect() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    Expression x = parseAtom();
+    if (currentToken.type == AT) {
+      accept(AT);
+      x = new RecordElementSelect(line, column, x, accept(ID));
+    }
+    return x;
+  }
+
+  private Expression parseAtom() throws SyntaxError {
+    int line = currentToken.getLine();
+    int column = currentToken.getColumn();
+
+    switch (currentToken.type) {
+      case INTLIT:
+        return new IntValue(line, column, Integer.parseInt(accept(INTLIT)));
+      case FLOATLIT:
+        return new FloatValue(line, column, Float.parseFloat(accept(FLOATLIT)));
+      case BOOLLIT:
+        return new BoolValue(line, column, Boolean.parseBoolean(accept(BOOLLIT)));
+      case STRINGLIT:
+        return new StringValue(line, column, accept(STRINGLIT));
+      default: /* check other cases below */
+    }
+
+    if (currentToken.type == ID) {
+      String name = accept(ID);
+      if (currentToken.type != LPAREN) return new IdentifierReference(line, column, name);
+      CallExpression call = new CallExpression(line, column, name);
+      accept(LPAREN);
+      if (currentToken.type != RPAREN) {
+        call.addActualParameter(parseExpr());
+        while (currentToken.type != RPAREN) {
+          accept(COMMA);
+          call.addActualParameter(parseExpr());
+        }
+      }
+      accept(RPAREN);
+      return call;
+    }
+
+    if (currentToken.type == LPAREN) {
+      acceptIt();
+      Expression x = parseExpr();
+      accept(RPAREN);
+      return x;
+    }
+
+    StructureInit s = new StructureInit(line, column);
+    if (currentToken.type == AT) {
+      acceptIt();
+      s = new RecordInit(line, column, accept(ID));
+    }
+    if (currentToken.type == LBRACKET) {
+      acceptIt();
+      s.addElement(parseExpr());
+      while (currentToken.type == COMMA) {
+        accept(COMMA);
+        s.addElement(parseExpr());
+      }
+      accept(RBRACKET);
+      return s;
+    }
+
+    throw new SyntaxError(
+        currentToken, INTLIT, FLOATLIT, BOOLLIT, STRINGLIT, ID, LPAREN, LBRACKET, AT);
+  }
+}
@@ -0,0 +1,207 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import mavlc.ast.nodes.ASTNode;
+import mavlc.ast.nodes.expression.Compare;
+import mavlc.ast.nodes.expression.Compare.Comparison;
+import mavlc.ast.nodes.expression.IdentifierReference;
+import mavlc.ast.nodes.expression.IntValue;
+import mavlc.ast.nodes.expression.StructureInit;
+import mavlc.ast.nodes.function.Function;
+import mavlc.ast.nodes.module.Module;
+import mavlc.ast.nodes.record.RecordElementDeclaration;
+import mavlc.ast.nodes.record.RecordTypeDeclaration;
+import mavlc.ast.nodes.statement.Case;
+import mavlc.ast.nodes.statement.ReturnStatement;
+import mavlc.ast.nodes.statement.Statement;
+import mavlc.ast.nodes.statement.SwitchStatement;
+import mavlc.ast.serialization.ASTXMLSerialization;
+import mavlc.ast.type.Type;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import org.junit.Test;
+
+public class StructuralHashTest {
+
+  @Test
+  public void testEqualModules() {
+    String source = MavlGenerator.generate(50, 24);
+    Module module = parse(source);
+    Module again = parse(source);
+    assertEquals(module.structuralHash(), again.structuralHash());
+    assertEquals(module.hashCode(), again.hashCode());
+    assertEquals(module, again);
+
+    Module changed = parse(source.replaceFirst("acc = 0;", "acc = 1;"));
+    assertNotEquals(module.structuralHash(), changed.structuralHash());
+    assertNotEquals(module, changed);
+  }
+
+  @Test
+  public void testEqualSubtrees() {
+    List<Statement> body =
+        parse(
+                "function int f(int a) {\n"
+                    + "  return a * 2 + 1;\n"
+                    + "  return a * 2 + 1;\n"
+                    + "  return a * 2 - 1;\n"
+                    + "  return a < 2;\n"
+                    + "  return a > 2;\n"
+                    + "}\n")
+            .getFunctions()
+            .get(0)
+            .getFunctionBody();
+    ReturnStatement first = (ReturnStatement) body.get(0);
+    ReturnStatement second = (ReturnStatement) body.get(1);
+    assertNotEquals(first.getSrcLine(), second.getSrcLine());
+    assertEquals(first.structuralHash(), second.structuralHash());
+    assertEquals(first.getReturnValue(), second.getReturnValue());
+    assertNotEquals(first.structuralHash(), body.get(2).structuralHash());
+    assertNotEquals(body.get(3).structuralHash(), body.get(4).structuralHash());
+    assertNotEquals(
+        ((ReturnStatement) body.get(3)).getReturnValue(),
+        ((ReturnStatement) body.get(4)).getReturnValue());
+  }
+
+  @Test
+  public void testEqualsAgreesWithHash() {
+    // each pair differs in a field that the structural hash covers
+    assertDistinct(compare(Comparison.LESS), compare(Comparison.GREATER));
+    Statement statement = new ReturnStatement(2, 5, new IntValue(2, 12, 0));
+    assertDistinct(
+        new Case(2, 3, new IntValue(2, 8, 1), statement),
+        new Case(2, 3, new IntValue(2, 8, 2), statement));
+    assertDistinct(
+        new RecordElementDeclaration(1, 12, true, Type.getIntType(), "x"),
+        new RecordElementDeclaration(1, 12, true, Type.getIntType(), "y"));
+    assertDistinct(
+        new RecordTypeDeclaration(1, 1, "R", Collections.emptyList()),
+        new RecordTypeDeclaration(1, 1, "S", Collections.emptyList()));
+  }
+
+  @Test
+  public void testDeduplication() {
+    Module module = parse(MavlGenerator.generate(200, 24));
+    int statements = 0;
+    Set<Statement> distinct = new HashSet<>();
+    for (Function function : module.getFunctions()) {
+      for (Statement statement : function.getFunctionBody()) {
+        statements++;
+        distinct.add(statement);
+      }
+    }
+    assertTrue(distinct.size() + " of " + statements, distinct.size() < statements);
+  }
+
+  @Test
+  public void testHandBuiltAst() {
+    StructureInit init = new StructureInit(2, 10);
+    init.addElement(new IntValue(2, 11, 1));
+    ReturnStatement statement = new ReturnStatement(2, 3, init);
+    long hash = statement.structuralHash();
+    StructureInit other = new StructureInit(3, 10);
+    other.addElement(new IntValue(3, 11, 1));
+    other.addElement(new IntValue(3, 14, 2));
+    ReturnStatement changed = new ReturnStatement(3, 3, other);
+    changed.hashCode();
+    assertNotEquals(statement, changed);
+
+    // the hash of the enclosing statement follows the change of its child
+    init.addElement(new IntValue(2, 14, 2));
+    assertNotEquals(hash, statement.structuralHash());
+    assertEquals(changed.structuralHash(), statement.structuralHash());
+    assertEquals(statement, changed);
+  }
+
+  @Test
+  public void testDeserializedAst() throws IOException {
+    Module module = parse(MavlGenerator.generate(20, 24));
+    module.hashCode();
+    ASTXMLSerialization serialization = new ASTXMLSerialization();
+    Path file = Files.createTempFile("structural-hash", ".xml");
+    try {
+      serialization.serialize(module, file.toString());
+      Module copy = (Module) serialization.deserialize(file.toString());
+      assertEquals(module.structuralHash(), copy.structuralHash());
+      assertEquals(module, copy);
+
+      copy.getFunctions().get(0).addStatement(new ReturnStatement(1, 1, new IntValue(1, 8, 0)));
+      assertNotEquals(module.structuralHash(), copy.structuralHash());
+      assertNotEquals(module, copy);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testFrozenSwitch() {
+    Module module =
+        parse("function void f(int a) {\n  switch (a) {\n    case 1: a = 2;\n  }\n}\n");
+    SwitchStatement statement =
+        (SwitchStatement) module.getFunctions().get(0).getFunctionBody().get(0);
+    try {
+      statement.setTestExpression(new IntValue(2, 11, 1));
+      fail("the test expression of a parsed switch must not change");
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @Test
+  public void testPendingBodies() {
+    String source = MavlGenerator.generate(20, 24);
+    PackedTokenBuffer tokens = new Scanner(source).scanPacked();
+    Module lazy = new Parser(tokens, Parser.DEFAULT_MAX_DEPTH, true).parse();
+    Function function = lazy.getFunctions().get(0);
+    long signature = function.structuralHash();
+    lazy.hashCode();
+    for (Function f : lazy.getFunctions()) assertTrue(f.isBodyPending());
+
+    Module eager = parse(source);
+    eager.hashCode();
+    assertEquals(eager, lazy);
+    assertFalse(function.isBodyPending());
+    assertNotEquals(signature, function.structuralHash());
+    assertEquals(eager.structuralHash(), lazy.structuralHash());
+  }
+
+  /** Checks that two nodes differ, both before and after their structural hashes are known. */
+  private static void assertDistinct(ASTNode node, ASTNode other) {
+    assertNotEquals(node, other);
+    assertNotEquals(node.structuralHash(), other.structuralHash());
+    assertNotEquals(node, other);
+  }
+
+  private static Compare compare(Comparison comparator) {
+    return new Compare(
+        1, 1, new IdentifierReference(1, 1, "a"), new IdentifierReference(1, 5, "b"), comparator);
+  }
+
+  private static Module parse(String source) {
+    return new Parser(new Scanner(source)).parse();
+  }
+}
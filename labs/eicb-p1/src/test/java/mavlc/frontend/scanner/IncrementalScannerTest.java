@@ -0,0 +1,93 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Scanner;
+import mavlc.parser.recursive_descent.Token;
+import org.junit.Test;
+
+public class IncrementalScannerTest {
+
+  private static final String[] INSERTIONS = {
+    "a", "1", ".", " ", "\n", "/", "*", "\"", "=", "<", "int", "foo", "/* x */", "// y\n", "\"s\"",
+    ".dimension", "*/", "\n\n  ", "9.5", "!"
+  };
+
+  @Test
+  public void testRandomEdits() {
+    Random random = new Random(123);
+    String source = MavlGenerator.generate(30, 8);
+    PackedTokenBuffer tokens = new Scanner(source).scanPacked();
+    for (int n = 0; n < 1000; n++) {
+      int offset = random.nextInt(source.length() + 1);
+      int removed = random.nextInt(4) == 0 ? random.nextInt(30) : 0;
+      removed = Math.min(removed, source.length() - offset);
+      String inserted = random.nextBoolean() ? INSERTIONS[random.nextInt(INSERTIONS.length)] : "";
+      String edited = source.substring(0, offset) + inserted + source.substring(offset + removed);
+      String message = offset + " -" + removed + " +" + inserted;
+
+      String expected = scanFully(edited);
+      if (!expected.endsWith("EOF\n")) {
+        // a failed edit leaves the buffer unusable, so try it on a copy
+        PackedTokenBuffer copy = new Scanner(source).scanPacked();
+        try {
+          copy.relex(edited, offset, removed, inserted.length());
+          assertEquals(message, expected, dump(copy));
+        } catch (RuntimeException e) {
+          assertEquals(message, expected, e.getMessage());
+        }
+        continue;
+      }
+      tokens.relex(edited, offset, removed, inserted.length());
+      assertEquals(message, expected, dump(tokens));
+      source = edited;
+    }
+  }
+
+  @Test
+  public void testEditAtBothEnds() {
+    String source = "var int x;\n";
+    PackedTokenBuffer tokens = new Scanner(source).scanPacked();
+    tokens.relex(0, 0, "/*c*/");
+    assertEquals(scanFully("/*c*/var int x;\n"), dump(tokens));
+    tokens.relex(16, 0, "val");
+    assertEquals(scanFully("/*c*/var int x;\nval"), dump(tokens));
+    tokens.relex(0, 19, "");
+    assertEquals(scanFully(""), dump(tokens));
+  }
+
+  private static String scanFully(String source) {
+    try {
+      return dump(new Scanner(source).scanPacked());
+    } catch (RuntimeException e) {
+      return e.getMessage();
+    }
+  }
+
+  private static String dump(PackedTokenBuffer tokens) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < tokens.size(); i++) {
+      Token t = tokens.token(i);
+      sb.append(tokens.start(i)).append(' ').append(t.getLine()).append(':').append(t.getColumn());
+      sb.append(' ').append(t.getSpelling()).append(' ').append(t.type);
+      if (t.type == Token.TokenType.INTLIT) sb.append(' ').append(t.getIntValue());
+      if (t.type == Token.TokenType.FLOATLIT) sb.append(' ').append(t.getFloatValue());
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+}
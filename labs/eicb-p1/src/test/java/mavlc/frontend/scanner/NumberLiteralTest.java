@@ -0,0 +1,70 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Scanner;
+import mavlc.parser.recursive_descent.Token;
+import org.junit.Test;
+
+public class NumberLiteralTest {
+
+  @Test
+  public void testIntValues() {
+    String[] literals = {"0", "7", "0042", "65536", "2147483647", "000000000002147483647"};
+    for (String literal : literals)
+      assertEquals(literal, Integer.parseInt(literal), scan(literal).getIntValue());
+  }
+
+  @Test
+  public void testFloatValues() {
+    Random random = new Random(7);
+    for (int n = 0; n < 100000; n++) {
+      StringBuilder sb = new StringBuilder();
+      sb.append(random.nextInt(n % 2 == 0 ? 100 : Integer.MAX_VALUE)).append('.');
+      for (int i = random.nextInt(n % 3 == 0 ? 20 : 8); i > 0; i--) sb.append(random.nextInt(10));
+      String literal = sb.toString();
+      float expected = Float.parseFloat(literal);
+      assertEquals(literal, Float.floatToIntBits(expected), bits(scan(literal).getFloatValue()));
+      PackedTokenBuffer packed = new Scanner(literal).scanPacked();
+      assertEquals(literal, Float.floatToIntBits(expected), bits(packed.token(0).getFloatValue()));
+    }
+  }
+
+  @Test
+  public void testMalformedLiterals() {
+    String huge = "1000000000000000000000000000000000000000";
+    String[] literals = {"1.2.3", "1..", "2147483648", "99999999999999999999", huge + ".0"};
+    for (String literal : literals) {
+      Token token = scan(literal);
+      assertEquals(literal, Token.TokenType.ERROR, token.type);
+      assertEquals(literal, literal, token.getSpelling());
+    }
+  }
+
+  @Test
+  public void testExplicitTokens() {
+    assertEquals(42, new Token(Token.TokenType.INTLIT, "42", 1, 0).getIntValue());
+    assertEquals(1.5f, new Token(Token.TokenType.FLOATLIT, "1.5", 1, 0).getFloatValue(), 0);
+  }
+
+  private static Token scan(String literal) {
+    return new Scanner(literal).next();
+  }
+
+  private static int bits(float value) {
+    return Float.floatToIntBits(value);
+  }
+}
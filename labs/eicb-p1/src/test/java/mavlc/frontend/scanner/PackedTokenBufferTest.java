@@ -0,0 +1,60 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Iterator;
+import mavlc.ast.nodes.module.Module;
+import mavlc.frontend.TestCorpus;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Parser;
+import mavlc.parser.recursive_descent.Scanner;
+import mavlc.parser.recursive_descent.Token;
+import org.junit.Test;
+
+public class PackedTokenBufferTest {
+
+  @Test
+  public void testSameTokensAsScan() throws IOException {
+    for (File file : TestCorpus.sourceFiles()) {
+      Deque<Token> expected = new Scanner(file).scan();
+      PackedTokenBuffer actual = new Scanner(file).scanPacked();
+      assertEquals(file.getName(), expected.size(), actual.size());
+      Iterator<Token> it = expected.iterator();
+      for (int i = 0; i < actual.size(); i++) {
+        Token e = it.next();
+        Token a = actual.token(i);
+        assertEquals(file.getName(), e, a);
+        assertEquals(file.getName(), e.getLine(), a.getLine());
+        assertEquals(file.getName(), e.getColumn(), a.getColumn());
+        assertEquals(file.getName(), e.getSymbol(), a.getSymbol());
+        if (e.type == Token.TokenType.INTLIT)
+          assertEquals(file.getName(), e.getIntValue(), a.getIntValue());
+        if (e.type == Token.TokenType.FLOATLIT)
+          assertEquals(file.getName(), e.getFloatValue(), a.getFloatValue(), 0);
+      }
+    }
+  }
+
+  @Test
+  public void testParserRunsOnBuffer() throws IOException {
+    String source = MavlGenerator.generate(200, 3);
+    Module expected = new Parser(new Scanner(source).scan()).parse();
+    Module actual = new Parser(new Scanner(source).scanPacked().cursor()).parse();
+    assertEquals(expected.dump(), actual.dump());
+  }
+}
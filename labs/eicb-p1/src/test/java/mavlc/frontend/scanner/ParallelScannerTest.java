@@ -0,0 +1,116 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import mavlc.frontend.TestCorpus;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.ParallelScanner;
+import mavlc.parser.recursive_descent.Scanner;
+import mavlc.parser.recursive_descent.SymbolTable;
+import mavlc.parser.recursive_descent.Token;
+import org.junit.Test;
+
+public class ParallelScannerTest {
+
+  private static final String[] PIECES = {
+    "var int a;\n", "/* block\n comment \"with quote */\n", "\"string // not a comment\"\n",
+    "// line /* comment\n", "x = 1.5 * y;\n", "\"multi\nline /* string\"\n", "/*\n*/\n", "\n\n",
+    "printString(\"*/\");\n", "a.dimension ", "/**/", "\"\"", "c.xD\n"
+  };
+
+  @Test
+  public void testCorpus() throws IOException {
+    for (File file : TestCorpus.sourceFiles()) {
+      String source = new String(Files.readAllBytes(file.toPath()), "ISO-8859-1");
+      assertSameTokens(file.getName(), source, 16);
+    }
+  }
+
+  @Test
+  public void testGeneratedModule() {
+    String source = MavlGenerator.generate(300, 21);
+    for (int chunkSize : new int[] {1, 7, 64, 1000})
+      assertSameTokens("generated", source, chunkSize);
+  }
+
+  @Test
+  public void testChunksInsideCommentsAndStrings() {
+    Random random = new Random(99);
+    for (int n = 0; n < 2000; n++) {
+      StringBuilder sb = new StringBuilder();
+      int pieces = random.nextInt(30);
+      for (int i = 0; i < pieces; i++) sb.append(PIECES[random.nextInt(PIECES.length)]);
+      if (random.nextInt(10) == 0) sb.append("/* unterminated\n");
+      assertSameTokens(sb.toString(), sb.toString(), 1 + random.nextInt(20));
+    }
+  }
+
+  @Test
+  public void testSymbolStatistics() {
+    String source = MavlGenerator.generate(300, 21);
+    Scanner scanner = new Scanner(source);
+    scanner.scanPacked();
+    SymbolTable expected = scanner.getSymbols();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int chunkSize : new int[] {7, 64, 1000}) {
+        ParallelScanner parallel = new ParallelScanner(source, chunkSize);
+        parallel.scan(pool);
+        SymbolTable actual = parallel.getSymbols();
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.occurrences(), actual.occurrences());
+        assertEquals(expected.bytesSaved(), actual.bytesSaved());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void assertSameTokens(String name, String source, int chunkSize) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      String expected = dump(() -> new Scanner(source).scanPacked());
+      String actual = dump(() -> new ParallelScanner(source, chunkSize).scan(pool));
+      assertEquals(name, expected, actual);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** A scan of the whole input program. */
+  interface Scan {
+    PackedTokenBuffer run();
+  }
+
+  private static String dump(Scan scan) {
+    StringBuilder sb = new StringBuilder();
+    try {
+      PackedTokenBuffer tokens = scan.run();
+      for (int i = 0; i < tokens.size(); i++) {
+        Token t = tokens.token(i);
+        sb.append(t.type).append(' ').append(t.getSpelling()).append(' ').append(t.getSymbol());
+        sb.append(' ').append(t.getLine()).append(':').append(t.getColumn()).append('\n');
+      }
+    } catch (RuntimeException e) {
+      sb.append(e.getMessage());
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import mavlc.frontend.TestCorpus;
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.DfaScanner;
+import mavlc.parser.recursive_descent.Scanner;
+import mavlc.parser.recursive_descent.Token;
+import mavlc.parser.recursive_descent.TokenSource;
+import org.junit.Test;
+
+public class ScannerConsistencyTest {
+
+  private static final String ALPHABET = "ab1.9_ \n\t\r\"/*<=>!-+#?&|^@:;,()[]{}ä\0";
+
+  private static final String[] WORDS = {
+    "int", "if", "foreach", "for", "true", "false", ".dimension", ".xDimension", ".yDim", ".*",
+    "1.5", "1..2", "/* c */", "// c\n", "\"s\"", "<=", "!=", "=="
+  };
+
+  @Test
+  public void testCorpus() throws IOException {
+    for (File file : TestCorpus.sourceFiles()) {
+      String source = new String(java.nio.file.Files.readAllBytes(file.toPath()), "ISO-8859-1");
+      assertSameTokens(file.getName(), source);
+    }
+  }
+
+  @Test
+  public void testGeneratedModule() {
+    assertSameTokens("generated", MavlGenerator.generate(100, 11));
+  }
+
+  @Test
+  public void testRandomInputs() {
+    Random random = new Random(4711);
+    for (int n = 0; n < 20000; n++) {
+      StringBuilder sb = new StringBuilder();
+      int length = random.nextInt(n % 10 == 0 ? 200 : 20);
+      for (int i = 0; i < length; i++) {
+        if (random.nextInt(4) == 0) sb.append(WORDS[random.nextInt(WORDS.length)]);
+        else sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      }
+      assertSameTokens(sb.toString(), sb.toString());
+    }
+  }
+
+  private static void assertSameTokens(String name, String source) {
+    String expected = dump(new Scanner(source));
+    assertEquals(name, expected, dump(new DfaScanner(source)));
+    // the bulk searches differ for strings, byte buffers and other character sequences
+    ByteBuffer bytes = ByteBuffer.wrap(source.getBytes(StandardCharsets.ISO_8859_1));
+    assertEquals(name, expected, dump(new Scanner(bytes)));
+    assertEquals(name, expected, dump(new Scanner(CharBuffer.wrap(source))));
+  }
+
+  /** Dumps all tokens, or the tokens up to the scanner's error message. */
+  private static String dump(TokenSource tokens) {
+    StringBuilder sb = new StringBuilder();
+    try {
+      Token t;
+      do {
+        t = tokens.next();
+        sb.append(t.type).append(' ').append(t.getSpelling()).append(' ');
+        sb.append(t.getLine()).append(':').append(t.getColumn()).append('\n');
+      } while (t.type != Token.TokenType.EOF);
+    } catch (RuntimeException e) {
+      sb.append(e.getMessage());
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ * ***************************************************************************** Copyright (C)
+ * 2016-2018 Embedded Systems and Applications Group Department of Computer Science, Technische
+ * Universitaet Darmstadt, Hochschulstr. 10, 64289 Darmstadt, Germany.
+ *
+ * <p>All rights reserved.
+ *
+ * <p>This software is provided free for educational use only. It may not be used for commercial
+ * purposes without the prior written permission of the authors.
+ * ****************************************************************************
+ */
+package mavlc.frontend.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import mavlc.frontend.bench.MavlGenerator;
+import mavlc.parser.recursive_descent.PackedTokenBuffer;
+import mavlc.parser.recursive_descent.Scanner;
+import mavlc.parser.recursive_descent.SymbolTable;
+import mavlc.parser.recursive_descent.Token;
+import org.junit.Test;
+
+public class SymbolTableTest {
+
+  @Test
+  public void testIdentifiersShareSymbols() {
+    Scanner scanner = new Scanner("acc = acc + n; n = acc;");
+    Token first = scanner.next();
+    scanner.next();
+    Token second = scanner.next();
+    scanner.next();
+    Token n = scanner.next();
+    assertEquals(first.getSymbol(), second.getSymbol());
+    assertSame(first.getSpelling(), second.getSpelling());
+    assertNotEquals(first.getSymbol(), n.getSymbol());
+    assertEquals(-1, scanner.next().getSymbol());
+
+    scanner.scan();
+    SymbolTable symbols = scanner.getSymbols();
+    assertEquals(2, symbols.size());
+    assertEquals(5, symbols.occurrences());
+    assertEquals("acc", symbols.name(first.getSymbol()));
+  }
+
+  @Test
+  public void testManySymbols() {
+    SymbolTable symbols = new SymbolTable();
+    for (int i = 0; i < 10000; i++) assertEquals(i, symbols.intern("x" + i));
+    for (int i = 0; i < 10000; i++) assertEquals(i, symbols.intern("x" + i));
+    assertEquals(10000, symbols.size());
+    assertEquals("x4711", symbols.name(4711));
+  }
+
+  @Test
+  public void testPackedTokensShareSymbols() {
+    String source = MavlGenerator.generate(50, 5);
+    Scanner scanner = new Scanner(source);
+    PackedTokenBuffer packed = scanner.scanPacked();
+    Token expected = null;
+    for (int i = 0; i < packed.size(); i++) {
+      Token t = packed.token(i);
+      if (t.type != Token.TokenType.ID || !t.getSpelling().equals("acc")) continue;
+      if (expected == null) expected = t;
+      assertEquals(expected.getSymbol(), t.getSymbol());
+      assertSame(expected.getSpelling(), t.getSpelling());
+    }
+    assertEquals(scanner.getSymbols(), packed.getSymbols());
+  }
+}